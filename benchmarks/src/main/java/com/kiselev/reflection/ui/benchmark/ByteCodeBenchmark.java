@@ -0,0 +1,109 @@
+package com.kiselev.reflection.ui.benchmark;
+
+import com.kiselev.reflection.ui.api.ReflectionUI;
+import com.kiselev.reflection.ui.bytecode.agent.Transformer;
+import com.kiselev.reflection.ui.bytecode.holder.ByteCodeHolder;
+import com.kiselev.reflection.ui.impl.ReflectionUIImpl;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.lang.instrument.IllegalClassFormatException;
+import java.nio.ByteBuffer;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Disassembly of captured classes and the cost the agent adds to every class load.
+ * The agent attaches to the benchmark JVM itself, which needs jdk.attach.allowAttachSelf on Java 9+.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Djdk.attach.allowAttachSelf=true")
+public class ByteCodeBenchmark {
+
+    @Param({"java.lang.String", "java.util.HashMap", "java.util.concurrent.ConcurrentHashMap"})
+    private String className;
+
+    private ReflectionUI reflectionUI;
+
+    private Class<?> clazz;
+
+    private Transformer transformer;
+
+    private String internalClassName;
+
+    private byte[] byteCode;
+
+    private byte[] changedByteCode;
+
+    private boolean changed;
+
+    @Setup
+    public void setUp() throws ClassNotFoundException {
+        reflectionUI = new ReflectionUIImpl();
+        clazz = Class.forName(className);
+
+        // First call attaches the agent and captures the class, rendering it brings in the render cache listener
+        reflectionUI.parseByteCode(clazz);
+        reflectionUI.parseClass(clazz);
+
+        ByteBuffer capturedByteCode = ByteCodeHolder.getByteCode(className);
+        byteCode = new byte[capturedByteCode.remaining()];
+        capturedByteCode.get(byteCode);
+
+        // Only compared and stored, never installed, so any difference will do
+        changedByteCode = byteCode.clone();
+        changedByteCode[changedByteCode.length - 1]++;
+
+        transformer = new Transformer();
+        internalClassName = className.replace('.', '/');
+    }
+
+    @Benchmark
+    public String parseByteCode() {
+        return reflectionUI.parseByteCode(clazz);
+    }
+
+    @Benchmark
+    public byte[] transformLoadedClass() throws IllegalClassFormatException {
+        return transformer.transform(clazz.getClassLoader(), internalClassName, null, null, byteCode);
+    }
+
+    /**
+     * Redefinition as the agent runs it: the transformer stores bytes that differ from the previous ones
+     * and marks the class stale, then the change is published once the call completes.
+     */
+    @Benchmark
+    public byte[] transformRedefinedClass() throws IllegalClassFormatException {
+        changed = !changed;
+
+        boolean installed = false;
+        ByteCodeHolder.beginRedefinitions(true);
+        try {
+            byte[] transformedByteCode = transformer.transform(clazz.getClassLoader(), internalClassName, clazz, null,
+                    changed ? changedByteCode : byteCode);
+            installed = true;
+            return transformedByteCode;
+        } finally {
+            ByteCodeHolder.completeRedefinitions(installed);
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        ByteCodeHolder.uploadByteCodeForClass(className, byteCode);
+        changed = false;
+    }
+}
@@ -0,0 +1,84 @@
+package com.kiselev.reflection.ui.benchmark;
+
+import com.kiselev.reflection.ui.api.ReflectionUI;
+import com.kiselev.reflection.ui.benchmark.model.AnnotatedModel;
+import com.kiselev.reflection.ui.benchmark.model.GenericModel;
+import com.kiselev.reflection.ui.benchmark.model.LargeClassGenerator;
+import com.kiselev.reflection.ui.benchmark.model.NestedModel;
+import com.kiselev.reflection.ui.impl.ReflectionUIImpl;
+import com.kiselev.reflection.ui.impl.cache.RenderCache;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Rendering of JDK and synthetic classes, with and without the render cache.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ParseClassBenchmark {
+
+    @Param({"java.lang.String", "java.util.HashMap", "java.util.concurrent.ConcurrentHashMap",
+            "generics", "annotations", "methods", "nested"})
+    private String target;
+
+    private ReflectionUI reflectionUI;
+
+    private Class<?> clazz;
+
+    @Setup
+    public void setUp() throws ClassNotFoundException {
+        reflectionUI = new ReflectionUIImpl();
+
+        switch (target) {
+            case "generics":
+                clazz = GenericModel.class;
+                break;
+            case "annotations":
+                clazz = AnnotatedModel.class;
+                break;
+            case "methods":
+                clazz = LargeClassGenerator.generate(5000);
+                break;
+            case "nested":
+                clazz = NestedModel.class;
+                break;
+            default:
+                clazz = Class.forName(target);
+        }
+    }
+
+    @Benchmark
+    public String parseClass() {
+        // Drop the cached output so that every invocation renders the class again
+        RenderCache.invalidate(clazz);
+        return reflectionUI.parseClass(clazz);
+    }
+
+    @Benchmark
+    public StringBuilder parseClassToAppendable() {
+        RenderCache.invalidate(clazz);
+        StringBuilder builder = new StringBuilder();
+        reflectionUI.parseClass(clazz, builder);
+        return builder;
+    }
+
+    @Benchmark
+    public String parseCachedClass() {
+        return reflectionUI.parseClass(clazz);
+    }
+}
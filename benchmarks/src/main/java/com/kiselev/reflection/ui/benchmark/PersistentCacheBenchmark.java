@@ -0,0 +1,107 @@
+package com.kiselev.reflection.ui.benchmark;
+
+import com.kiselev.reflection.ui.api.ReflectionUI;
+import com.kiselev.reflection.ui.benchmark.model.AnnotatedModel;
+import com.kiselev.reflection.ui.benchmark.model.NestedModel;
+import com.kiselev.reflection.ui.impl.ReflectionUIImpl;
+import com.kiselev.reflection.ui.impl.cache.PersistentRenderCache;
+import com.kiselev.reflection.ui.impl.cache.RenderCache;
+import com.kiselev.reflection.ui.impl.snapshot.ClassSnapshot;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Rendering with the persistent cache turned off against hits in a warm persistent cache.
+ * Every invocation drops the in-memory output, the snapshots and the stamps of the class and its nested classes,
+ * so renders and hits pay what they do for the first lookup of the class in a new JVM,
+ * apart from the reflection data the JVM keeps.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PersistentCacheBenchmark {
+
+    @Param({"java.lang.String", "java.util.HashMap", "java.util.concurrent.ConcurrentHashMap", "annotations", "nested"})
+    private String target;
+
+    @Param({"off", "warm"})
+    private String cache;
+
+    private ReflectionUI reflectionUI;
+
+    private Class<?> clazz;
+
+    private Path cacheDirectory;
+
+    @Setup
+    public void setUp() throws ClassNotFoundException, IOException {
+        reflectionUI = new ReflectionUIImpl();
+
+        switch (target) {
+            case "annotations":
+                clazz = AnnotatedModel.class;
+                break;
+            case "nested":
+                clazz = NestedModel.class;
+                break;
+            default:
+                clazz = Class.forName(target);
+        }
+
+        if ("warm".equals(cache)) {
+            cacheDirectory = Files.createTempDirectory("render-cache");
+            RenderCache.setPersistentCacheDirectory(cacheDirectory);
+            reflectionUI.parseClass(clazz);
+        } else {
+            RenderCache.setPersistentCacheDirectory(null);
+        }
+    }
+
+    @Benchmark
+    public String parseClass() {
+        RenderCache.invalidate(clazz);
+        invalidate(clazz);
+        return reflectionUI.parseClass(clazz);
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        RenderCache.setPersistentCacheDirectory(null);
+
+        if (cacheDirectory != null) {
+            try (Stream<Path> paths = Files.walk(cacheDirectory)) {
+                for (Path path : (Iterable<Path>) paths.sorted(Comparator.reverseOrder())::iterator) {
+                    Files.delete(path);
+                }
+            }
+        }
+    }
+
+    private void invalidate(Class<?> clazz) {
+        ClassSnapshot.invalidate(clazz);
+        PersistentRenderCache.invalidate(clazz);
+        for (Class<?> declaredClass : clazz.getDeclaredClasses()) {
+            invalidate(declaredClass);
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package com.kiselev.reflection.ui.benchmark.model;
+
+import java.lang.annotation.ElementType;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Class where every element carries annotations with many members.
+ */
+@Metadata(name = "model", description = "annotated model", priority = 10, limits = {10L, 20L, 30L, 40L},
+        type = AnnotatedModel.class, unit = TimeUnit.MILLISECONDS,
+        targets = {ElementType.TYPE, ElementType.FIELD, ElementType.METHOD},
+        tags = {"first", "second", "third"},
+        children = {@Metadata.Tag(value = "a", weights = {1, 2}), @Metadata.Tag("b")})
+@Deprecated
+public class AnnotatedModel {
+
+    @Metadata(name = "id", priority = 1, tags = {"key"})
+    private long id;
+
+    @Metadata(name = "name", description = "display name", separator = ';')
+    private String name;
+
+    @Metadata(name = "values", type = List.class, limits = {}, children = @Metadata.Tag("values"))
+    private List<String> values;
+
+    @Metadata(name = "ratio", ratio = 0.75, enabled = false)
+    private double ratio;
+
+    @Metadata(name = "constructor", targets = ElementType.CONSTRUCTOR)
+    public AnnotatedModel(@Metadata(name = "id") long id,
+                          @Metadata(name = "name", tags = {"required"}) String name) {
+        this.id = id;
+        this.name = name;
+    }
+
+    @Metadata(name = "getId", unit = TimeUnit.NANOSECONDS)
+    public long getId() {
+        return id;
+    }
+
+    @Metadata(name = "setName", priority = 5, children = {@Metadata.Tag("setter"), @Metadata.Tag("name")})
+    @Deprecated
+    public void setName(@Metadata(name = "name", description = "new name") String name) {
+        this.name = name;
+    }
+
+    @Metadata(name = "update", limits = {Long.MIN_VALUE, Long.MAX_VALUE}, targets = ElementType.METHOD)
+    public void update(@Metadata(name = "values") List<String> values,
+                       @Metadata(name = "ratio", ratio = 1.0) double ratio,
+                       @Metadata(name = "unit", unit = TimeUnit.DAYS) TimeUnit unit) {
+        this.values = values;
+        this.ratio = ratio;
+    }
+}
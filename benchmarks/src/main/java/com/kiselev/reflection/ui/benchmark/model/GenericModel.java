@@ -0,0 +1,50 @@
+package com.kiselev.reflection.ui.benchmark.model;
+
+import java.io.Serializable;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+
+/**
+ * Class with deeply nested generic signatures.
+ */
+public abstract class GenericModel<K extends Comparable<? super K> & Serializable,
+        V extends Map<K, List<? extends Set<K>>>,
+        E extends Exception>
+        implements Comparator<Map<K, List<Map<String, ? super Set<? extends V>>>>> {
+
+    private Map<K, List<Map<String, Set<? extends Comparable<? super K>>>>> index;
+
+    private Function<? super Map<K, V>, ? extends List<? extends Map<String, ? super K>>> mapper;
+
+    private List<Map<K, List<Map<K, List<Map<K, List<Map<K, V>>>>>>>> nested;
+
+    private BiFunction<? super K, ? super List<? extends V>, Map<K, ? extends Collection<? super V>>> combiner;
+
+    private Map<? extends K, ? super V>[] array;
+
+    public abstract <T extends Map<K, ? extends List<? super V>>> T transform(
+            Map<? super K, ? extends Collection<? extends T>> source) throws E;
+
+    public abstract <A extends Comparable<A>, B extends Map<A, List<? extends B>>> Map<A, List<B>> group(
+            Collection<? extends Map<A, ? super B>> values,
+            Function<? super A, ? extends Map<K, List<? extends V>>> classifier);
+
+    public abstract <R> List<? extends Map<R, ? super Set<? extends List<? super R>>>> flatten(
+            Map<? extends R, ? extends List<Map<R, ? extends Set<R>>>>... sources);
+
+    public abstract Map<K, Map<K, Map<K, Map<K, Map<K, V>>>>> deep(List<List<List<List<List<K>>>>> keys);
+
+    public static class Node<T extends Node<T, U>, U extends Comparable<? super U>> {
+
+        private Map<U, List<? extends T>> children;
+
+        public <S extends T> Map<U, List<S>> select(Function<? super T, ? extends Map<U, S>> selector) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package com.kiselev.reflection.ui.benchmark.model;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+
+/**
+ * Defines an abstract class with the requested number of methods,
+ * too large to be kept as a source file.
+ */
+public class LargeClassGenerator {
+
+    private static final String CLASS_NAME = "com.kiselev.reflection.ui.benchmark.model.LargeModel";
+
+    private static final int CLASS_FILE_MAGIC = 0xCAFEBABE;
+
+    private static final int JAVA_8_VERSION = 52;
+
+    private static final int UTF8 = 1;
+
+    private static final int CLASS = 7;
+
+    private static final int PUBLIC_ABSTRACT_CLASS = 0x0421;
+
+    private static final int PUBLIC_ABSTRACT_METHOD = 0x0401;
+
+    public static Class<?> generate(int methodCount) {
+        byte[] byteCode = createByteCode(methodCount);
+        return new GeneratorClassLoader().defineClass(byteCode);
+    }
+
+    private static byte[] createByteCode(int methodCount) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+
+        try (DataOutputStream stream = new DataOutputStream(bytes)) {
+            stream.writeInt(CLASS_FILE_MAGIC);
+            stream.writeShort(0);
+            stream.writeShort(JAVA_8_VERSION);
+
+            // #1 and #2 this class, #3 and #4 super class, #5 method descriptor, #6.. method names
+            stream.writeShort(6 + methodCount);
+            stream.writeByte(UTF8);
+            stream.writeUTF(CLASS_NAME.replace('.', '/'));
+            stream.writeByte(CLASS);
+            stream.writeShort(1);
+            stream.writeByte(UTF8);
+            stream.writeUTF("java/lang/Object");
+            stream.writeByte(CLASS);
+            stream.writeShort(3);
+            stream.writeByte(UTF8);
+            stream.writeUTF("(I)V");
+            for (int i = 0; i < methodCount; i++) {
+                stream.writeByte(UTF8);
+                stream.writeUTF("method" + i);
+            }
+
+            stream.writeShort(PUBLIC_ABSTRACT_CLASS);
+            stream.writeShort(2);
+            stream.writeShort(4);
+            stream.writeShort(0);
+            stream.writeShort(0);
+
+            stream.writeShort(methodCount);
+            for (int i = 0; i < methodCount; i++) {
+                stream.writeShort(PUBLIC_ABSTRACT_METHOD);
+                stream.writeShort(6 + i);
+                stream.writeShort(5);
+                stream.writeShort(0);
+            }
+
+            stream.writeShort(0);
+        } catch (IOException exception) {
+            throw new RuntimeException(exception);
+        }
+
+        return bytes.toByteArray();
+    }
+
+    private static class GeneratorClassLoader extends ClassLoader {
+
+        private GeneratorClassLoader() {
+            super(LargeClassGenerator.class.getClassLoader());
+        }
+
+        private Class<?> defineClass(byte[] byteCode) {
+            return defineClass(CLASS_NAME, byteCode, 0, byteCode.length);
+        }
+    }
+}
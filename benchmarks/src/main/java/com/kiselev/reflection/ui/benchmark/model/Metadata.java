@@ -0,0 +1,45 @@
+package com.kiselev.reflection.ui.benchmark.model;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Annotation with members of every supported kind.
+ */
+@Retention(RetentionPolicy.RUNTIME)
+public @interface Metadata {
+
+    String name();
+
+    String description() default "";
+
+    int priority() default 0;
+
+    long[] limits() default {1L, 2L, 3L};
+
+    double ratio() default 0.5;
+
+    boolean enabled() default true;
+
+    char separator() default ',';
+
+    Class<?> type() default Object.class;
+
+    TimeUnit unit() default TimeUnit.SECONDS;
+
+    ElementType[] targets() default {};
+
+    String[] tags() default {};
+
+    Tag[] children() default {};
+
+    @Retention(RetentionPolicy.RUNTIME)
+    @interface Tag {
+
+        String value();
+
+        int[] weights() default {};
+    }
+}
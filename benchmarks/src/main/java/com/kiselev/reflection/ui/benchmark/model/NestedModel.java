@@ -0,0 +1,59 @@
+package com.kiselev.reflection.ui.benchmark.model;
+
+/**
+ * Chain of nested classes ten levels deep.
+ */
+public class NestedModel {
+
+    private int root;
+
+    public static class Level1 {
+
+        private int level;
+
+        public static class Level2 {
+
+            private int level;
+
+            public class Level3 {
+
+                private int level;
+
+                public class Level4 {
+
+                    private int level;
+
+                    public class Level5 {
+
+                        private int level;
+
+                        public class Level6 {
+
+                            private int level;
+
+                            public class Level7 {
+
+                                private int level;
+
+                                public class Level8 {
+
+                                    private int level;
+
+                                    public class Level9 {
+
+                                        private int level;
+
+                                        public class Level10 {
+
+                                            private int level;
+                                        }
+                                    }
+                                }
+                            }
+                        }
+                    }
+                }
+            }
+        }
+    }
+}
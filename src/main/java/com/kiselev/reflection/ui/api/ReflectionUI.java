@@ -1,8 +1,41 @@
 package com.kiselev.reflection.ui.api;
 
+import com.kiselev.reflection.ui.api.flow.Publisher;
+import com.kiselev.reflection.ui.api.model.ClassModel;
+import com.kiselev.reflection.ui.api.model.ModelRenderer;
+import com.kiselev.reflection.ui.api.options.RenderOptions;
+import com.kiselev.reflection.ui.api.view.ClassView;
+
+import java.util.Collection;
+import java.util.List;
+
 public interface ReflectionUI {
 
     String parseClass(Class<?> clazz);
 
+    void parseClass(Class<?> clazz, Appendable appendable);
+
+    /**
+     * Renders only what the options select, output of non-default options is never cached.
+     */
+    String parseClass(Class<?> clazz, RenderOptions options);
+
+    <T> T parseClass(Class<?> clazz, ModelRenderer<T> renderer);
+
+    /**
+     * Publishes the source of the class one fragment at a time: the header, every field, constructor,
+     * method and nested class, then the closing brace. Concatenated fragments equal parseClass(clazz).
+     */
+    Publisher<CharSequence> publishClass(Class<?> clazz);
+
+    ClassModel getClassModel(Class<?> clazz);
+
+    /**
+     * Returns a view that renders each section of the class only when it is read.
+     */
+    ClassView getClassView(Class<?> clazz);
+
+    List<String> parseClasses(Collection<Class<?>> classes);
+
     String parseByteCode(Class<?> clazz);
 }
@@ -0,0 +1,9 @@
+package com.kiselev.reflection.ui.api.flow;
+
+/**
+ * Same contract as java.util.concurrent.Flow.Publisher, which is not available on Java 8.
+ */
+public interface Publisher<T> {
+
+    void subscribe(Subscriber<? super T> subscriber);
+}
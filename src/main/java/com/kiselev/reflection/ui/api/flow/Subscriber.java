@@ -0,0 +1,15 @@
+package com.kiselev.reflection.ui.api.flow;
+
+/**
+ * Same contract as java.util.concurrent.Flow.Subscriber, which is not available on Java 8.
+ */
+public interface Subscriber<T> {
+
+    void onSubscribe(Subscription subscription);
+
+    void onNext(T item);
+
+    void onError(Throwable throwable);
+
+    void onComplete();
+}
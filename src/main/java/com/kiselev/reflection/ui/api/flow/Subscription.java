@@ -0,0 +1,11 @@
+package com.kiselev.reflection.ui.api.flow;
+
+/**
+ * Same contract as java.util.concurrent.Flow.Subscription, which is not available on Java 8.
+ */
+public interface Subscription {
+
+    void request(long n);
+
+    void cancel();
+}
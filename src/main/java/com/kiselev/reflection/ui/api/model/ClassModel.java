@@ -0,0 +1,220 @@
+package com.kiselev.reflection.ui.api.model;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Immutable description of a class built by one reflection pass,
+ * safe to share between threads and renderers.
+ */
+public class ClassModel {
+
+    private final String packageName;
+
+    private final int depth;
+
+    private final List<String> annotations;
+
+    private final List<String> modifiers;
+
+    private final String type;
+
+    private final String name;
+
+    private final List<String> typeParameters;
+
+    private final String superClass;
+
+    private final List<String> interfaces;
+
+    private final List<MemberModel> fields;
+
+    private final List<MemberModel> constructors;
+
+    private final List<MemberModel> methods;
+
+    private final List<ClassModel> nestedClasses;
+
+    private ClassModel(Builder builder) {
+        this.packageName = builder.packageName;
+        this.depth = builder.depth;
+        this.annotations = Collections.unmodifiableList(new ArrayList<>(builder.annotations));
+        this.modifiers = Collections.unmodifiableList(new ArrayList<>(builder.modifiers));
+        this.type = builder.type;
+        this.name = builder.name;
+        this.typeParameters = Collections.unmodifiableList(new ArrayList<>(builder.typeParameters));
+        this.superClass = builder.superClass;
+        this.interfaces = Collections.unmodifiableList(new ArrayList<>(builder.interfaces));
+        this.fields = Collections.unmodifiableList(new ArrayList<>(builder.fields));
+        this.constructors = Collections.unmodifiableList(new ArrayList<>(builder.constructors));
+        this.methods = Collections.unmodifiableList(new ArrayList<>(builder.methods));
+        this.nestedClasses = Collections.unmodifiableList(new ArrayList<>(builder.nestedClasses));
+    }
+
+    public static Builder getBuilder() {
+        return new Builder();
+    }
+
+    /**
+     * Returns the package of a top level class, null for nested classes.
+     */
+    public String getPackageName() {
+        return packageName;
+    }
+
+    /**
+     * Returns the number of classes enclosing this one.
+     */
+    public int getDepth() {
+        return depth;
+    }
+
+    public List<String> getAnnotations() {
+        return annotations;
+    }
+
+    public List<String> getModifiers() {
+        return modifiers;
+    }
+
+    /**
+     * Returns one of class, interface, enum or @interface.
+     */
+    public String getType() {
+        return type;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public List<String> getTypeParameters() {
+        return typeParameters;
+    }
+
+    public String getSuperClass() {
+        return superClass;
+    }
+
+    public List<String> getInterfaces() {
+        return interfaces;
+    }
+
+    public List<MemberModel> getFields() {
+        return fields;
+    }
+
+    public List<MemberModel> getConstructors() {
+        return constructors;
+    }
+
+    public List<MemberModel> getMethods() {
+        return methods;
+    }
+
+    public List<ClassModel> getNestedClasses() {
+        return nestedClasses;
+    }
+
+    public static class Builder {
+
+        private String packageName;
+
+        private int depth;
+
+        private final List<String> annotations = new ArrayList<>();
+
+        private final List<String> modifiers = new ArrayList<>();
+
+        private String type;
+
+        private String name;
+
+        private final List<String> typeParameters = new ArrayList<>();
+
+        private String superClass;
+
+        private final List<String> interfaces = new ArrayList<>();
+
+        private final List<MemberModel> fields = new ArrayList<>();
+
+        private final List<MemberModel> constructors = new ArrayList<>();
+
+        private final List<MemberModel> methods = new ArrayList<>();
+
+        private final List<ClassModel> nestedClasses = new ArrayList<>();
+
+        private Builder() {
+        }
+
+        public Builder addPackageName(String packageName) {
+            this.packageName = packageName;
+            return this;
+        }
+
+        public Builder addDepth(int depth) {
+            this.depth = depth;
+            return this;
+        }
+
+        public Builder addAnnotation(String annotation) {
+            this.annotations.add(annotation);
+            return this;
+        }
+
+        public Builder addModifier(String modifier) {
+            this.modifiers.add(modifier);
+            return this;
+        }
+
+        public Builder addType(String type) {
+            this.type = type;
+            return this;
+        }
+
+        public Builder addName(String name) {
+            this.name = name;
+            return this;
+        }
+
+        public Builder addTypeParameter(String typeParameter) {
+            this.typeParameters.add(typeParameter);
+            return this;
+        }
+
+        public Builder addSuperClass(String superClass) {
+            this.superClass = superClass;
+            return this;
+        }
+
+        public Builder addInterface(String interfaceName) {
+            this.interfaces.add(interfaceName);
+            return this;
+        }
+
+        public Builder addField(MemberModel field) {
+            this.fields.add(field);
+            return this;
+        }
+
+        public Builder addConstructor(MemberModel constructor) {
+            this.constructors.add(constructor);
+            return this;
+        }
+
+        public Builder addMethod(MemberModel method) {
+            this.methods.add(method);
+            return this;
+        }
+
+        public Builder addNestedClass(ClassModel nestedClass) {
+            this.nestedClasses.add(nestedClass);
+            return this;
+        }
+
+        public ClassModel build() {
+            return new ClassModel(this);
+        }
+    }
+}
@@ -0,0 +1,10 @@
+package com.kiselev.reflection.ui.api.model;
+
+public enum MemberKind {
+
+    FIELD,
+
+    CONSTRUCTOR,
+
+    METHOD
+}
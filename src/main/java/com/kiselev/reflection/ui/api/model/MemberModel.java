@@ -0,0 +1,174 @@
+package com.kiselev.reflection.ui.api.model;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Immutable description of a field, constructor or method with its parts already rendered.
+ */
+public class MemberModel {
+
+    private final MemberKind kind;
+
+    private final List<String> annotations;
+
+    private final List<String> modifiers;
+
+    private final List<String> typeParameters;
+
+    private final String type;
+
+    private final String name;
+
+    private final List<ParameterModel> parameters;
+
+    private final List<String> exceptions;
+
+    private final String defaultValue;
+
+    private final boolean hasBody;
+
+    private MemberModel(Builder builder) {
+        this.kind = builder.kind;
+        this.annotations = Collections.unmodifiableList(new ArrayList<>(builder.annotations));
+        this.modifiers = Collections.unmodifiableList(new ArrayList<>(builder.modifiers));
+        this.typeParameters = Collections.unmodifiableList(new ArrayList<>(builder.typeParameters));
+        this.type = builder.type;
+        this.name = builder.name;
+        this.parameters = Collections.unmodifiableList(new ArrayList<>(builder.parameters));
+        this.exceptions = Collections.unmodifiableList(new ArrayList<>(builder.exceptions));
+        this.defaultValue = builder.defaultValue;
+        this.hasBody = builder.hasBody;
+    }
+
+    public static Builder getBuilder() {
+        return new Builder();
+    }
+
+    public MemberKind getKind() {
+        return kind;
+    }
+
+    public List<String> getAnnotations() {
+        return annotations;
+    }
+
+    public List<String> getModifiers() {
+        return modifiers;
+    }
+
+    public List<String> getTypeParameters() {
+        return typeParameters;
+    }
+
+    /**
+     * Returns the field type or the method return type, null for constructors.
+     */
+    public String getType() {
+        return type;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public List<ParameterModel> getParameters() {
+        return parameters;
+    }
+
+    public List<String> getExceptions() {
+        return exceptions;
+    }
+
+    /**
+     * Returns the default value of an annotation member, null for other members.
+     */
+    public String getDefaultValue() {
+        return defaultValue;
+    }
+
+    public boolean hasBody() {
+        return hasBody;
+    }
+
+    public static class Builder {
+
+        private MemberKind kind;
+
+        private final List<String> annotations = new ArrayList<>();
+
+        private final List<String> modifiers = new ArrayList<>();
+
+        private final List<String> typeParameters = new ArrayList<>();
+
+        private String type;
+
+        private String name;
+
+        private final List<ParameterModel> parameters = new ArrayList<>();
+
+        private final List<String> exceptions = new ArrayList<>();
+
+        private String defaultValue;
+
+        private boolean hasBody;
+
+        private Builder() {
+        }
+
+        public Builder addKind(MemberKind kind) {
+            this.kind = kind;
+            return this;
+        }
+
+        public Builder addAnnotation(String annotation) {
+            this.annotations.add(annotation);
+            return this;
+        }
+
+        public Builder addModifier(String modifier) {
+            this.modifiers.add(modifier);
+            return this;
+        }
+
+        public Builder addTypeParameter(String typeParameter) {
+            this.typeParameters.add(typeParameter);
+            return this;
+        }
+
+        public Builder addType(String type) {
+            this.type = type;
+            return this;
+        }
+
+        public Builder addName(String name) {
+            this.name = name;
+            return this;
+        }
+
+        public Builder addParameter(ParameterModel parameter) {
+            this.parameters.add(parameter);
+            return this;
+        }
+
+        public Builder addException(String exception) {
+            this.exceptions.add(exception);
+            return this;
+        }
+
+        public Builder addDefaultValue(String defaultValue) {
+            this.defaultValue = defaultValue;
+            return this;
+        }
+
+        public Builder addBody(boolean hasBody) {
+            this.hasBody = hasBody;
+            return this;
+        }
+
+        public MemberModel build() {
+            return new MemberModel(this);
+        }
+    }
+}
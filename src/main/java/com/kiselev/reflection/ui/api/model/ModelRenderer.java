@@ -0,0 +1,11 @@
+package com.kiselev.reflection.ui.api.model;
+
+/**
+ * Turns a class model into one output format.
+ *
+ * @param <T> type of the rendered output
+ */
+public interface ModelRenderer<T> {
+
+    T render(ClassModel classModel);
+}
@@ -0,0 +1,35 @@
+package com.kiselev.reflection.ui.api.model;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+public class ParameterModel {
+
+    private final List<String> annotations;
+
+    private final String type;
+
+    private final String name;
+
+    public ParameterModel(List<String> annotations, String type, String name) {
+        this.annotations = Collections.unmodifiableList(new ArrayList<>(annotations));
+        this.type = type;
+        this.name = name;
+    }
+
+    public List<String> getAnnotations() {
+        return annotations;
+    }
+
+    /**
+     * Returns the rendered type, varargs end with "...".
+     */
+    public String getType() {
+        return type;
+    }
+
+    public String getName() {
+        return name;
+    }
+}
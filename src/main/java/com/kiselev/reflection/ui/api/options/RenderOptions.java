@@ -0,0 +1,150 @@
+package com.kiselev.reflection.ui.api.options;
+
+import com.kiselev.reflection.ui.api.model.MemberKind;
+
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.Set;
+import java.util.function.Predicate;
+
+/**
+ * Immutable selection of what gets rendered. Excluded members are dropped before
+ * any of their types, annotations or arguments are resolved.
+ */
+public class RenderOptions {
+
+    private static final RenderOptions DEFAULT_OPTIONS = getBuilder().build();
+
+    private final Visibility visibility;
+
+    private final Set<MemberKind> memberKinds;
+
+    private final boolean syntheticMembers;
+
+    private final boolean annotations;
+
+    private final int nestedClassDepth;
+
+    private final Predicate<String> namePredicate;
+
+    private final boolean isDefault;
+
+    private RenderOptions(Builder builder) {
+        this.visibility = builder.visibility;
+        this.memberKinds = Collections.unmodifiableSet(EnumSet.copyOf(builder.memberKinds));
+        this.syntheticMembers = builder.syntheticMembers;
+        this.annotations = builder.annotations;
+        this.nestedClassDepth = builder.nestedClassDepth;
+        this.namePredicate = builder.namePredicate;
+        this.isDefault = visibility == Visibility.PRIVATE
+                && memberKinds.size() == MemberKind.values().length
+                && syntheticMembers
+                && annotations
+                && nestedClassDepth == Integer.MAX_VALUE
+                && namePredicate == null;
+    }
+
+    public static Builder getBuilder() {
+        return new Builder();
+    }
+
+    /**
+     * Returns the options that render everything, the only ones whose output is cached.
+     */
+    public static RenderOptions getDefault() {
+        return DEFAULT_OPTIONS;
+    }
+
+    public boolean isDefault() {
+        return isDefault;
+    }
+
+    /**
+     * Returns the least visible access level still rendered.
+     */
+    public Visibility getVisibility() {
+        return visibility;
+    }
+
+    public Set<MemberKind> getMemberKinds() {
+        return memberKinds;
+    }
+
+    /**
+     * Returns whether synthetic members and bridge methods are rendered.
+     */
+    public boolean hasSyntheticMembers() {
+        return syntheticMembers;
+    }
+
+    public boolean hasAnnotations() {
+        return annotations;
+    }
+
+    /**
+     * Returns how many levels of nested classes are rendered, 0 renders none.
+     */
+    public int getNestedClassDepth() {
+        return nestedClassDepth;
+    }
+
+    /**
+     * Returns the predicate on field and method names, null when every name is accepted.
+     */
+    public Predicate<String> getNamePredicate() {
+        return namePredicate;
+    }
+
+    public static class Builder {
+
+        private Visibility visibility = Visibility.PRIVATE;
+
+        private Set<MemberKind> memberKinds = EnumSet.allOf(MemberKind.class);
+
+        private boolean syntheticMembers = true;
+
+        private boolean annotations = true;
+
+        private int nestedClassDepth = Integer.MAX_VALUE;
+
+        private Predicate<String> namePredicate;
+
+        private Builder() {
+        }
+
+        public Builder addVisibility(Visibility visibility) {
+            this.visibility = visibility;
+            return this;
+        }
+
+        public Builder addMemberKinds(MemberKind... memberKinds) {
+            this.memberKinds = EnumSet.noneOf(MemberKind.class);
+            Collections.addAll(this.memberKinds, memberKinds);
+            return this;
+        }
+
+        public Builder addSyntheticMembers(boolean syntheticMembers) {
+            this.syntheticMembers = syntheticMembers;
+            return this;
+        }
+
+        public Builder addAnnotations(boolean annotations) {
+            this.annotations = annotations;
+            return this;
+        }
+
+        public Builder addNestedClassDepth(int nestedClassDepth) {
+            this.nestedClassDepth = nestedClassDepth;
+            return this;
+        }
+
+        public Builder addNamePredicate(Predicate<String> namePredicate) {
+            this.namePredicate = namePredicate;
+            return this;
+        }
+
+        public RenderOptions build() {
+            return new RenderOptions(this);
+        }
+    }
+}
@@ -0,0 +1,24 @@
+package com.kiselev.reflection.ui.api.options;
+
+import java.lang.reflect.Modifier;
+
+/**
+ * Access levels from the most to the least visible.
+ */
+public enum Visibility {
+
+    PUBLIC,
+
+    PROTECTED,
+
+    PACKAGE_PRIVATE,
+
+    PRIVATE;
+
+    public static Visibility of(int modifiers) {
+        if (Modifier.isPublic(modifiers)) return PUBLIC;
+        if (Modifier.isProtected(modifiers)) return PROTECTED;
+        if (Modifier.isPrivate(modifiers)) return PRIVATE;
+        return PACKAGE_PRIVATE;
+    }
+}
@@ -0,0 +1,24 @@
+package com.kiselev.reflection.ui.api.view;
+
+/**
+ * Rendered class split into sections, each rendered on first access only.
+ * Sections are safe to read from any thread, toString() returns the same source as parseClass.
+ */
+public interface ClassView {
+
+    /**
+     * Returns the package, annotations and declaration of the class up to the opening brace.
+     */
+    String signature();
+
+    /**
+     * Returns the rendered fields, an empty string when there are none.
+     */
+    String fields();
+
+    String constructors();
+
+    String methods();
+
+    String nestedClasses();
+}
@@ -1,24 +1,78 @@
 package com.kiselev.reflection.ui.bytecode.agent;
 
+import com.kiselev.reflection.ui.bytecode.holder.ByteCodeHolder;
+
+import java.lang.instrument.ClassDefinition;
 import java.lang.instrument.Instrumentation;
+import java.lang.instrument.UnmodifiableClassException;
+import java.util.ArrayList;
+import java.util.List;
 
 /**
  * Created by Vadim Kiselev on 6/12/2017.
  */
 public class Agent {
 
+    private static volatile Instrumentation instrumentation;
+
     public static void agentmain(String args, Instrumentation instrumentation) {
-        try {
-            instrumentation.addTransformer(new Transformer(), true);
-            Class[] allLoadedClasses = instrumentation.getAllLoadedClasses();
+        instrumentation.addTransformer(new Transformer(), true);
+        Agent.instrumentation = instrumentation;
+    }
+
+    /**
+     * Retransforms the classes, capturing their bytes. Listeners are notified afterwards
+     * about classes whose bytes differ from the ones captured before.
+     */
+    public static synchronized void retransformClasses(Class<?>... classes) {
+        Instrumentation instrumentation = getInstrumentation();
+
+        List<Class<?>> modifiableClasses = new ArrayList<>(classes.length);
+        for (Class<?> clazz : classes) {
+            if (instrumentation.isModifiableClass(clazz)) {
+                modifiableClasses.add(clazz);
+            }
+        }
 
-            for (Class loadedClass : allLoadedClasses) {
-                if (!loadedClass.isArray()) {
-                    instrumentation.retransformClasses(loadedClass);
-                }
+        if (!modifiableClasses.isEmpty()) {
+            boolean retransformed = false;
+            ByteCodeHolder.beginRedefinitions(false);
+            try {
+                instrumentation.retransformClasses(modifiableClasses.toArray(new Class<?>[0]));
+                retransformed = true;
+            } catch (UnmodifiableClassException exception) {
+                throw new RuntimeException(exception);
+            } finally {
+                ByteCodeHolder.completeRedefinitions(retransformed);
             }
-        } catch (Exception exception) {
-            // sin
         }
     }
+
+    /**
+     * Installs new definitions of the classes and notifies listeners once they are in place.
+     * Listeners learn about redefinitions made by other tools as soon as the transformer sees them,
+     * their events follow with the next call of the agent.
+     */
+    public static synchronized void redefineClasses(ClassDefinition... definitions) {
+        Instrumentation instrumentation = getInstrumentation();
+
+        boolean redefined = false;
+        ByteCodeHolder.beginRedefinitions(true);
+        try {
+            instrumentation.redefineClasses(definitions);
+            redefined = true;
+        } catch (ClassNotFoundException | UnmodifiableClassException exception) {
+            throw new RuntimeException(exception);
+        } finally {
+            ByteCodeHolder.completeRedefinitions(redefined);
+        }
+    }
+
+    private static Instrumentation getInstrumentation() {
+        Instrumentation instrumentation = Agent.instrumentation;
+        if (instrumentation == null) {
+            throw new RuntimeException("Agent is not attached");
+        }
+        return instrumentation;
+    }
 }
@@ -18,7 +18,11 @@ public class Transformer implements ClassFileTransformer {
                             ProtectionDomain protectionDomain,
                             byte[] byteCode) throws IllegalClassFormatException {
 
-        ByteCodeHolder.uploadByteCodeForClass(transformClassName(className), byteCode);
+        if (classBeingRedefined != null) {
+            ByteCodeHolder.uploadRedefinedByteCode(classBeingRedefined, byteCode);
+        } else {
+            ByteCodeHolder.uploadByteCodeForClass(transformClassName(className), byteCode);
+        }
         return byteCode;
     }
 
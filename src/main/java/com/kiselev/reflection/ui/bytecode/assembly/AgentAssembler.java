@@ -19,7 +19,6 @@ public class AgentAssembler {
                 String agentPath = AgentBuilder.getBuilder()
                         .addAgentName("agent.jar")
                         .addAgentClass(Agent.class)
-                        .addManifest("MANIFEST.mf")
                         .addClass(Transformer.class)
                         .build();
 
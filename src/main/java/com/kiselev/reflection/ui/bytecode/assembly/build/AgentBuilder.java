@@ -2,12 +2,34 @@ package com.kiselev.reflection.ui.bytecode.assembly.build;
 
 import com.kiselev.reflection.ui.bytecode.assembly.build.constant.Constants;
 
+import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.IOException;
-import java.net.URL;
-import java.security.ProtectionDomain;
-import java.util.ArrayList;
-import java.util.List;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.PosixFilePermission;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.nio.file.attribute.UserPrincipal;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Enumeration;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.jar.Attributes;
+import java.util.jar.JarEntry;
+import java.util.jar.JarFile;
+import java.util.jar.JarOutputStream;
+import java.util.jar.Manifest;
 
 public class AgentBuilder {
 
@@ -17,15 +39,16 @@ public class AgentBuilder {
 
     public static class Builder {
 
-        private String commandPattern = "%s %s %s %s %s";
-
         private String agentName = "agent.jar";
 
-        private Class<?> agentClass;
+        // Per user, the shared temp directory is writable by everybody
+        private String cacheDirectory = System.getProperty(Constants.Properties.TEMP_DIR)
+                + File.separator + Constants.Directory.CACHE_DIRECTORY + "-"
+                + System.getProperty(Constants.Properties.USER_NAME).replaceAll("[^A-Za-z0-9._-]", "_");
 
-        private String manifestName = "MANIFEST.mf";
+        private Class<?> agentClass;
 
-        private List<Class<?>> attachedClasses = new ArrayList<>();
+        private Set<Class<?>> attachedClasses = new LinkedHashSet<>();
 
         public Builder addAgentName(String agentName) {
             if (!agentName.endsWith(Constants.Suffix.JAR_SUFFIX)) {
@@ -35,16 +58,13 @@ public class AgentBuilder {
             return this;
         }
 
-        public Builder addClass(Class<?> attachedClass) {
-            this.attachedClasses.add(attachedClass);
+        public Builder addCacheDirectory(String cacheDirectory) {
+            this.cacheDirectory = cacheDirectory;
             return this;
         }
 
-        public Builder addManifest(String manifestName) {
-            if (!manifestName.endsWith(Constants.Suffix.MANIFEST_SUFFIX)) {
-                manifestName = manifestName + Constants.Suffix.MANIFEST_SUFFIX;
-            }
-            this.manifestName = manifestName;
+        public Builder addClass(Class<?> attachedClass) {
+            this.attachedClasses.add(attachedClass);
             return this;
         }
 
@@ -54,68 +74,229 @@ public class AgentBuilder {
         }
 
         public String build() {
-            createAgentJar();
-            return retrieveAgentPath();
-        }
-
-        private void createAgentJar() {
             if (agentClass == null) {
                 throw new RuntimeException("Agent class cannot be null");
             }
+
             try {
-                Runtime.getRuntime().exec(convertCommand());
+                byte[] manifest = createManifest();
+                Map<String, byte[]> classFiles = readClassFiles();
+
+                // Jar is reused by every JVM run as long as its contents stay the same
+                Path cachePath = Paths.get(cacheDirectory);
+                Path directory = getPrivateDirectory(cachePath);
+                File agentJar = directory.resolve(getCachedAgentName(manifest, classFiles)).toFile();
+                if (!isValidAgentJar(agentJar, manifest, classFiles)) {
+                    createAgentJar(agentJar, manifest, classFiles);
+                }
+
+                // A fallback directory is used by this run only
+                if (!directory.equals(cachePath)) {
+                    directory.toFile().deleteOnExit();
+                    agentJar.deleteOnExit();
+                }
+                return agentJar.getAbsolutePath();
             } catch (IOException exception) {
                 throw new RuntimeException(exception);
             }
         }
 
-        private String convertCommand() {
-            return String.format(commandPattern,
-                    Constants.Command.JAR_EXE_COMMAND,
-                    Constants.Flag.JAR_FLAG,
-                    agentName,
-                    convertManifestPath(),
-                    convertAttachedClasses());
+        private String getCachedAgentName(byte[] manifest, Map<String, byte[]> classFiles) {
+            try {
+                MessageDigest digest = MessageDigest.getInstance(Constants.Hash.ALGORITHM);
+                digest.update(manifest);
+                for (Map.Entry<String, byte[]> classFile : classFiles.entrySet()) {
+                    digest.update(classFile.getKey().getBytes(StandardCharsets.UTF_8));
+                    digest.update(classFile.getValue());
+                }
+
+                StringBuilder hash = new StringBuilder();
+                for (byte hashByte : digest.digest()) {
+                    hash.append(String.format("%02x", hashByte));
+                }
+
+                String agentBaseName = agentName.substring(0, agentName.length() - Constants.Suffix.JAR_SUFFIX.length());
+                return agentBaseName + "-" + hash + Constants.Suffix.JAR_SUFFIX;
+            } catch (NoSuchAlgorithmException exception) {
+                throw new RuntimeException(exception);
+            }
+        }
+
+        /**
+         * Returns the directory if it belongs to the current user and nobody else can write into it,
+         * otherwise a fresh private temporary directory. A jar found in a directory somebody else
+         * controls could be replaced between the check and the attach.
+         */
+        private Path getPrivateDirectory(Path directory) throws IOException {
+            if (!Files.exists(directory, LinkOption.NOFOLLOW_LINKS)) {
+                try {
+                    createPrivateDirectory(directory);
+                } catch (FileAlreadyExistsException exception) {
+                    // Created by a concurrently starting JVM or somebody else, checked below
+                }
+            }
+
+            if (isPrivateDirectory(directory)) {
+                return directory;
+            }
+            return Files.createTempDirectory(Constants.Directory.CACHE_DIRECTORY);
+        }
+
+        private void createPrivateDirectory(Path directory) throws IOException {
+            Path parent = directory.toAbsolutePath().getParent();
+            if (parent != null) {
+                Files.createDirectories(parent);
+            }
+
+            if (isPosixFileSystem(directory)) {
+                Files.createDirectory(directory, PosixFilePermissions.asFileAttribute(PosixFilePermissions.fromString("rwx------")));
+            } else {
+                Files.createDirectory(directory);
+            }
+        }
+
+        private boolean isPrivateDirectory(Path directory) {
+            try {
+                if (!Files.isDirectory(directory, LinkOption.NOFOLLOW_LINKS)) {
+                    return false;
+                }
+
+                UserPrincipal currentUser = directory.getFileSystem().getUserPrincipalLookupService()
+                        .lookupPrincipalByName(System.getProperty(Constants.Properties.USER_NAME));
+                if (!currentUser.equals(Files.getOwner(directory, LinkOption.NOFOLLOW_LINKS))) {
+                    return false;
+                }
+
+                if (isPosixFileSystem(directory)) {
+                    Set<PosixFilePermission> permissions = Files.getPosixFilePermissions(directory, LinkOption.NOFOLLOW_LINKS);
+                    return !permissions.contains(PosixFilePermission.GROUP_WRITE)
+                            && !permissions.contains(PosixFilePermission.OTHERS_WRITE);
+                }
+                return true;
+            } catch (IOException | UnsupportedOperationException exception) {
+                return false;
+            }
+        }
+
+        private boolean isPosixFileSystem(Path path) {
+            return path.getFileSystem().supportedFileAttributeViews().contains("posix");
+        }
+
+        // The jar must hold exactly the expected manifest and class files, byte for byte
+        private boolean isValidAgentJar(File agentJar, byte[] manifest, Map<String, byte[]> classFiles) {
+            if (!agentJar.isFile()) {
+                return false;
+            }
+
+            try (JarFile jarFile = new JarFile(agentJar)) {
+                Set<String> entryNames = new HashSet<>();
+                for (Enumeration<JarEntry> entries = jarFile.entries(); entries.hasMoreElements(); ) {
+                    entryNames.add(entries.nextElement().getName());
+                }
+
+                Set<String> expectedNames = new HashSet<>(classFiles.keySet());
+                expectedNames.add(JarFile.MANIFEST_NAME);
+                if (!entryNames.equals(expectedNames) || !hasContent(jarFile, JarFile.MANIFEST_NAME, manifest)) {
+                    return false;
+                }
+
+                for (Map.Entry<String, byte[]> classFile : classFiles.entrySet()) {
+                    if (!hasContent(jarFile, classFile.getKey(), classFile.getValue())) {
+                        return false;
+                    }
+                }
+                return true;
+            } catch (IOException | SecurityException exception) {
+                return false;
+            }
         }
 
-        private String convertManifestPath() {
-            URL resource = getClass().getClassLoader().getResource("META-INF" + File.separatorChar + manifestName);
-            if (resource == null) {
-                throw new RuntimeException("Manifest file cannot be null");
+        private boolean hasContent(JarFile jarFile, String entryName, byte[] expectedContent) throws IOException {
+            JarEntry entry = jarFile.getJarEntry(entryName);
+            if (entry == null) {
+                return false;
+            }
+
+            try (InputStream stream = jarFile.getInputStream(entry)) {
+                return Arrays.equals(readFully(stream), expectedContent);
             }
-            return resource.getPath();
         }
 
-        private String convertAttachedClasses() {
-            StringBuilder builder = new StringBuilder();
+        private void createAgentJar(File agentJar, byte[] manifest, Map<String, byte[]> classFiles) throws IOException {
+            Path directory = Files.createDirectories(agentJar.toPath().getParent());
 
-            attachedClasses.add(agentClass);
-            for (Class<?> clazz : attachedClasses) {
-                ProtectionDomain domain = clazz.getProtectionDomain();
-                if (domain != null) {
-                    String classFileProtectionDomain = domain.getCodeSource().getLocation().getPath().substring(1).replace("/", File.separator);
-                    String classFilePath = clazz.getName().replace(".", File.separator) + Constants.Suffix.CLASS_FILE_SUFFIX;
+            // Written aside and renamed so that concurrently starting JVMs never see a partial jar
+            Path temporaryJar = Files.createTempFile(directory, agentName, Constants.Suffix.TEMP_SUFFIX);
+            try {
+                try (JarOutputStream stream = new JarOutputStream(Files.newOutputStream(temporaryJar))) {
+                    stream.putNextEntry(new JarEntry(JarFile.MANIFEST_NAME));
+                    stream.write(manifest);
+                    stream.closeEntry();
+
+                    for (Map.Entry<String, byte[]> classFile : classFiles.entrySet()) {
+                        stream.putNextEntry(new JarEntry(classFile.getKey()));
+                        stream.write(classFile.getValue());
+                        stream.closeEntry();
+                    }
+                }
 
-                    builder.append(Constants.Flag.JAR_C_FLAG).append(Constants.Symbols.GAP)
-                            .append(classFileProtectionDomain).append(Constants.Symbols.GAP)
-                            .append(classFilePath).append(Constants.Symbols.GAP);
+                try {
+                    Files.move(temporaryJar, agentJar.toPath(), StandardCopyOption.ATOMIC_MOVE);
+                } catch (IOException exception) {
+                    // Another JVM may have published the same jar first
+                    if (!isValidAgentJar(agentJar, manifest, classFiles)) {
+                        throw exception;
+                    }
                 }
+            } finally {
+                Files.deleteIfExists(temporaryJar);
             }
+        }
 
-            return builder.toString();
+        private byte[] createManifest() throws IOException {
+            Manifest manifest = new Manifest();
+
+            Attributes attributes = manifest.getMainAttributes();
+            attributes.put(Attributes.Name.MANIFEST_VERSION, Constants.Manifest.MANIFEST_VERSION);
+            attributes.putValue(Constants.Manifest.AGENT_CLASS, agentClass.getName());
+            attributes.putValue(Constants.Manifest.CAN_REDEFINE_CLASSES, Boolean.TRUE.toString());
+            attributes.putValue(Constants.Manifest.CAN_RETRANSFORM_CLASSES, Boolean.TRUE.toString());
+
+            ByteArrayOutputStream manifestBytes = new ByteArrayOutputStream();
+            manifest.write(manifestBytes);
+            return manifestBytes.toByteArray();
+        }
+
+        private Map<String, byte[]> readClassFiles() throws IOException {
+            Set<Class<?>> classes = new LinkedHashSet<>();
+            classes.add(agentClass);
+            classes.addAll(attachedClasses);
+
+            Map<String, byte[]> classFiles = new LinkedHashMap<>();
+            for (Class<?> clazz : classes) {
+                String classFileName = clazz.getName().replace('.', '/') + Constants.Suffix.CLASS_FILE_SUFFIX;
+                classFiles.put(classFileName, readClassFile(clazz, classFileName));
+            }
+            return classFiles;
         }
 
-        private String retrieveAgentPath() {
-            String agentJarPath = System.getProperty(Constants.Properties.HOME_DIR) + File.separator + agentName;
-            waitForCreationOfFile(agentJarPath);
-            return agentJarPath;
+        private byte[] readClassFile(Class<?> clazz, String classFileName) throws IOException {
+            try (InputStream stream = clazz.getResourceAsStream("/" + classFileName)) {
+                if (stream == null) {
+                    throw new RuntimeException("Class file for " + clazz.getName() + " cannot be found");
+                }
+                return readFully(stream);
+            }
         }
 
-        private void waitForCreationOfFile(String fileName) {
-            File file = new File(fileName);
-            while (!file.exists()) {
-                // nothing
+        private byte[] readFully(InputStream stream) throws IOException {
+            ByteArrayOutputStream content = new ByteArrayOutputStream();
+            byte[] buffer = new byte[4096];
+            int length;
+            while ((length = stream.read(buffer)) != -1) {
+                content.write(buffer, 0, length);
             }
+            return content.toByteArray();
         }
     }
 }
@@ -1,42 +1,60 @@
 package com.kiselev.reflection.ui.bytecode.assembly.build.constant;
 
-import java.io.File;
-
 public class Constants {
 
-    public static class Flag {
+    public static class Properties {
+
+        public static final String HOME_DIR = "user.dir";
+
+        public static final String TEMP_DIR = "java.io.tmpdir";
+
+        public static final String USER_NAME = "user.name";
 
-        public static final String JAR_FLAG = "-cfvm";
+        public static final String BYTE_CODE_BUDGET = "reflection.ui.bytecode.budget";
 
-        public static final String JAR_C_FLAG = "-C";
+        public static final String BYTE_CODE_STORAGE = "reflection.ui.bytecode.storage";
+
+        public static final String RENDER_METRICS = "reflection.ui.metrics";
+
+        public static final String RENDER_CACHE_DIRECTORY = "reflection.ui.cache.directory";
     }
 
-    public static class Properties {
+    public static class Storage {
 
-        public static final String HOME_DIR = "user.dir";
+        public static final long DEFAULT_BYTE_CODE_BUDGET = 64L * 1024 * 1024;
+
+        public static final String HEAP_STORAGE = "heap";
+
+        public static final String DIRECT_STORAGE = "direct";
     }
 
-    public static class Command {
+    public static class Directory {
 
-        public static final String JAR_EXE_COMMAND = "\""
-                + System.getProperty("java.home")
-                + File.separator + ".."
-                + File.separator + "bin"
-                + File.separator + "jar.exe"
-                + "\"";
+        public static final String CACHE_DIRECTORY = "reflection-ui";
     }
 
-    public static class Suffix {
+    public static class Hash {
 
-        public static final String JAR_SUFFIX = ".jar";
+        public static final String ALGORITHM = "SHA-256";
+    }
 
-        public static final String MANIFEST_SUFFIX = ".mf";
+    public static class Manifest {
 
-        public static final String CLASS_FILE_SUFFIX = ".class";
+        public static final String MANIFEST_VERSION = "1.0";
+
+        public static final String AGENT_CLASS = "Agent-Class";
+
+        public static final String CAN_REDEFINE_CLASSES = "Can-Redefine-Classes";
+
+        public static final String CAN_RETRANSFORM_CLASSES = "Can-Retransform-Classes";
     }
 
-    public static class Symbols {
+    public static class Suffix {
+
+        public static final String JAR_SUFFIX = ".jar";
+
+        public static final String CLASS_FILE_SUFFIX = ".class";
 
-        public static final String GAP = " ";
+        public static final String TEMP_SUFFIX = ".tmp";
     }
 }
@@ -0,0 +1,313 @@
+package com.kiselev.reflection.ui.bytecode.disassembler;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Offset table over the constant pool of a class file, built in a single pass.
+ * Entries are read straight from the buffer, UTF-8 entries are decoded on first access.
+ */
+public class ConstantPool {
+
+    public static final int UTF8 = 1;
+
+    public static final int INTEGER = 3;
+
+    public static final int FLOAT = 4;
+
+    public static final int LONG = 5;
+
+    public static final int DOUBLE = 6;
+
+    public static final int CLASS = 7;
+
+    public static final int STRING = 8;
+
+    public static final int FIELDREF = 9;
+
+    public static final int METHODREF = 10;
+
+    public static final int INTERFACE_METHODREF = 11;
+
+    public static final int NAME_AND_TYPE = 12;
+
+    public static final int METHOD_HANDLE = 15;
+
+    public static final int METHOD_TYPE = 16;
+
+    public static final int DYNAMIC = 17;
+
+    public static final int INVOKE_DYNAMIC = 18;
+
+    public static final int MODULE = 19;
+
+    public static final int PACKAGE = 20;
+
+    private static final int MAGIC = 0xCAFEBABE;
+
+    private static final String[] REFERENCE_KINDS = {
+            "", "REF_getField", "REF_getStatic", "REF_putField", "REF_putStatic",
+            "REF_invokeVirtual", "REF_invokeStatic", "REF_invokeSpecial", "REF_newInvokeSpecial", "REF_invokeInterface"
+    };
+
+    private final ByteBuffer byteCode;
+
+    private final int[] offsets;
+
+    private final String[] utf8Entries;
+
+    private final int endOffset;
+
+    public ConstantPool(ByteBuffer byteCode) {
+        this.byteCode = byteCode;
+
+        int base = byteCode.position();
+        if (byteCode.remaining() < 10 || byteCode.getInt(base) != MAGIC) {
+            throw new RuntimeException("Byte code is not a class file");
+        }
+
+        int count = u2(base + 8);
+        this.offsets = new int[count];
+        this.utf8Entries = new String[count];
+
+        int offset = base + 10;
+        for (int index = 1; index < count; index++) {
+            offsets[index] = offset;
+            int tag = byteCode.get(offset) & 0xFF;
+            switch (tag) {
+                case UTF8:
+                    offset += 3 + u2(offset + 1);
+                    break;
+                case INTEGER:
+                case FLOAT:
+                case FIELDREF:
+                case METHODREF:
+                case INTERFACE_METHODREF:
+                case NAME_AND_TYPE:
+                case DYNAMIC:
+                case INVOKE_DYNAMIC:
+                    offset += 5;
+                    break;
+                case LONG:
+                case DOUBLE:
+                    offset += 9;
+                    // Eight-byte constants take up two entries
+                    index++;
+                    break;
+                case CLASS:
+                case STRING:
+                case METHOD_TYPE:
+                case MODULE:
+                case PACKAGE:
+                    offset += 3;
+                    break;
+                case METHOD_HANDLE:
+                    offset += 4;
+                    break;
+                default:
+                    throw new RuntimeException("Unknown constant pool tag " + tag + " at entry #" + index);
+            }
+        }
+        this.endOffset = offset;
+    }
+
+    public ByteBuffer getByteCode() {
+        return byteCode;
+    }
+
+    public int size() {
+        return offsets.length;
+    }
+
+    public int getEndOffset() {
+        return endOffset;
+    }
+
+    public int getTag(int index) {
+        int offset = offsets[index];
+        return (offset != 0) ? byteCode.get(offset) & 0xFF : 0;
+    }
+
+    public String getUtf8(int index) {
+        String utf8 = utf8Entries[index];
+        if (utf8 == null) {
+            int offset = offsets[index];
+            utf8 = decodeUtf8(offset + 3, u2(offset + 1));
+            utf8Entries[index] = utf8;
+        }
+        return utf8;
+    }
+
+    public int getReference(int index) {
+        return u2(offsets[index] + 1);
+    }
+
+    public int getSecondReference(int index) {
+        return u2(offsets[index] + 3);
+    }
+
+    public String getClassName(int index) {
+        return (index != 0) ? getUtf8(getReference(index)) : null;
+    }
+
+    public int getInt(int index) {
+        return byteCode.getInt(offsets[index] + 1);
+    }
+
+    public long getLong(int index) {
+        return byteCode.getLong(offsets[index] + 1);
+    }
+
+    public String getTagName(int index) {
+        switch (getTag(index)) {
+            case UTF8: return "Utf8";
+            case INTEGER: return "Integer";
+            case FLOAT: return "Float";
+            case LONG: return "Long";
+            case DOUBLE: return "Double";
+            case CLASS: return "Class";
+            case STRING: return "String";
+            case FIELDREF: return "Fieldref";
+            case METHODREF: return "Methodref";
+            case INTERFACE_METHODREF: return "InterfaceMethodref";
+            case NAME_AND_TYPE: return "NameAndType";
+            case METHOD_HANDLE: return "MethodHandle";
+            case METHOD_TYPE: return "MethodType";
+            case DYNAMIC: return "Dynamic";
+            case INVOKE_DYNAMIC: return "InvokeDynamic";
+            case MODULE: return "Module";
+            case PACKAGE: return "Package";
+            default: return "";
+        }
+    }
+
+    public String getKindName(int index) {
+        switch (getTag(index)) {
+            case INTEGER: return "int";
+            case FLOAT: return "float";
+            case LONG: return "long";
+            case DOUBLE: return "double";
+            case CLASS: return "class";
+            case FIELDREF: return "Field";
+            case METHODREF: return "Method";
+            case INTERFACE_METHODREF: return "InterfaceMethod";
+            default: return getTagName(index);
+        }
+    }
+
+    public void appendOperands(int index, StringBuilder builder) {
+        switch (getTag(index)) {
+            case UTF8:
+            case INTEGER:
+            case FLOAT:
+            case LONG:
+            case DOUBLE:
+                appendValue(index, builder);
+                break;
+            case CLASS:
+            case STRING:
+            case METHOD_TYPE:
+            case MODULE:
+            case PACKAGE:
+                builder.append('#').append(getReference(index));
+                break;
+            case FIELDREF:
+            case METHODREF:
+            case INTERFACE_METHODREF:
+                builder.append('#').append(getReference(index)).append(".#").append(getSecondReference(index));
+                break;
+            case NAME_AND_TYPE:
+            case DYNAMIC:
+            case INVOKE_DYNAMIC:
+                builder.append('#').append(getReference(index)).append(":#").append(getSecondReference(index));
+                break;
+            case METHOD_HANDLE:
+                builder.append(byteCode.get(offsets[index] + 1) & 0xFF).append(":#").append(u2(offsets[index] + 2));
+                break;
+            default:
+                break;
+        }
+    }
+
+    public void appendValue(int index, StringBuilder builder) {
+        int offset = offsets[index];
+        switch (getTag(index)) {
+            case UTF8:
+                builder.append(getUtf8(index));
+                break;
+            case INTEGER:
+                builder.append(getInt(index));
+                break;
+            case FLOAT:
+                builder.append(Float.intBitsToFloat(getInt(index))).append('f');
+                break;
+            case LONG:
+                builder.append(getLong(index)).append('l');
+                break;
+            case DOUBLE:
+                builder.append(Double.longBitsToDouble(getLong(index))).append('d');
+                break;
+            case CLASS:
+            case STRING:
+            case METHOD_TYPE:
+            case MODULE:
+            case PACKAGE:
+                builder.append(getUtf8(getReference(index)));
+                break;
+            case FIELDREF:
+            case METHODREF:
+            case INTERFACE_METHODREF:
+                builder.append(getClassName(getReference(index))).append('.');
+                appendValue(getSecondReference(index), builder);
+                break;
+            case NAME_AND_TYPE:
+                appendMemberName(getUtf8(getReference(index)), builder);
+                builder.append(':').append(getUtf8(getSecondReference(index)));
+                break;
+            case DYNAMIC:
+            case INVOKE_DYNAMIC:
+                builder.append('#').append(getReference(index)).append(':');
+                appendValue(getSecondReference(index), builder);
+                break;
+            case METHOD_HANDLE:
+                int referenceKind = byteCode.get(offset + 1) & 0xFF;
+                builder.append(referenceKind < REFERENCE_KINDS.length ? REFERENCE_KINDS[referenceKind] : "").append(' ');
+                appendValue(u2(offset + 2), builder);
+                break;
+            default:
+                break;
+        }
+    }
+
+    private void appendMemberName(String name, StringBuilder builder) {
+        if (name.startsWith("<")) {
+            builder.append('"').append(name).append('"');
+        } else {
+            builder.append(name);
+        }
+    }
+
+    private int u2(int offset) {
+        return byteCode.getShort(offset) & 0xFFFF;
+    }
+
+    private String decodeUtf8(int offset, int length) {
+        char[] chars = new char[length];
+        int count = 0;
+
+        int end = offset + length;
+        while (offset < end) {
+            int first = byteCode.get(offset++) & 0xFF;
+            if (first < 0x80) {
+                chars[count++] = (char) first;
+            } else if ((first & 0xE0) == 0xC0) {
+                chars[count++] = (char) (((first & 0x1F) << 6) | (byteCode.get(offset++) & 0x3F));
+            } else {
+                chars[count++] = (char) (((first & 0x0F) << 12)
+                        | ((byteCode.get(offset++) & 0x3F) << 6)
+                        | (byteCode.get(offset++) & 0x3F));
+            }
+        }
+
+        return new String(chars, 0, count);
+    }
+}
@@ -0,0 +1,654 @@
+package com.kiselev.reflection.ui.bytecode.disassembler;
+
+import java.lang.reflect.Modifier;
+import java.nio.ByteBuffer;
+
+/**
+ * Renders a captured class file as a javap-style listing: header, constant pool,
+ * fields and methods with their Code attributes.
+ * Reads the buffer in place with absolute offsets and creates no objects per instruction.
+ */
+public class Disassembler {
+
+    private static final int[] CLASS_FLAGS = {0x0001, 0x0010, 0x0020, 0x0200, 0x0400, 0x1000, 0x2000, 0x4000, 0x8000};
+
+    private static final String[] CLASS_FLAG_NAMES = {
+            "ACC_PUBLIC", "ACC_FINAL", "ACC_SUPER", "ACC_INTERFACE", "ACC_ABSTRACT",
+            "ACC_SYNTHETIC", "ACC_ANNOTATION", "ACC_ENUM", "ACC_MODULE"
+    };
+
+    private static final int[] FIELD_FLAGS = {0x0001, 0x0002, 0x0004, 0x0008, 0x0010, 0x0040, 0x0080, 0x1000, 0x4000};
+
+    private static final String[] FIELD_FLAG_NAMES = {
+            "ACC_PUBLIC", "ACC_PRIVATE", "ACC_PROTECTED", "ACC_STATIC", "ACC_FINAL",
+            "ACC_VOLATILE", "ACC_TRANSIENT", "ACC_SYNTHETIC", "ACC_ENUM"
+    };
+
+    private static final int[] METHOD_FLAGS = {
+            0x0001, 0x0002, 0x0004, 0x0008, 0x0010, 0x0020, 0x0040, 0x0080, 0x0100, 0x0400, 0x0800, 0x1000
+    };
+
+    private static final String[] METHOD_FLAG_NAMES = {
+            "ACC_PUBLIC", "ACC_PRIVATE", "ACC_PROTECTED", "ACC_STATIC", "ACC_FINAL", "ACC_SYNCHRONIZED",
+            "ACC_BRIDGE", "ACC_VARARGS", "ACC_NATIVE", "ACC_ABSTRACT", "ACC_STRICT", "ACC_SYNTHETIC"
+    };
+
+    private static final int ACC_INTERFACE = 0x0200;
+
+    private static final int ACC_ANNOTATION = 0x2000;
+
+    private static final int ACC_ENUM = 0x4000;
+
+    private static final int ACC_VARARGS = 0x0080;
+
+    private static final int OPERAND_COLUMN = 14;
+
+    private static final int COMMENT_COLUMN = 19;
+
+    public String disassemble(ByteBuffer byteCode) {
+        StringBuilder listing = new StringBuilder();
+
+        try {
+            appendClass(new ConstantPool(byteCode), listing);
+        } catch (IndexOutOfBoundsException exception) {
+            throw new RuntimeException("Class file is truncated", exception);
+        }
+
+        return listing.toString();
+    }
+
+    private void appendClass(ConstantPool constantPool, StringBuilder listing) {
+        ByteBuffer byteCode = constantPool.getByteCode();
+        int base = byteCode.position();
+
+        int offset = constantPool.getEndOffset();
+        int accessFlags = u2(byteCode, offset);
+        int thisClass = u2(byteCode, offset + 2);
+        int superClass = u2(byteCode, offset + 4);
+        int interfacesCount = u2(byteCode, offset + 6);
+
+        int fieldsOffset = offset + 8 + interfacesCount * 2;
+        int methodsOffset = skipMembers(byteCode, fieldsOffset);
+        int attributesOffset = skipMembers(byteCode, methodsOffset);
+
+        appendClassDeclaration(constantPool, accessFlags, thisClass, superClass, offset + 8, interfacesCount, listing);
+
+        listing.append("  minor version: ").append(u2(byteCode, base + 4)).append('\n');
+        listing.append("  major version: ").append(u2(byteCode, base + 6)).append('\n');
+        listing.append("  flags: ");
+        appendFlags(accessFlags, CLASS_FLAGS, CLASS_FLAG_NAMES, listing);
+        listing.append('\n');
+
+        listing.append("  this_class: ");
+        appendConstantReference(constantPool, thisClass, listing);
+        listing.append('\n');
+        listing.append("  super_class: ");
+        appendConstantReference(constantPool, superClass, listing);
+        listing.append('\n');
+
+        listing.append("  interfaces: ").append(interfacesCount)
+                .append(", fields: ").append(u2(byteCode, fieldsOffset))
+                .append(", methods: ").append(u2(byteCode, methodsOffset))
+                .append(", attributes: ").append(u2(byteCode, attributesOffset))
+                .append('\n');
+
+        appendConstantPool(constantPool, listing);
+
+        listing.append("{\n");
+        String className = toJavaName(constantPool.getClassName(thisClass));
+        boolean hasMembers = appendMembers(constantPool, fieldsOffset, false, className, false, listing);
+        appendMembers(constantPool, methodsOffset, true, className, hasMembers, listing);
+        listing.append("}\n");
+
+        appendClassAttributes(constantPool, attributesOffset, listing);
+    }
+
+    private void appendClassDeclaration(ConstantPool constantPool, int accessFlags, int thisClass, int superClass,
+                                        int interfacesOffset, int interfacesCount, StringBuilder listing) {
+        ByteBuffer byteCode = constantPool.getByteCode();
+
+        boolean isInterface = (accessFlags & ACC_INTERFACE) != 0;
+        int modifiers = accessFlags & Modifier.classModifiers() & ~(isInterface ? Modifier.ABSTRACT : 0);
+        if (modifiers != 0) {
+            listing.append(Modifier.toString(modifiers)).append(' ');
+        }
+
+        if ((accessFlags & ACC_ANNOTATION) != 0) {
+            listing.append("@interface ");
+        } else if (isInterface) {
+            listing.append("interface ");
+        } else if ((accessFlags & ACC_ENUM) != 0) {
+            listing.append("enum ");
+        } else {
+            listing.append("class ");
+        }
+        listing.append(toJavaName(constantPool.getClassName(thisClass)));
+
+        if (superClass != 0 && !isInterface) {
+            listing.append(" extends ").append(toJavaName(constantPool.getClassName(superClass)));
+        }
+
+        for (int i = 0; i < interfacesCount; i++) {
+            listing.append(i == 0 ? (isInterface ? " extends " : " implements ") : ", ");
+            listing.append(toJavaName(constantPool.getClassName(u2(byteCode, interfacesOffset + i * 2))));
+        }
+
+        listing.append('\n');
+    }
+
+    private void appendConstantPool(ConstantPool constantPool, StringBuilder listing) {
+        listing.append("Constant pool:\n");
+
+        int width = digits(constantPool.size() - 1) + 1;
+        for (int index = 1; index < constantPool.size(); index++) {
+            if (constantPool.getTag(index) == 0) {
+                // Second half of a long or double constant
+                continue;
+            }
+
+            int lineStart = listing.length();
+            listing.append('#').append(index);
+            padLeft(listing, lineStart, width + 3);
+            listing.append(" = ");
+
+            int tagStart = listing.length();
+            listing.append(constantPool.getTagName(index));
+            pad(listing, tagStart, COMMENT_COLUMN);
+
+            int operandsStart = listing.length();
+            constantPool.appendOperands(index, listing);
+
+            int tag = constantPool.getTag(index);
+            if (tag != ConstantPool.UTF8 && tag != ConstantPool.INTEGER && tag != ConstantPool.FLOAT
+                    && tag != ConstantPool.LONG && tag != ConstantPool.DOUBLE) {
+                pad(listing, operandsStart, 15);
+                listing.append("// ");
+                constantPool.appendValue(index, listing);
+            }
+
+            listing.append('\n');
+        }
+    }
+
+    private boolean appendMembers(ConstantPool constantPool, int offset, boolean method, String className,
+                                  boolean separate, StringBuilder listing) {
+        ByteBuffer byteCode = constantPool.getByteCode();
+
+        int count = u2(byteCode, offset);
+        offset += 2;
+
+        for (int i = 0; i < count; i++) {
+            if (i != 0 || separate) {
+                listing.append('\n');
+            }
+            offset = appendMember(constantPool, offset, method, className, listing);
+        }
+
+        return count != 0;
+    }
+
+    private int appendMember(ConstantPool constantPool, int offset, boolean method, String className, StringBuilder listing) {
+        ByteBuffer byteCode = constantPool.getByteCode();
+
+        int accessFlags = u2(byteCode, offset);
+        String name = constantPool.getUtf8(u2(byteCode, offset + 2));
+        String descriptor = constantPool.getUtf8(u2(byteCode, offset + 4));
+        int attributesCount = u2(byteCode, offset + 6);
+        offset += 8;
+
+        listing.append("  ");
+        if (method) {
+            appendMethodDeclaration(accessFlags, name, descriptor, className, listing);
+        } else {
+            appendFieldDeclaration(accessFlags, name, descriptor, listing);
+        }
+        listing.append(";\n");
+
+        listing.append("    descriptor: ").append(descriptor).append('\n');
+        listing.append("    flags: ");
+        if (method) {
+            appendFlags(accessFlags, METHOD_FLAGS, METHOD_FLAG_NAMES, listing);
+        } else {
+            appendFlags(accessFlags, FIELD_FLAGS, FIELD_FLAG_NAMES, listing);
+        }
+        listing.append('\n');
+
+        for (int i = 0; i < attributesCount; i++) {
+            String attributeName = constantPool.getUtf8(u2(byteCode, offset));
+            int attributeLength = byteCode.getInt(offset + 2);
+            int attributeOffset = offset + 6;
+
+            switch (attributeName) {
+                case "Code":
+                    appendCode(constantPool, attributeOffset, listing);
+                    break;
+                case "Exceptions":
+                    appendExceptions(constantPool, attributeOffset, listing);
+                    break;
+                case "ConstantValue":
+                    listing.append("    ConstantValue: ");
+                    int constant = u2(byteCode, attributeOffset);
+                    listing.append(constantPool.getKindName(constant)).append(' ');
+                    constantPool.appendValue(constant, listing);
+                    listing.append('\n');
+                    break;
+                case "Signature":
+                    listing.append("    Signature: ");
+                    appendConstantReference(constantPool, u2(byteCode, attributeOffset), listing);
+                    listing.append('\n');
+                    break;
+                default:
+                    break;
+            }
+
+            offset = attributeOffset + attributeLength;
+        }
+
+        return offset;
+    }
+
+    private void appendFieldDeclaration(int accessFlags, String name, String descriptor, StringBuilder listing) {
+        int modifiers = accessFlags & Modifier.fieldModifiers();
+        if (modifiers != 0) {
+            listing.append(Modifier.toString(modifiers)).append(' ');
+        }
+
+        appendType(descriptor, 0, false, listing);
+        listing.append(' ').append(name);
+    }
+
+    private void appendMethodDeclaration(int accessFlags, String name, String descriptor, String className, StringBuilder listing) {
+        int modifiers = accessFlags & Modifier.methodModifiers();
+        if (modifiers != 0) {
+            listing.append(Modifier.toString(modifiers)).append(' ');
+        }
+
+        if ("<clinit>".equals(name)) {
+            listing.append("{}");
+            return;
+        }
+
+        int returnTypeIndex = descriptor.indexOf(')') + 1;
+        if ("<init>".equals(name)) {
+            listing.append(className);
+        } else {
+            appendType(descriptor, returnTypeIndex, false, listing);
+            listing.append(' ').append(name);
+        }
+
+        listing.append('(');
+        int index = 1;
+        while (index < returnTypeIndex - 1) {
+            if (index != 1) {
+                listing.append(", ");
+            }
+            int nextIndex = skipType(descriptor, index);
+            boolean isVarArgs = (accessFlags & ACC_VARARGS) != 0 && nextIndex == returnTypeIndex - 1;
+            appendType(descriptor, index, isVarArgs, listing);
+            index = nextIndex;
+        }
+        listing.append(')');
+    }
+
+    private void appendExceptions(ConstantPool constantPool, int offset, StringBuilder listing) {
+        ByteBuffer byteCode = constantPool.getByteCode();
+
+        listing.append("    Exceptions:\n      throws ");
+
+        int count = u2(byteCode, offset);
+        for (int i = 0; i < count; i++) {
+            if (i != 0) {
+                listing.append(", ");
+            }
+            listing.append(toJavaName(constantPool.getClassName(u2(byteCode, offset + 2 + i * 2))));
+        }
+
+        listing.append('\n');
+    }
+
+    private void appendCode(ConstantPool constantPool, int offset, StringBuilder listing) {
+        ByteBuffer byteCode = constantPool.getByteCode();
+
+        int codeLength = byteCode.getInt(offset + 4);
+        int codeOffset = offset + 8;
+
+        listing.append("    Code:\n");
+        listing.append("      stack=").append(u2(byteCode, offset))
+                .append(", locals=").append(u2(byteCode, offset + 2))
+                .append('\n');
+
+        appendInstructions(constantPool, codeOffset, codeLength, listing);
+
+        int exceptionTableOffset = codeOffset + codeLength;
+        int exceptionTableLength = u2(byteCode, exceptionTableOffset);
+        if (exceptionTableLength != 0) {
+            listing.append("      Exception table:\n");
+            listing.append("         from    to  target type\n");
+
+            for (int i = 0; i < exceptionTableLength; i++) {
+                int entryOffset = exceptionTableOffset + 2 + i * 8;
+
+                int lineStart = listing.length();
+                listing.append(u2(byteCode, entryOffset));
+                padLeft(listing, lineStart, 14);
+
+                lineStart = listing.length();
+                listing.append(u2(byteCode, entryOffset + 2));
+                padLeft(listing, lineStart, 6);
+
+                lineStart = listing.length();
+                listing.append(u2(byteCode, entryOffset + 4));
+                padLeft(listing, lineStart, 6);
+
+                int catchType = u2(byteCode, entryOffset + 6);
+                if (catchType != 0) {
+                    listing.append("   Class ").append(constantPool.getClassName(catchType));
+                } else {
+                    listing.append("   any");
+                }
+                listing.append('\n');
+            }
+        }
+    }
+
+    private void appendInstructions(ConstantPool constantPool, int codeOffset, int codeLength, StringBuilder listing) {
+        ByteBuffer byteCode = constantPool.getByteCode();
+
+        int pc = 0;
+        while (pc < codeLength) {
+            int offset = codeOffset + pc;
+            int opcode = byteCode.get(offset) & 0xFF;
+            if (!Opcodes.isValid(opcode)) {
+                throw new RuntimeException("Unknown opcode " + opcode + " at " + pc);
+            }
+
+            int lineStart = listing.length();
+            listing.append(pc);
+            padLeft(listing, lineStart, 10);
+            listing.append(": ");
+
+            int mnemonicStart = listing.length();
+            listing.append(Opcodes.getMnemonic(opcode));
+
+            switch (Opcodes.getOperands(opcode)) {
+                case Opcodes.BYTE:
+                    pad(listing, mnemonicStart, OPERAND_COLUMN);
+                    listing.append(byteCode.get(offset + 1));
+                    pc += 2;
+                    break;
+                case Opcodes.SHORT:
+                    pad(listing, mnemonicStart, OPERAND_COLUMN);
+                    listing.append(byteCode.getShort(offset + 1));
+                    pc += 3;
+                    break;
+                case Opcodes.CONSTANT_BYTE:
+                    pad(listing, mnemonicStart, OPERAND_COLUMN);
+                    appendConstantReference(constantPool, byteCode.get(offset + 1) & 0xFF, listing);
+                    pc += 2;
+                    break;
+                case Opcodes.CONSTANT:
+                    pad(listing, mnemonicStart, OPERAND_COLUMN);
+                    appendConstantReference(constantPool, u2(byteCode, offset + 1), listing);
+                    pc += 3;
+                    break;
+                case Opcodes.LOCAL:
+                    pad(listing, mnemonicStart, OPERAND_COLUMN);
+                    listing.append(byteCode.get(offset + 1) & 0xFF);
+                    pc += 2;
+                    break;
+                case Opcodes.INCREMENT:
+                    pad(listing, mnemonicStart, OPERAND_COLUMN);
+                    listing.append(byteCode.get(offset + 1) & 0xFF).append(", ").append(byteCode.get(offset + 2));
+                    pc += 3;
+                    break;
+                case Opcodes.BRANCH:
+                    pad(listing, mnemonicStart, OPERAND_COLUMN);
+                    listing.append(pc + byteCode.getShort(offset + 1));
+                    pc += 3;
+                    break;
+                case Opcodes.WIDE_BRANCH:
+                    pad(listing, mnemonicStart, OPERAND_COLUMN);
+                    listing.append(pc + byteCode.getInt(offset + 1));
+                    pc += 5;
+                    break;
+                case Opcodes.TABLE_SWITCH:
+                    pc = appendTableSwitch(byteCode, codeOffset, pc, listing);
+                    break;
+                case Opcodes.LOOKUP_SWITCH:
+                    pc = appendLookupSwitch(byteCode, codeOffset, pc, listing);
+                    break;
+                case Opcodes.INVOKE_INTERFACE:
+                    pad(listing, mnemonicStart, OPERAND_COLUMN);
+                    appendConstantReference(constantPool, u2(byteCode, offset + 1), byteCode.get(offset + 3) & 0xFF, listing);
+                    pc += 5;
+                    break;
+                case Opcodes.INVOKE_DYNAMIC:
+                    pad(listing, mnemonicStart, OPERAND_COLUMN);
+                    appendConstantReference(constantPool, u2(byteCode, offset + 1), 0, listing);
+                    pc += 5;
+                    break;
+                case Opcodes.NEW_ARRAY:
+                    pad(listing, mnemonicStart, OPERAND_COLUMN);
+                    listing.append(Opcodes.getArrayType(byteCode.get(offset + 1) & 0xFF));
+                    pc += 2;
+                    break;
+                case Opcodes.MULTI_NEW_ARRAY:
+                    pad(listing, mnemonicStart, OPERAND_COLUMN);
+                    appendConstantReference(constantPool, u2(byteCode, offset + 1), byteCode.get(offset + 3) & 0xFF, listing);
+                    pc += 4;
+                    break;
+                case Opcodes.WIDE:
+                    int widenedOpcode = byteCode.get(offset + 1) & 0xFF;
+                    listing.append(' ').append(Opcodes.getMnemonic(widenedOpcode));
+                    pad(listing, mnemonicStart, OPERAND_COLUMN);
+                    listing.append(u2(byteCode, offset + 2));
+                    if (widenedOpcode == Opcodes.IINC) {
+                        listing.append(", ").append(byteCode.getShort(offset + 4));
+                        pc += 6;
+                    } else {
+                        pc += 4;
+                    }
+                    break;
+                default:
+                    pc += 1;
+                    break;
+            }
+
+            listing.append('\n');
+        }
+    }
+
+    private int appendTableSwitch(ByteBuffer byteCode, int codeOffset, int pc, StringBuilder listing) {
+        int offset = codeOffset + alignSwitch(pc);
+        int defaultTarget = pc + byteCode.getInt(offset);
+        int low = byteCode.getInt(offset + 4);
+        int high = byteCode.getInt(offset + 8);
+
+        listing.append("   { // ").append(low).append(" to ").append(high).append('\n');
+        for (int i = 0; i <= high - low; i++) {
+            appendSwitchCase(low + i, pc + byteCode.getInt(offset + 12 + i * 4), listing);
+        }
+        appendSwitchDefault(defaultTarget, listing);
+
+        return offset + 12 + (high - low + 1) * 4 - codeOffset;
+    }
+
+    private int appendLookupSwitch(ByteBuffer byteCode, int codeOffset, int pc, StringBuilder listing) {
+        int offset = codeOffset + alignSwitch(pc);
+        int defaultTarget = pc + byteCode.getInt(offset);
+        int pairs = byteCode.getInt(offset + 4);
+
+        listing.append("  { // ").append(pairs).append('\n');
+        for (int i = 0; i < pairs; i++) {
+            int pairOffset = offset + 8 + i * 8;
+            appendSwitchCase(byteCode.getInt(pairOffset), pc + byteCode.getInt(pairOffset + 4), listing);
+        }
+        appendSwitchDefault(defaultTarget, listing);
+
+        return offset + 8 + pairs * 8 - codeOffset;
+    }
+
+    private int alignSwitch(int pc) {
+        // Operands start at the next four-byte boundary after the opcode
+        return (pc + 4) & ~3;
+    }
+
+    private void appendSwitchCase(int match, int target, StringBuilder listing) {
+        int lineStart = listing.length();
+        listing.append(match);
+        padLeft(listing, lineStart, 24);
+        listing.append(": ").append(target).append('\n');
+    }
+
+    private void appendSwitchDefault(int target, StringBuilder listing) {
+        listing.append("                 default: ").append(target).append('\n');
+        listing.append("            }");
+    }
+
+    private void appendClassAttributes(ConstantPool constantPool, int offset, StringBuilder listing) {
+        ByteBuffer byteCode = constantPool.getByteCode();
+
+        int count = u2(byteCode, offset);
+        offset += 2;
+
+        for (int i = 0; i < count; i++) {
+            String attributeName = constantPool.getUtf8(u2(byteCode, offset));
+            int attributeLength = byteCode.getInt(offset + 2);
+            int attributeOffset = offset + 6;
+
+            if ("SourceFile".equals(attributeName)) {
+                listing.append("SourceFile: \"").append(constantPool.getUtf8(u2(byteCode, attributeOffset))).append("\"\n");
+            } else if ("Signature".equals(attributeName)) {
+                listing.append("Signature: ");
+                appendConstantReference(constantPool, u2(byteCode, attributeOffset), listing);
+                listing.append('\n');
+            }
+
+            offset = attributeOffset + attributeLength;
+        }
+    }
+
+    private void appendConstantReference(ConstantPool constantPool, int index, StringBuilder listing) {
+        appendConstantReference(constantPool, index, -1, listing);
+    }
+
+    private void appendConstantReference(ConstantPool constantPool, int index, int extraOperand, StringBuilder listing) {
+        int referenceStart = listing.length();
+        listing.append('#').append(index);
+        if (extraOperand >= 0) {
+            listing.append(",  ").append(extraOperand);
+        }
+
+        if (index != 0) {
+            pad(listing, referenceStart, COMMENT_COLUMN);
+            listing.append("// ");
+            if (constantPool.getTag(index) != ConstantPool.UTF8) {
+                listing.append(constantPool.getKindName(index)).append(' ');
+            }
+            constantPool.appendValue(index, listing);
+        }
+    }
+
+    private void appendFlags(int accessFlags, int[] flags, String[] flagNames, StringBuilder listing) {
+        listing.append("(0x");
+        for (int shift = 12; shift >= 0; shift -= 4) {
+            listing.append(Character.forDigit((accessFlags >>> shift) & 0xF, 16));
+        }
+        listing.append(')');
+
+        boolean first = true;
+        for (int i = 0; i < flags.length; i++) {
+            if ((accessFlags & flags[i]) != 0) {
+                listing.append(first ? " " : ", ").append(flagNames[i]);
+                first = false;
+            }
+        }
+    }
+
+    private int appendType(String descriptor, int index, boolean isVarArgs, StringBuilder listing) {
+        int dimensions = 0;
+        while (descriptor.charAt(index) == '[') {
+            dimensions++;
+            index++;
+        }
+
+        char type = descriptor.charAt(index);
+        switch (type) {
+            case 'B': listing.append("byte"); break;
+            case 'C': listing.append("char"); break;
+            case 'D': listing.append("double"); break;
+            case 'F': listing.append("float"); break;
+            case 'I': listing.append("int"); break;
+            case 'J': listing.append("long"); break;
+            case 'S': listing.append("short"); break;
+            case 'Z': listing.append("boolean"); break;
+            case 'V': listing.append("void"); break;
+            case 'L':
+                int end = descriptor.indexOf(';', index);
+                for (int i = index + 1; i < end; i++) {
+                    char symbol = descriptor.charAt(i);
+                    listing.append(symbol == '/' ? '.' : symbol);
+                }
+                index = end;
+                break;
+            default:
+                throw new RuntimeException("Malformed descriptor " + descriptor);
+        }
+
+        for (int i = 0; i < dimensions; i++) {
+            listing.append(isVarArgs && i == dimensions - 1 ? "..." : "[]");
+        }
+
+        return index + 1;
+    }
+
+    private int skipType(String descriptor, int index) {
+        while (descriptor.charAt(index) == '[') {
+            index++;
+        }
+        return (descriptor.charAt(index) == 'L') ? descriptor.indexOf(';', index) + 1 : index + 1;
+    }
+
+    private int skipMembers(ByteBuffer byteCode, int offset) {
+        int count = u2(byteCode, offset);
+        offset += 2;
+
+        for (int i = 0; i < count; i++) {
+            int attributesCount = u2(byteCode, offset + 6);
+            offset += 8;
+            for (int j = 0; j < attributesCount; j++) {
+                offset += 6 + byteCode.getInt(offset + 2);
+            }
+        }
+
+        return offset;
+    }
+
+    private String toJavaName(String internalName) {
+        return (internalName != null) ? internalName.replace('/', '.') : null;
+    }
+
+    private void pad(StringBuilder listing, int start, int width) {
+        do {
+            listing.append(' ');
+        } while (listing.length() - start < width);
+    }
+
+    private void padLeft(StringBuilder listing, int start, int width) {
+        while (listing.length() - start < width) {
+            listing.insert(start, ' ');
+        }
+    }
+
+    private int digits(int value) {
+        int digits = 1;
+        while ((value /= 10) != 0) {
+            digits++;
+        }
+        return digits;
+    }
+
+    private int u2(ByteBuffer byteCode, int offset) {
+        return byteCode.getShort(offset) & 0xFFFF;
+    }
+}
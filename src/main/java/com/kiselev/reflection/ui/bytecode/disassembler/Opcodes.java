@@ -0,0 +1,119 @@
+package com.kiselev.reflection.ui.bytecode.disassembler;
+
+/**
+ * Mnemonics and operand layouts of the JVM instruction set, indexed by opcode.
+ */
+public class Opcodes {
+
+    public static final int NONE = 0;
+
+    public static final int BYTE = 1;
+
+    public static final int SHORT = 2;
+
+    public static final int CONSTANT_BYTE = 3;
+
+    public static final int CONSTANT = 4;
+
+    public static final int LOCAL = 5;
+
+    public static final int INCREMENT = 6;
+
+    public static final int BRANCH = 7;
+
+    public static final int WIDE_BRANCH = 8;
+
+    public static final int TABLE_SWITCH = 9;
+
+    public static final int LOOKUP_SWITCH = 10;
+
+    public static final int INVOKE_INTERFACE = 11;
+
+    public static final int INVOKE_DYNAMIC = 12;
+
+    public static final int NEW_ARRAY = 13;
+
+    public static final int MULTI_NEW_ARRAY = 14;
+
+    public static final int WIDE = 15;
+
+    public static final int IINC = 0x84;
+
+    private static final String[] MNEMONICS = {
+            "nop", "aconst_null", "iconst_m1", "iconst_0", "iconst_1", "iconst_2", "iconst_3", "iconst_4",
+            "iconst_5", "lconst_0", "lconst_1", "fconst_0", "fconst_1", "fconst_2", "dconst_0", "dconst_1",
+            "bipush", "sipush", "ldc", "ldc_w", "ldc2_w", "iload", "lload", "fload",
+            "dload", "aload", "iload_0", "iload_1", "iload_2", "iload_3", "lload_0", "lload_1",
+            "lload_2", "lload_3", "fload_0", "fload_1", "fload_2", "fload_3", "dload_0", "dload_1",
+            "dload_2", "dload_3", "aload_0", "aload_1", "aload_2", "aload_3", "iaload", "laload",
+            "faload", "daload", "aaload", "baload", "caload", "saload", "istore", "lstore",
+            "fstore", "dstore", "astore", "istore_0", "istore_1", "istore_2", "istore_3", "lstore_0",
+            "lstore_1", "lstore_2", "lstore_3", "fstore_0", "fstore_1", "fstore_2", "fstore_3", "dstore_0",
+            "dstore_1", "dstore_2", "dstore_3", "astore_0", "astore_1", "astore_2", "astore_3", "iastore",
+            "lastore", "fastore", "dastore", "aastore", "bastore", "castore", "sastore", "pop",
+            "pop2", "dup", "dup_x1", "dup_x2", "dup2", "dup2_x1", "dup2_x2", "swap",
+            "iadd", "ladd", "fadd", "dadd", "isub", "lsub", "fsub", "dsub",
+            "imul", "lmul", "fmul", "dmul", "idiv", "ldiv", "fdiv", "ddiv",
+            "irem", "lrem", "frem", "drem", "ineg", "lneg", "fneg", "dneg",
+            "ishl", "lshl", "ishr", "lshr", "iushr", "lushr", "iand", "land",
+            "ior", "lor", "ixor", "lxor", "iinc", "i2l", "i2f", "i2d",
+            "l2i", "l2f", "l2d", "f2i", "f2l", "f2d", "d2i", "d2l",
+            "d2f", "i2b", "i2c", "i2s", "lcmp", "fcmpl", "fcmpg", "dcmpl",
+            "dcmpg", "ifeq", "ifne", "iflt", "ifge", "ifgt", "ifle", "if_icmpeq",
+            "if_icmpne", "if_icmplt", "if_icmpge", "if_icmpgt", "if_icmple", "if_acmpeq", "if_acmpne", "goto",
+            "jsr", "ret", "tableswitch", "lookupswitch", "ireturn", "lreturn", "freturn", "dreturn",
+            "areturn", "return", "getstatic", "putstatic", "getfield", "putfield", "invokevirtual", "invokespecial",
+            "invokestatic", "invokeinterface", "invokedynamic", "new", "newarray", "anewarray", "arraylength", "athrow",
+            "checkcast", "instanceof", "monitorenter", "monitorexit", "wide", "multianewarray", "ifnull", "ifnonnull",
+            "goto_w", "jsr_w"
+    };
+
+    private static final int[] OPERANDS = {
+            NONE, NONE, NONE, NONE, NONE, NONE, NONE, NONE,
+            NONE, NONE, NONE, NONE, NONE, NONE, NONE, NONE,
+            BYTE, SHORT, CONSTANT_BYTE, CONSTANT, CONSTANT, LOCAL, LOCAL, LOCAL,
+            LOCAL, LOCAL, NONE, NONE, NONE, NONE, NONE, NONE,
+            NONE, NONE, NONE, NONE, NONE, NONE, NONE, NONE,
+            NONE, NONE, NONE, NONE, NONE, NONE, NONE, NONE,
+            NONE, NONE, NONE, NONE, NONE, NONE, LOCAL, LOCAL,
+            LOCAL, LOCAL, LOCAL, NONE, NONE, NONE, NONE, NONE,
+            NONE, NONE, NONE, NONE, NONE, NONE, NONE, NONE,
+            NONE, NONE, NONE, NONE, NONE, NONE, NONE, NONE,
+            NONE, NONE, NONE, NONE, NONE, NONE, NONE, NONE,
+            NONE, NONE, NONE, NONE, NONE, NONE, NONE, NONE,
+            NONE, NONE, NONE, NONE, NONE, NONE, NONE, NONE,
+            NONE, NONE, NONE, NONE, NONE, NONE, NONE, NONE,
+            NONE, NONE, NONE, NONE, NONE, NONE, NONE, NONE,
+            NONE, NONE, NONE, NONE, NONE, NONE, NONE, NONE,
+            NONE, NONE, NONE, NONE, INCREMENT, NONE, NONE, NONE,
+            NONE, NONE, NONE, NONE, NONE, NONE, NONE, NONE,
+            NONE, NONE, NONE, NONE, NONE, NONE, NONE, NONE,
+            NONE, BRANCH, BRANCH, BRANCH, BRANCH, BRANCH, BRANCH, BRANCH,
+            BRANCH, BRANCH, BRANCH, BRANCH, BRANCH, BRANCH, BRANCH, BRANCH,
+            BRANCH, LOCAL, TABLE_SWITCH, LOOKUP_SWITCH, NONE, NONE, NONE, NONE,
+            NONE, NONE, CONSTANT, CONSTANT, CONSTANT, CONSTANT, CONSTANT, CONSTANT,
+            CONSTANT, INVOKE_INTERFACE, INVOKE_DYNAMIC, CONSTANT, NEW_ARRAY, CONSTANT, NONE, NONE,
+            CONSTANT, CONSTANT, NONE, NONE, WIDE, MULTI_NEW_ARRAY, BRANCH, BRANCH,
+            WIDE_BRANCH, WIDE_BRANCH
+    };
+
+    private static final String[] ARRAY_TYPES = {
+            "", "", "", "", "boolean", "char", "float", "double", "byte", "short", "int", "long"
+    };
+
+    public static boolean isValid(int opcode) {
+        return opcode < MNEMONICS.length;
+    }
+
+    public static String getMnemonic(int opcode) {
+        return MNEMONICS[opcode];
+    }
+
+    public static int getOperands(int opcode) {
+        return OPERANDS[opcode];
+    }
+
+    public static String getArrayType(int type) {
+        return (type < ARRAY_TYPES.length) ? ARRAY_TYPES[type] : "";
+    }
+}
@@ -1,69 +1,320 @@
 package com.kiselev.reflection.ui.bytecode.holder;
 
+import com.kiselev.reflection.ui.bytecode.agent.Agent;
 import com.kiselev.reflection.ui.bytecode.assembly.AgentAssembler;
 import com.kiselev.reflection.ui.bytecode.assembly.build.constant.Constants;
+import com.kiselev.reflection.ui.bytecode.disassembler.Disassembler;
+import com.kiselev.reflection.ui.bytecode.listener.RedefinitionEvent;
+import com.kiselev.reflection.ui.bytecode.listener.RedefinitionListener;
+import com.kiselev.reflection.ui.bytecode.view.ClassFileView;
+import com.kiselev.reflection.ui.bytecode.writer.ClassArchiveWriter;
+import com.kiselev.reflection.ui.bytecode.writer.ClassFileWriter;
 
 import java.io.File;
-import java.io.FileOutputStream;
-import java.io.IOException;
-import java.lang.instrument.Instrumentation;
-import java.lang.instrument.UnmodifiableClassException;
-import java.nio.file.Files;
+import java.nio.ByteBuffer;
 import java.nio.file.Path;
 import java.nio.file.Paths;
-import java.util.HashMap;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.WeakHashMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Predicate;
 
 /**
  * Created by Vadim Kiselev on 6/13/2017.
  */
 public class ByteCodeHolder {
 
-    private static Map<String, byte[]> byteCodeMap = new HashMap<>();
+    private static final ByteCodeStorage<?> byteCodeStorage = createByteCodeStorage();
+
+    private static final Set<Class<?>> pendingClasses = new LinkedHashSet<>();
+
+    private static final Disassembler disassembler = new Disassembler();
+
+    private static final List<RedefinitionListener> redefinitionListeners = new CopyOnWriteArrayList<>();
+
+    // Redefinitions made through the agent on this thread, published once the agent call returns
+    private static final ThreadLocal<RedefinitionScope> redefinitionScope = new ThreadLocal<>();
+
+    // Redefinitions made by other tools, weakly held so they never pin class loaders
+    private static final Map<Class<?>, Boolean> externalRedefinitions = Collections.synchronizedMap(new WeakHashMap<>());
+
+    private static final ClassFileWriter classFileWriter =
+            new ClassFileWriter(Paths.get(System.getProperty(Constants.Properties.HOME_DIR)));
 
     public static void uploadByteCodeForClass(String className, byte[] byteCode) {
-        byteCodeMap.put(className, byteCode);
+        byteCodeStorage.put(className, byteCode);
+    }
+
+    /**
+     * Stores the bytes of a class being redefined or retransformed. When they differ from the bytes
+     * captured before, listeners are told right away that the class is stale, and get the event
+     * once the new definition is installed.
+     */
+    public static void uploadRedefinedByteCode(Class<?> redefinedClass, byte[] byteCode) {
+        String className = redefinedClass.getName();
+        RedefinitionScope scope = redefinitionScope.get();
+
+        // Without previous bytes only a redefinition, not a capture through the agent, is a change
+        ByteBuffer previousByteCode = byteCodeStorage.get(className);
+        boolean changed = (previousByteCode != null)
+                ? !previousByteCode.equals(ByteBuffer.wrap(byteCode))
+                : scope == null || scope.redefining;
+        if (!changed) {
+            if (previousByteCode == null) {
+                byteCodeStorage.put(className, byteCode);
+            }
+            return;
+        }
+
+        if (scope != null) {
+            scope.add(redefinedClass, toByteArray(previousByteCode), byteCode);
+        } else {
+            externalRedefinitions.put(redefinedClass, Boolean.TRUE);
+        }
+        byteCodeStorage.put(className, byteCode);
+
+        for (RedefinitionListener listener : redefinitionListeners) {
+            listener.onRedefinitionStarted(redefinedClass);
+        }
+    }
+
+    /**
+     * Starts collecting the classes changed by an agent call on this thread.
+     */
+    public static void beginRedefinitions(boolean redefining) {
+        redefinitionScope.set(new RedefinitionScope(redefining));
+    }
+
+    /**
+     * Ends the agent call started on this thread. Once the new definitions are installed, listeners get
+     * the events of the changed classes, along with those redefined by other tools meanwhile.
+     * Otherwise the bytes captured before the call are restored.
+     */
+    public static void completeRedefinitions(boolean installed) {
+        RedefinitionScope scope = redefinitionScope.get();
+        redefinitionScope.remove();
+        if (scope == null) {
+            return;
+        }
+
+        if (installed) {
+            for (PendingRedefinition redefinition : scope.redefinitions) {
+                publishRedefinition(redefinition.redefinedClass, ByteBuffer.wrap(redefinition.byteCode));
+            }
+            for (Class<?> redefinedClass : takeExternalRedefinitions()) {
+                publishRedefinition(redefinedClass, byteCodeStorage.get(redefinedClass.getName()));
+            }
+        } else {
+            // A class transformed several times gets back the bytes it had before the first time
+            for (int index = scope.redefinitions.size() - 1; index >= 0; index--) {
+                PendingRedefinition redefinition = scope.redefinitions.get(index);
+                String className = redefinition.redefinedClass.getName();
+                if (redefinition.previousByteCode != null) {
+                    byteCodeStorage.put(className, redefinition.previousByteCode);
+                } else {
+                    byteCodeStorage.remove(className);
+                }
+            }
+        }
+    }
+
+    public static void addRedefinitionListener(RedefinitionListener listener) {
+        redefinitionListeners.add(listener);
+    }
+
+    public static void removeRedefinitionListener(RedefinitionListener listener) {
+        redefinitionListeners.remove(listener);
+    }
+
+    public static ByteBuffer getByteCode(String className) {
+        return byteCodeStorage.get(className);
+    }
+
+    public static void setByteBudget(long byteBudget) {
+        byteCodeStorage.setByteBudget(byteBudget);
+    }
+
+    public static void pin(Class<?> clazz) {
+        byteCodeStorage.pin(clazz.getName());
+    }
+
+    public static void unpin(Class<?> clazz) {
+        byteCodeStorage.unpin(clazz.getName());
+    }
+
+    public static ByteCodeStatistics getStatistics() {
+        return byteCodeStorage.getStatistics();
+    }
+
+    public static void requestByteCode(Class<?>... classes) {
+        synchronized (pendingClasses) {
+            for (Class<?> clazz : classes) {
+                if (!byteCodeStorage.contains(clazz.getName())) {
+                    pendingClasses.add(clazz);
+                }
+            }
+        }
     }
 
     public static String getDecompilledByteCode(Class<?> clazz) {
+        return disassembler.disassemble(captureByteCode(clazz));
+    }
+
+    public static ClassFileView getClassFileView(Class<?> clazz) {
+        return new ClassFileView(captureByteCode(clazz));
+    }
+
+    public static ClassFileView getClassFileView(String className) {
+        ByteBuffer byteCode = byteCodeStorage.get(className);
+        return (byteCode != null) ? new ClassFileView(byteCode) : null;
+    }
+
+    public static String dumpByteCode(Class<?> clazz) {
+        String classFileName = getClassFileName(clazz);
+        dumpByteCodeAsync(clazz).join();
+        return "Bytecode was saved to file with name " + classFileName;
+    }
+
+    public static CompletableFuture<Path> dumpByteCodeAsync(Class<?> clazz) {
+        return classFileWriter.write(getClassFileName(clazz), captureByteCode(clazz));
+    }
+
+    public static List<CompletableFuture<Path>> dumpByteCodeAsync(Class<?>... classes) {
+        // Capture all classes with one retransformation, pinned so none is evicted before its write is queued
+        for (Class<?> clazz : classes) {
+            pin(clazz);
+        }
+
+        try {
+            requestByteCode(classes);
+
+            List<CompletableFuture<Path>> futures = new ArrayList<>(classes.length);
+            for (Class<?> clazz : classes) {
+                futures.add(dumpByteCodeAsync(clazz));
+            }
+            return futures;
+        } finally {
+            for (Class<?> clazz : classes) {
+                unpin(clazz);
+            }
+        }
+    }
+
+    public static int exportByteCode(Path archive) {
+        return exportByteCode(archive, className -> true, false);
+    }
+
+    public static int exportByteCode(Path archive, Predicate<String> classNameFilter, boolean stored) {
+        return new ClassArchiveWriter(stored).write(archive, byteCodeStorage.getByteCodes(classNameFilter));
+    }
+
+    private static ByteBuffer captureByteCode(Class<?> clazz) {
         if (!AgentAssembler.isAssembled()) {
             AgentAssembler.assembly();
         }
 
-        String classFileName = getClassFileName(clazz);
-        byte[] byteCode = byteCodeMap.get(clazz.getName());
-        writeByteCodeToFile(classFileName, byteCode);
-        return "Bytecode was saved to file with name " + classFileName;
+        // Pinned only while captured, the returned view stays valid after the class is evicted
+        pin(clazz);
+        try {
+            requestByteCode(clazz);
+            retransformPendingClasses();
+
+            ByteBuffer byteCode = byteCodeStorage.get(clazz.getName());
+            if (byteCode == null) {
+                throw new RuntimeException("Byte code of " + clazz.getName() + " was not captured");
+            }
+            return byteCode;
+        } finally {
+            unpin(clazz);
+        }
+    }
+
+    private static ByteCodeStorage<?> createByteCodeStorage() {
+        long byteBudget = Long.getLong(Constants.Properties.BYTE_CODE_BUDGET, Constants.Storage.DEFAULT_BYTE_CODE_BUDGET);
+
+        String storageMode = System.getProperty(Constants.Properties.BYTE_CODE_STORAGE, Constants.Storage.HEAP_STORAGE);
+        if (Constants.Storage.DIRECT_STORAGE.equals(storageMode)) {
+            return new DirectByteCodeStorage(byteBudget);
+        }
+        return new HeapByteCodeStorage(byteBudget);
     }
 
+    private static void retransformPendingClasses() {
+        Class<?>[] classes;
+        synchronized (pendingClasses) {
+            classes = pendingClasses.toArray(new Class<?>[0]);
+            pendingClasses.clear();
+        }
+
+        // Classes loaded after the agent was attached are captured on load, the rest in one batch
+        if (classes.length != 0) {
+            Agent.retransformClasses(classes);
+        }
+    }
+
+    private static void publishRedefinition(Class<?> redefinedClass, ByteBuffer byteCode) {
+        RedefinitionEvent event = new RedefinitionEvent(redefinedClass, byteCode);
+        for (RedefinitionListener listener : redefinitionListeners) {
+            listener.onRedefinition(event);
+        }
+    }
+
+    private static List<Class<?>> takeExternalRedefinitions() {
+        synchronized (externalRedefinitions) {
+            List<Class<?>> redefinedClasses = new ArrayList<>(externalRedefinitions.keySet());
+            externalRedefinitions.clear();
+            return redefinedClasses;
+        }
+    }
+
+    private static byte[] toByteArray(ByteBuffer byteCode) {
+        if (byteCode == null) {
+            return null;
+        }
+
+        byte[] byteArray = new byte[byteCode.remaining()];
+        byteCode.duplicate().get(byteArray);
+        return byteArray;
+    }
 
     private static String getClassFileName(Class<?> clazz) {
-        String classFileName = "classes" + File.separator + clazz.getName().replace(".", File.separator);
-        createClassFileNameDirectory(classFileName);
-        return classFileName + Constants.Suffix.CLASS_FILE_SUFFIX;
+        return "classes" + File.separator + clazz.getName().replace(".", File.separator)
+                + Constants.Suffix.CLASS_FILE_SUFFIX;
     }
 
-    private static void createClassFileNameDirectory(String classFileName) {
-        String path = System.getProperty(Constants.Properties.HOME_DIR) + File.separator
-                + classFileName.substring(0, classFileName.lastIndexOf(File.separator));
-        Path directoryPath = Paths.get(path);
+    private static class RedefinitionScope {
 
-        try {
-            Files.createDirectories(directoryPath).toFile();
-        } catch (IOException exception) {
-            throw new RuntimeException(exception);
+        private final boolean redefining;
+
+        private final List<PendingRedefinition> redefinitions = new ArrayList<>();
+
+        private RedefinitionScope(boolean redefining) {
+            this.redefining = redefining;
+        }
+
+        private void add(Class<?> redefinedClass, byte[] previousByteCode, byte[] byteCode) {
+            redefinitions.add(new PendingRedefinition(redefinedClass, previousByteCode, byteCode));
         }
     }
 
-    private static void writeByteCodeToFile(String fileName, byte[] byteCode) {
-        if (fileName != null && byteCode != null) {
-            try (FileOutputStream stream = new FileOutputStream(fileName)) {
-                stream.write(byteCode);
-            } catch (IOException exception) {
-                throw new RuntimeException(exception);
-            }
-        } else {
-            throw new RuntimeException("Empty file name or byte code");
+    private static class PendingRedefinition {
+
+        private final Class<?> redefinedClass;
+
+        private final byte[] previousByteCode;
+
+        private final byte[] byteCode;
+
+        private PendingRedefinition(Class<?> redefinedClass, byte[] previousByteCode, byte[] byteCode) {
+            this.redefinedClass = redefinedClass;
+            this.previousByteCode = previousByteCode;
+            this.byteCode = byteCode;
         }
     }
 }
@@ -0,0 +1,84 @@
+package com.kiselev.reflection.ui.bytecode.holder;
+
+/**
+ * Point-in-time occupancy of the captured bytecode storage.
+ */
+public class ByteCodeStatistics {
+
+    private final int classCount;
+
+    private final int pinnedClassCount;
+
+    private final long storedBytes;
+
+    private final long allocatedBytes;
+
+    private final long byteBudget;
+
+    private final long hitCount;
+
+    private final long missCount;
+
+    private final long evictionCount;
+
+    public ByteCodeStatistics(int classCount, int pinnedClassCount, long storedBytes, long allocatedBytes, long byteBudget,
+                              long hitCount, long missCount, long evictionCount) {
+        this.classCount = classCount;
+        this.pinnedClassCount = pinnedClassCount;
+        this.storedBytes = storedBytes;
+        this.allocatedBytes = allocatedBytes;
+        this.byteBudget = byteBudget;
+        this.hitCount = hitCount;
+        this.missCount = missCount;
+        this.evictionCount = evictionCount;
+    }
+
+    public int getClassCount() {
+        return classCount;
+    }
+
+    public int getPinnedClassCount() {
+        return pinnedClassCount;
+    }
+
+    public long getStoredBytes() {
+        return storedBytes;
+    }
+
+    /**
+     * Returns the memory held by the storage, at least the stored bytes.
+     */
+    public long getAllocatedBytes() {
+        return allocatedBytes;
+    }
+
+    public long getByteBudget() {
+        return byteBudget;
+    }
+
+    public long getHitCount() {
+        return hitCount;
+    }
+
+    public long getMissCount() {
+        return missCount;
+    }
+
+    public long getEvictionCount() {
+        return evictionCount;
+    }
+
+    @Override
+    public String toString() {
+        return "ByteCodeStatistics{" +
+                "classCount=" + classCount +
+                ", pinnedClassCount=" + pinnedClassCount +
+                ", storedBytes=" + storedBytes +
+                ", allocatedBytes=" + allocatedBytes +
+                ", byteBudget=" + byteBudget +
+                ", hitCount=" + hitCount +
+                ", missCount=" + missCount +
+                ", evictionCount=" + evictionCount +
+                '}';
+    }
+}
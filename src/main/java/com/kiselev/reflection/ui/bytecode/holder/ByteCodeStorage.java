@@ -0,0 +1,178 @@
+package com.kiselev.reflection.ui.bytecode.holder;
+
+import java.nio.ByteBuffer;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Predicate;
+
+/**
+ * Thread-safe store of captured class bytes limited by a byte budget.
+ * Least recently used classes are evicted first, pinned classes are never evicted.
+ * Subclasses decide where the bytes themselves are kept.
+ *
+ * @param <T> handle of the stored bytes kept in the index
+ */
+public abstract class ByteCodeStorage<T> {
+
+    // Only unpinned classes, so eviction never walks over pinned ones
+    private final Map<String, T> byteCodeMap = new LinkedHashMap<>(16, 0.75f, true);
+
+    private final Map<String, T> pinnedByteCodeMap = new HashMap<>();
+
+    // Pins are counted, every pin must be matched by an unpin
+    private final Map<String, Integer> pinCounts = new HashMap<>();
+
+    private long byteBudget;
+
+    private long storedBytes;
+
+    private long hits;
+
+    private long misses;
+
+    private long evictions;
+
+    protected ByteCodeStorage(long byteBudget) {
+        this.byteBudget = byteBudget;
+    }
+
+    public synchronized void put(String className, byte[] byteCode) {
+        Map<String, T> entries = pinCounts.containsKey(className) ? pinnedByteCodeMap : byteCodeMap;
+
+        // The previous entry is released first, so its space can be reused for the new one
+        T previousEntry = entries.remove(className);
+        if (previousEntry != null) {
+            storedBytes -= getLength(previousEntry);
+            release(previousEntry);
+        }
+
+        T entry = store(byteCode);
+        if (entry != null) {
+            entries.put(className, entry);
+            storedBytes += getLength(entry);
+            evict();
+        }
+    }
+
+    public synchronized ByteBuffer get(String className) {
+        T entry = byteCodeMap.get(className);
+        if (entry == null) {
+            entry = pinnedByteCodeMap.get(className);
+        }
+
+        if (entry != null) {
+            hits++;
+            return view(entry);
+        } else {
+            misses++;
+            return null;
+        }
+    }
+
+    /**
+     * Returns views of all stored classes accepted by the filter, without touching the LRU order.
+     */
+    public synchronized Map<String, ByteBuffer> getByteCodes(Predicate<String> classNameFilter) {
+        Map<String, ByteBuffer> byteCodes = new LinkedHashMap<>();
+        addByteCodes(pinnedByteCodeMap, classNameFilter, byteCodes);
+        addByteCodes(byteCodeMap, classNameFilter, byteCodes);
+        return byteCodes;
+    }
+
+    public synchronized void remove(String className) {
+        T entry = byteCodeMap.remove(className);
+        if (entry == null) {
+            entry = pinnedByteCodeMap.remove(className);
+        }
+
+        if (entry != null) {
+            storedBytes -= getLength(entry);
+            release(entry);
+        }
+    }
+
+    public synchronized boolean contains(String className) {
+        return byteCodeMap.containsKey(className) || pinnedByteCodeMap.containsKey(className);
+    }
+
+    public synchronized void pin(String className) {
+        if (pinCounts.merge(className, 1, Integer::sum) == 1) {
+            T entry = byteCodeMap.remove(className);
+            if (entry != null) {
+                pinnedByteCodeMap.put(className, entry);
+            }
+        }
+    }
+
+    public synchronized void unpin(String className) {
+        Integer pinCount = pinCounts.get(className);
+        if (pinCount == null) {
+            return;
+        }
+
+        if (pinCount > 1) {
+            pinCounts.put(className, pinCount - 1);
+        } else {
+            pinCounts.remove(className);
+
+            T entry = pinnedByteCodeMap.remove(className);
+            if (entry != null) {
+                byteCodeMap.put(className, entry);
+                evict();
+            }
+        }
+    }
+
+    public synchronized void setByteBudget(long byteBudget) {
+        this.byteBudget = byteBudget;
+        evict();
+    }
+
+    public synchronized ByteCodeStatistics getStatistics() {
+        return new ByteCodeStatistics(byteCodeMap.size() + pinnedByteCodeMap.size(), pinCounts.size(),
+                storedBytes, getAllocatedBytes(), byteBudget, hits, misses, evictions);
+    }
+
+    /**
+     * Copies the bytes into storage, returns null when they cannot be kept.
+     */
+    protected abstract T store(byte[] byteCode);
+
+    protected abstract int getLength(T entry);
+
+    /**
+     * Returns a read-only view of the stored bytes without copying them.
+     */
+    protected abstract ByteBuffer view(T entry);
+
+    protected abstract void release(T entry);
+
+    /**
+     * Returns the memory held for the stored bytes, including what is lost to fragmentation.
+     */
+    protected long getAllocatedBytes() {
+        return storedBytes;
+    }
+
+    private void addByteCodes(Map<String, T> entries, Predicate<String> classNameFilter, Map<String, ByteBuffer> byteCodes) {
+        for (Map.Entry<String, T> entry : entries.entrySet()) {
+            if (classNameFilter.test(entry.getKey())) {
+                byteCodes.put(entry.getKey(), view(entry.getValue()));
+            }
+        }
+    }
+
+    private void evict() {
+        Iterator<Map.Entry<String, T>> iterator = byteCodeMap.entrySet().iterator();
+        while (storedBytes > byteBudget && iterator.hasNext()) {
+            Map.Entry<String, T> entry = iterator.next();
+            iterator.remove();
+
+            storedBytes -= getLength(entry.getValue());
+            release(entry.getValue());
+            evictions++;
+        }
+    }
+}
@@ -0,0 +1,205 @@
+package com.kiselev.reflection.ui.bytecode.holder;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Appends captured class bytes into direct buffer segments outside of the heap.
+ * A segment that drops to half of its size is compacted: its classes are moved to the current segment
+ * and it is dropped, so the allocated memory stays below twice the stored bytes plus one segment.
+ * The segment size follows the byte budget.
+ * Views handed out earlier keep the memory of a dropped segment alive until they are collected.
+ */
+public class DirectByteCodeStorage extends ByteCodeStorage<DirectByteCodeStorage.Location> {
+
+    private static final int MIN_SEGMENT_SIZE = 1024 * 1024;
+
+    private static final int MAX_SEGMENT_SIZE = 16 * 1024 * 1024;
+
+    private static final int SEGMENTS_PER_BUDGET = 8;
+
+    // Classes larger than a quarter of a segment are not kept, so a filled segment is at least 3/4 used
+    private static final int CLASSES_PER_SEGMENT = 4;
+
+    private int segmentSize;
+
+    private final List<ByteBuffer> segments = new ArrayList<>();
+
+    private final List<Set<Location>> segmentEntries = new ArrayList<>();
+
+    private final List<Integer> liveBytes = new ArrayList<>();
+
+    private final Deque<Integer> freeSlots = new ArrayDeque<>();
+
+    private final Deque<Integer> sparseSlots = new ArrayDeque<>();
+
+    private int currentSlot = -1;
+
+    private int currentPosition;
+
+    private long allocatedBytes;
+
+    public DirectByteCodeStorage(long byteBudget) {
+        super(byteBudget);
+        this.segmentSize = getSegmentSize(byteBudget);
+    }
+
+    @Override
+    public synchronized void setByteBudget(long byteBudget) {
+        segmentSize = getSegmentSize(byteBudget);
+        super.setByteBudget(byteBudget);
+    }
+
+    @Override
+    protected Location store(byte[] byteCode) {
+        if (byteCode.length > segmentSize / CLASSES_PER_SEGMENT) {
+            return null;
+        }
+
+        ensureCapacity(byteCode.length);
+
+        Location location = new Location(byteCode.length);
+        ByteBuffer segment = segments.get(currentSlot).duplicate();
+        segment.position(currentPosition);
+        segment.put(byteCode);
+        place(location);
+        compactSparseSegments();
+
+        return location;
+    }
+
+    @Override
+    protected int getLength(Location entry) {
+        return entry.length;
+    }
+
+    @Override
+    protected ByteBuffer view(Location entry) {
+        ByteBuffer segment = segments.get(entry.slot).duplicate();
+        segment.position(entry.offset);
+        segment.limit(entry.offset + entry.length);
+
+        return segment.slice().asReadOnlyBuffer();
+    }
+
+    @Override
+    protected void release(Location entry) {
+        int slot = entry.slot;
+        segmentEntries.get(slot).remove(entry);
+        liveBytes.set(slot, liveBytes.get(slot) - entry.length);
+
+        if (slot != currentSlot) {
+            sparseSlots.push(slot);
+            compactSparseSegments();
+        }
+    }
+
+    @Override
+    protected long getAllocatedBytes() {
+        return allocatedBytes;
+    }
+
+    private void compactSparseSegments() {
+        // Nothing is released while compacting, so segments filled meanwhile are never sparse
+        while (!sparseSlots.isEmpty()) {
+            int slot = sparseSlots.pop();
+            ByteBuffer segment = segments.get(slot);
+            if (segment != null && slot != currentSlot && liveBytes.get(slot) <= segment.capacity() / 2) {
+                compact(slot);
+            }
+        }
+    }
+
+    private void compact(int slot) {
+        // The segment is only read, views of the moved classes stay valid
+        ByteBuffer source = segments.get(slot);
+        for (Location location : segmentEntries.get(slot)) {
+            ensureCapacity(location.length);
+
+            ByteBuffer byteCode = source.duplicate();
+            byteCode.position(location.offset);
+            byteCode.limit(location.offset + location.length);
+
+            ByteBuffer segment = segments.get(currentSlot).duplicate();
+            segment.position(currentPosition);
+            segment.put(byteCode);
+            place(location);
+        }
+
+        freeSegment(slot);
+    }
+
+    private void place(Location location) {
+        location.slot = currentSlot;
+        location.offset = currentPosition;
+
+        segmentEntries.get(currentSlot).add(location);
+        liveBytes.set(currentSlot, liveBytes.get(currentSlot) + location.length);
+        currentPosition += location.length;
+    }
+
+    private void ensureCapacity(int length) {
+        if (currentSlot != -1 && currentPosition + length <= segments.get(currentSlot).capacity()) {
+            return;
+        }
+
+        int slot;
+        if (!freeSlots.isEmpty()) {
+            slot = freeSlots.pop();
+        } else {
+            slot = segments.size();
+            segments.add(null);
+            segmentEntries.add(null);
+            liveBytes.add(0);
+        }
+
+        // Classes stored under a larger budget still take at most a quarter of a segment
+        int capacity = Math.max(segmentSize, length * CLASSES_PER_SEGMENT);
+        segments.set(slot, ByteBuffer.allocateDirect(capacity));
+        segmentEntries.set(slot, Collections.newSetFromMap(new IdentityHashMap<>()));
+        liveBytes.set(slot, 0);
+        allocatedBytes += capacity;
+
+        // Classes evicted from the previous segment while it was filled may have left it sparse
+        if (currentSlot != -1) {
+            sparseSlots.push(currentSlot);
+        }
+
+        currentSlot = slot;
+        currentPosition = 0;
+    }
+
+    private void freeSegment(int slot) {
+        allocatedBytes -= segments.get(slot).capacity();
+        segments.set(slot, null);
+        segmentEntries.set(slot, null);
+        freeSlots.push(slot);
+    }
+
+    private static int getSegmentSize(long byteBudget) {
+        long segmentSize = Long.highestOneBit(Math.max(byteBudget / SEGMENTS_PER_BUDGET, 1));
+        return (int) Math.min(Math.max(segmentSize, MIN_SEGMENT_SIZE), MAX_SEGMENT_SIZE);
+    }
+
+    /**
+     * Position of stored bytes, updated in place when the bytes are moved to another segment.
+     */
+    static final class Location {
+
+        private final int length;
+
+        private int slot;
+
+        private int offset;
+
+        private Location(int length) {
+            this.length = length;
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package com.kiselev.reflection.ui.bytecode.holder;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Keeps captured class bytes as the on-heap arrays handed over by the transformer.
+ */
+public class HeapByteCodeStorage extends ByteCodeStorage<byte[]> {
+
+    public HeapByteCodeStorage(long byteBudget) {
+        super(byteBudget);
+    }
+
+    @Override
+    protected byte[] store(byte[] byteCode) {
+        return byteCode;
+    }
+
+    @Override
+    protected int getLength(byte[] entry) {
+        return entry.length;
+    }
+
+    @Override
+    protected ByteBuffer view(byte[] entry) {
+        return ByteBuffer.wrap(entry).asReadOnlyBuffer();
+    }
+
+    @Override
+    protected void release(byte[] entry) {
+        // collected with the index entry
+    }
+}
@@ -0,0 +1,26 @@
+package com.kiselev.reflection.ui.bytecode.listener;
+
+import java.nio.ByteBuffer;
+
+public class RedefinitionEvent {
+
+    private final Class<?> redefinedClass;
+
+    private final ByteBuffer byteCode;
+
+    public RedefinitionEvent(Class<?> redefinedClass, ByteBuffer byteCode) {
+        this.redefinedClass = redefinedClass;
+        this.byteCode = byteCode;
+    }
+
+    public Class<?> getRedefinedClass() {
+        return redefinedClass;
+    }
+
+    /**
+     * Returns the installed bytes, or null when they were evicted before the event was published.
+     */
+    public ByteBuffer getByteCode() {
+        return (byteCode != null) ? byteCode.asReadOnlyBuffer() : null;
+    }
+}
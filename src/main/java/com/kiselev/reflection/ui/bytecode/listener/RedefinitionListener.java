@@ -0,0 +1,20 @@
+package com.kiselev.reflection.ui.bytecode.listener;
+
+/**
+ * Notified whenever the bytes of a loaded class change.
+ */
+public interface RedefinitionListener {
+
+    /**
+     * Called from the transformer as soon as it sees changed bytes, before the new definition is installed
+     * and whoever redefined the class. Meant for marking state as stale, it must not read the class.
+     */
+    default void onRedefinitionStarted(Class<?> redefinedClass) {
+    }
+
+    /**
+     * Called once the new definition is installed, right after the agent call that redefined the class
+     * or, for redefinitions made by other tools, with the next call of the agent.
+     */
+    void onRedefinition(RedefinitionEvent event);
+}
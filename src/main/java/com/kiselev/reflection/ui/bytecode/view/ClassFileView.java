@@ -0,0 +1,427 @@
+package com.kiselev.reflection.ui.bytecode.view;
+
+import com.kiselev.reflection.ui.bytecode.disassembler.ConstantPool;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Lightweight view over captured class bytes for partial queries.
+ * Only the constant pool offsets are indexed up front, members, attributes
+ * and UTF-8 strings are decoded when they are asked for.
+ */
+public class ClassFileView {
+
+    private final ConstantPool constantPool;
+
+    private final ByteBuffer byteCode;
+
+    private final int headerOffset;
+
+    private int methodsOffset = -1;
+
+    public ClassFileView(ByteBuffer byteCode) {
+        this.constantPool = new ConstantPool(byteCode);
+        this.byteCode = byteCode;
+        this.headerOffset = constantPool.getEndOffset();
+    }
+
+    public int getMajorVersion() {
+        return u2(byteCode.position() + 6);
+    }
+
+    public int getAccessFlags() {
+        return u2(headerOffset);
+    }
+
+    public String getClassName() {
+        return toJavaName(constantPool.getClassName(u2(headerOffset + 2)));
+    }
+
+    public String getSuperClassName() {
+        return toJavaName(constantPool.getClassName(u2(headerOffset + 4)));
+    }
+
+    public List<String> getInterfaceNames() {
+        int count = u2(headerOffset + 6);
+
+        List<String> interfaceNames = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            interfaceNames.add(toJavaName(constantPool.getClassName(u2(headerOffset + 8 + i * 2))));
+        }
+        return interfaceNames;
+    }
+
+    public Set<String> getReferencedClassNames() {
+        int thisClass = u2(headerOffset + 2);
+
+        Set<String> referencedClassNames = new LinkedHashSet<>();
+        for (int index = 1; index < constantPool.size(); index++) {
+            if (index != thisClass && constantPool.getTag(index) == ConstantPool.CLASS) {
+                String referencedClassName = getElementClassName(constantPool.getClassName(index));
+                if (referencedClassName != null) {
+                    referencedClassNames.add(toJavaName(referencedClassName));
+                }
+            }
+        }
+        return referencedClassNames;
+    }
+
+    public int getFieldCount() {
+        return u2(getFieldsOffset());
+    }
+
+    public int getMethodCount() {
+        return u2(getMethodsOffset());
+    }
+
+    /**
+     * Returns a read-only view of the Code bytes of the method, or null when the method
+     * is not declared or has no code.
+     */
+    public ByteBuffer getMethodCode(String name, String descriptor) {
+        int offset = getMethodsOffset();
+        int count = u2(offset);
+        offset += 2;
+
+        for (int i = 0; i < count; i++) {
+            int attributesCount = u2(offset + 6);
+            boolean matches = name.equals(constantPool.getUtf8(u2(offset + 2)))
+                    && descriptor.equals(constantPool.getUtf8(u2(offset + 4)));
+            offset += 8;
+
+            for (int j = 0; j < attributesCount; j++) {
+                int attributeLength = byteCode.getInt(offset + 2);
+                if (matches && "Code".equals(constantPool.getUtf8(u2(offset)))) {
+                    int codeLength = byteCode.getInt(offset + 10);
+                    return slice(offset + 14, codeLength);
+                }
+                offset += 6 + attributeLength;
+            }
+
+            if (matches) {
+                return null;
+            }
+        }
+
+        return null;
+    }
+
+    /**
+     * Returns a fingerprint of the class declaration: access flags, superclass, interfaces
+     * and the signature, annotation and nested class attributes.
+     */
+    public String getClassFingerprint() {
+        StringBuilder fingerprint = new StringBuilder()
+                .append(getAccessFlags()).append(' ').append(getSuperClassName()).append(' ').append(getInterfaceNames());
+        appendAttributes(skipMembers(getMethodsOffset()), fingerprint);
+        return fingerprint.toString();
+    }
+
+    /**
+     * Returns fingerprints of the declared fields keyed by name and descriptor.
+     * A fingerprint holds the access flags and the attributes the declaration is rendered from,
+     * with constant pool references resolved, so it only changes when the declaration does.
+     */
+    public Map<String, String> getFieldFingerprints() {
+        return getMemberFingerprints(getFieldsOffset());
+    }
+
+    /**
+     * Returns fingerprints of the declared methods and constructors keyed by name and descriptor.
+     */
+    public Map<String, String> getMethodFingerprints() {
+        return getMemberFingerprints(getMethodsOffset());
+    }
+
+    /**
+     * Returns the names of the annotation types the class, its members and their parameters
+     * are annotated with at runtime, nested annotations included.
+     */
+    public Set<String> getAnnotationTypeNames() {
+        Set<String> annotationTypeNames = new LinkedHashSet<>();
+
+        int offset = getFieldsOffset();
+        for (int members = 0; members < 2; members++) {
+            int count = u2(offset);
+            offset += 2;
+            for (int i = 0; i < count; i++) {
+                offset = collectAnnotationTypeNames(offset + 6, annotationTypeNames);
+            }
+        }
+        collectAnnotationTypeNames(offset, annotationTypeNames);
+
+        return annotationTypeNames;
+    }
+
+    private Map<String, String> getMemberFingerprints(int offset) {
+        int count = u2(offset);
+        offset += 2;
+
+        Map<String, String> fingerprints = new HashMap<>(count * 2);
+        for (int i = 0; i < count; i++) {
+            String key = constantPool.getUtf8(u2(offset + 2)) + constantPool.getUtf8(u2(offset + 4));
+
+            StringBuilder fingerprint = new StringBuilder().append(u2(offset));
+            offset = appendAttributes(offset + 6, fingerprint);
+            fingerprints.put(key, fingerprint.toString());
+        }
+        return fingerprints;
+    }
+
+    private int appendAttributes(int offset, StringBuilder fingerprint) {
+        int count = u2(offset);
+        offset += 2;
+
+        for (int i = 0; i < count; i++) {
+            String name = constantPool.getUtf8(u2(offset));
+            int start = offset + 6;
+            offset = start + byteCode.getInt(offset + 2);
+
+            switch (name) {
+                case "Signature":
+                    fingerprint.append(" Signature ").append(constantPool.getUtf8(u2(start)));
+                    break;
+                case "Exceptions":
+                    fingerprint.append(" Exceptions");
+                    int exceptionCount = u2(start);
+                    for (int j = 0; j < exceptionCount; j++) {
+                        fingerprint.append(' ').append(constantPool.getClassName(u2(start + 2 + j * 2)));
+                    }
+                    break;
+                case "RuntimeVisibleAnnotations":
+                    fingerprint.append(" Annotations");
+                    appendAnnotations(start, fingerprint);
+                    break;
+                case "RuntimeVisibleParameterAnnotations":
+                    fingerprint.append(" ParameterAnnotations");
+                    int parameterCount = byteCode.get(start) & 0xFF;
+                    int parameterOffset = start + 1;
+                    for (int j = 0; j < parameterCount; j++) {
+                        fingerprint.append(" (");
+                        parameterOffset = appendAnnotations(parameterOffset, fingerprint);
+                        fingerprint.append(')');
+                    }
+                    break;
+                case "AnnotationDefault":
+                    fingerprint.append(" AnnotationDefault ");
+                    appendElementValue(start, fingerprint);
+                    break;
+                case "MethodParameters":
+                    fingerprint.append(" MethodParameters");
+                    int methodParameterCount = byteCode.get(start) & 0xFF;
+                    for (int j = 0; j < methodParameterCount; j++) {
+                        int nameIndex = u2(start + 1 + j * 4);
+                        fingerprint.append(' ').append(u2(start + 3 + j * 4)).append(':')
+                                .append(nameIndex != 0 ? constantPool.getUtf8(nameIndex) : "");
+                    }
+                    break;
+                case "InnerClasses":
+                    fingerprint.append(" InnerClasses");
+                    int innerClassCount = u2(start);
+                    for (int j = 0; j < innerClassCount; j++) {
+                        int entry = start + 2 + j * 8;
+                        int nameIndex = u2(entry + 4);
+                        fingerprint.append(' ').append(constantPool.getClassName(u2(entry)))
+                                .append(':').append(constantPool.getClassName(u2(entry + 2)))
+                                .append(':').append(nameIndex != 0 ? constantPool.getUtf8(nameIndex) : "")
+                                .append(':').append(u2(entry + 6));
+                    }
+                    break;
+                default:
+                    break;
+            }
+        }
+
+        return offset;
+    }
+
+    private int collectAnnotationTypeNames(int offset, Set<String> annotationTypeNames) {
+        int count = u2(offset);
+        offset += 2;
+
+        for (int i = 0; i < count; i++) {
+            String name = constantPool.getUtf8(u2(offset));
+            int start = offset + 6;
+            offset = start + byteCode.getInt(offset + 2);
+
+            switch (name) {
+                case "RuntimeVisibleAnnotations":
+                    skipAnnotations(start, annotationTypeNames);
+                    break;
+                case "RuntimeVisibleParameterAnnotations":
+                    int parameterCount = byteCode.get(start) & 0xFF;
+                    int parameterOffset = start + 1;
+                    for (int j = 0; j < parameterCount; j++) {
+                        parameterOffset = skipAnnotations(parameterOffset, annotationTypeNames);
+                    }
+                    break;
+                case "AnnotationDefault":
+                    skipElementValue(start, annotationTypeNames);
+                    break;
+                default:
+                    break;
+            }
+        }
+
+        return offset;
+    }
+
+    private int skipAnnotations(int offset, Set<String> annotationTypeNames) {
+        int count = u2(offset);
+        offset += 2;
+
+        for (int i = 0; i < count; i++) {
+            offset = skipAnnotation(offset, annotationTypeNames);
+        }
+        return offset;
+    }
+
+    private int skipAnnotation(int offset, Set<String> annotationTypeNames) {
+        String annotationType = constantPool.getUtf8(u2(offset));
+        annotationTypeNames.add(toJavaName(annotationType.substring(1, annotationType.length() - 1)));
+
+        int pairCount = u2(offset + 2);
+        offset += 4;
+        for (int i = 0; i < pairCount; i++) {
+            offset = skipElementValue(offset + 2, annotationTypeNames);
+        }
+        return offset;
+    }
+
+    private int skipElementValue(int offset, Set<String> annotationTypeNames) {
+        switch (byteCode.get(offset) & 0xFF) {
+            case 'e':
+                return offset + 5;
+            case '@':
+                return skipAnnotation(offset + 1, annotationTypeNames);
+            case '[':
+                int count = u2(offset + 1);
+                offset += 3;
+                for (int i = 0; i < count; i++) {
+                    offset = skipElementValue(offset, annotationTypeNames);
+                }
+                return offset;
+            default:
+                return offset + 3;
+        }
+    }
+
+    private int appendAnnotations(int offset, StringBuilder fingerprint) {
+        int count = u2(offset);
+        offset += 2;
+
+        for (int i = 0; i < count; i++) {
+            fingerprint.append(' ');
+            offset = appendAnnotation(offset, fingerprint);
+        }
+        return offset;
+    }
+
+    private int appendAnnotation(int offset, StringBuilder fingerprint) {
+        fingerprint.append('@').append(constantPool.getUtf8(u2(offset))).append('(');
+
+        int pairCount = u2(offset + 2);
+        offset += 4;
+        for (int i = 0; i < pairCount; i++) {
+            fingerprint.append(constantPool.getUtf8(u2(offset))).append('=');
+            offset = appendElementValue(offset + 2, fingerprint);
+            fingerprint.append(',');
+        }
+
+        fingerprint.append(')');
+        return offset;
+    }
+
+    private int appendElementValue(int offset, StringBuilder fingerprint) {
+        char tag = (char) (byteCode.get(offset) & 0xFF);
+        fingerprint.append(tag);
+
+        switch (tag) {
+            case 'e':
+                fingerprint.append(constantPool.getUtf8(u2(offset + 1))).append('.').append(constantPool.getUtf8(u2(offset + 3)));
+                return offset + 5;
+            case 'c':
+                fingerprint.append(constantPool.getUtf8(u2(offset + 1)));
+                return offset + 3;
+            case '@':
+                return appendAnnotation(offset + 1, fingerprint);
+            case '[':
+                int count = u2(offset + 1);
+                offset += 3;
+                fingerprint.append('{');
+                for (int i = 0; i < count; i++) {
+                    offset = appendElementValue(offset, fingerprint);
+                    fingerprint.append(',');
+                }
+                fingerprint.append('}');
+                return offset;
+            case 's':
+                // Prefixed with the length, so separators inside the string are not ambiguous
+                String value = constantPool.getUtf8(u2(offset + 1));
+                fingerprint.append(value.length()).append(':').append(value);
+                return offset + 3;
+            default:
+                constantPool.appendValue(u2(offset + 1), fingerprint);
+                return offset + 3;
+        }
+    }
+
+    private int getFieldsOffset() {
+        return headerOffset + 8 + u2(headerOffset + 6) * 2;
+    }
+
+    private int getMethodsOffset() {
+        if (methodsOffset == -1) {
+            methodsOffset = skipMembers(getFieldsOffset());
+        }
+        return methodsOffset;
+    }
+
+    private int skipMembers(int offset) {
+        int count = u2(offset);
+        offset += 2;
+
+        for (int i = 0; i < count; i++) {
+            int attributesCount = u2(offset + 6);
+            offset += 8;
+            for (int j = 0; j < attributesCount; j++) {
+                offset += 6 + byteCode.getInt(offset + 2);
+            }
+        }
+
+        return offset;
+    }
+
+    private ByteBuffer slice(int offset, int length) {
+        ByteBuffer slice = byteCode.duplicate();
+        slice.position(offset);
+        slice.limit(offset + length);
+        return slice.slice().asReadOnlyBuffer();
+    }
+
+    private String getElementClassName(String className) {
+        if (className.charAt(0) != '[') {
+            return className;
+        }
+
+        // Array class entries are descriptors, primitive arrays reference no class
+        int elementIndex = className.lastIndexOf('[') + 1;
+        return (className.charAt(elementIndex) == 'L')
+                ? className.substring(elementIndex + 1, className.length() - 1)
+                : null;
+    }
+
+    private String toJavaName(String internalName) {
+        return (internalName != null) ? internalName.replace('/', '.') : null;
+    }
+
+    private int u2(int offset) {
+        return byteCode.getShort(offset) & 0xFFFF;
+    }
+}
@@ -0,0 +1,80 @@
+package com.kiselev.reflection.ui.bytecode.writer;
+
+import com.kiselev.reflection.ui.bytecode.assembly.build.constant.Constants;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.jar.Attributes;
+import java.util.jar.JarEntry;
+import java.util.jar.JarOutputStream;
+import java.util.jar.Manifest;
+import java.util.zip.CRC32;
+import java.util.zip.ZipEntry;
+
+/**
+ * Streams class files into a single jar in one sequential pass.
+ * Stored entries get their size and CRC computed up front, so no data descriptors are written.
+ */
+public class ClassArchiveWriter {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final boolean stored;
+
+    public ClassArchiveWriter(boolean stored) {
+        this.stored = stored;
+    }
+
+    public int write(Path archive, Map<String, ByteBuffer> byteCodes) {
+        byte[] buffer = new byte[BUFFER_SIZE];
+        CRC32 crc = new CRC32();
+
+        try (JarOutputStream stream = new JarOutputStream(
+                new BufferedOutputStream(Files.newOutputStream(archive), BUFFER_SIZE), createManifest())) {
+            for (Map.Entry<String, ByteBuffer> byteCode : byteCodes.entrySet()) {
+                JarEntry entry = new JarEntry(byteCode.getKey().replace('.', '/') + Constants.Suffix.CLASS_FILE_SUFFIX);
+                ByteBuffer bytes = byteCode.getValue();
+
+                if (stored) {
+                    crc.reset();
+                    crc.update(bytes.duplicate());
+
+                    entry.setMethod(ZipEntry.STORED);
+                    entry.setSize(bytes.remaining());
+                    entry.setCompressedSize(bytes.remaining());
+                    entry.setCrc(crc.getValue());
+                }
+
+                stream.putNextEntry(entry);
+                writeBytes(stream, bytes.duplicate(), buffer);
+                stream.closeEntry();
+            }
+        } catch (IOException exception) {
+            throw new RuntimeException(exception);
+        }
+
+        return byteCodes.size();
+    }
+
+    private void writeBytes(JarOutputStream stream, ByteBuffer bytes, byte[] buffer) throws IOException {
+        if (bytes.hasArray()) {
+            stream.write(bytes.array(), bytes.arrayOffset() + bytes.position(), bytes.remaining());
+        } else {
+            while (bytes.hasRemaining()) {
+                int length = Math.min(buffer.length, bytes.remaining());
+                bytes.get(buffer, 0, length);
+                stream.write(buffer, 0, length);
+            }
+        }
+    }
+
+    private Manifest createManifest() {
+        Manifest manifest = new Manifest();
+        manifest.getMainAttributes().put(Attributes.Name.MANIFEST_VERSION, Constants.Manifest.MANIFEST_VERSION);
+        return manifest;
+    }
+}
@@ -0,0 +1,138 @@
+package com.kiselev.reflection.ui.bytecode.writer;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+
+/**
+ * Writes class files on a background thread, draining queued requests in batches.
+ * A class queued more than once in a batch is written once with its latest bytes,
+ * directories are created once per package and futures are completed right after their file is written.
+ */
+public class ClassFileWriter {
+
+    private static final int BATCH_SIZE = 256;
+
+    private final BlockingQueue<WriteRequest> requests = new LinkedBlockingQueue<>();
+
+    // Accessed only by the writer thread
+    private final Set<Path> createdDirectories = new HashSet<>();
+
+    private final Path rootDirectory;
+
+    private Thread writerThread;
+
+    public ClassFileWriter(Path rootDirectory) {
+        this.rootDirectory = rootDirectory;
+    }
+
+    public CompletableFuture<Path> write(String fileName, ByteBuffer byteCode) {
+        if (fileName == null || byteCode == null) {
+            throw new RuntimeException("Empty file name or byte code");
+        }
+
+        WriteRequest request = new WriteRequest(rootDirectory.resolve(fileName), byteCode.duplicate());
+        startWriterThread();
+        requests.add(request);
+        return request.future;
+    }
+
+    private synchronized void startWriterThread() {
+        if (writerThread == null) {
+            writerThread = new Thread(this::writeRequests, "reflection-ui-class-file-writer");
+            writerThread.setDaemon(true);
+            writerThread.start();
+        }
+    }
+
+    private synchronized void stopWriterThread() {
+        writerThread = null;
+
+        // Requests queued while the thread was stopping still need a writer
+        if (!requests.isEmpty()) {
+            startWriterThread();
+        }
+    }
+
+    private void writeRequests() {
+        List<WriteRequest> batch = new ArrayList<>(BATCH_SIZE);
+        try {
+            while (true) {
+                batch.add(requests.take());
+                requests.drainTo(batch, BATCH_SIZE - 1);
+
+                writeBatch(batch);
+                batch.clear();
+            }
+        } catch (InterruptedException exception) {
+            Thread.currentThread().interrupt();
+        } finally {
+            stopWriterThread();
+        }
+    }
+
+    private void writeBatch(List<WriteRequest> batch) {
+        Map<Path, List<WriteRequest>> requestsByPath = new LinkedHashMap<>();
+        for (WriteRequest request : batch) {
+            requestsByPath.computeIfAbsent(request.path, path -> new ArrayList<>()).add(request);
+        }
+
+        for (List<WriteRequest> pathRequests : requestsByPath.values()) {
+            // Any failure, errors included, fails only the requests of its own file and keeps the thread alive
+            try {
+                writeRequest(pathRequests.get(pathRequests.size() - 1));
+                for (WriteRequest request : pathRequests) {
+                    request.future.complete(request.path);
+                }
+            } catch (Throwable throwable) {
+                for (WriteRequest request : pathRequests) {
+                    request.future.completeExceptionally(throwable);
+                }
+            }
+        }
+    }
+
+    private void writeRequest(WriteRequest request) throws IOException {
+        Path directory = request.path.getParent();
+        if (directory != null && createdDirectories.add(directory)) {
+            Files.createDirectories(directory);
+        }
+
+        try (FileChannel channel = FileChannel.open(request.path,
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            while (request.byteCode.hasRemaining()) {
+                channel.write(request.byteCode);
+            }
+        } catch (IOException exception) {
+            // The directory may have been removed behind our back, create it again next time
+            createdDirectories.remove(directory);
+            throw exception;
+        }
+    }
+
+    private static class WriteRequest {
+
+        private final Path path;
+
+        private final ByteBuffer byteCode;
+
+        private final CompletableFuture<Path> future = new CompletableFuture<>();
+
+        private WriteRequest(Path path, ByteBuffer byteCode) {
+            this.path = path;
+            this.byteCode = byteCode;
+        }
+    }
+}
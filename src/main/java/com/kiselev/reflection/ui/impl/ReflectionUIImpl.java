@@ -1,91 +1,200 @@
 package com.kiselev.reflection.ui.impl;
 
 import com.kiselev.reflection.ui.bytecode.holder.ByteCodeHolder;
-import com.kiselev.reflection.ui.impl.annotation.AnnotationUtils;
 import com.kiselev.reflection.ui.api.ReflectionUI;
-import com.kiselev.reflection.ui.impl.classes.ClassUtils;
-import com.kiselev.reflection.ui.impl.constructor.ConstructorUtils;
-import com.kiselev.reflection.ui.impl.field.FieldUtils;
-import com.kiselev.reflection.ui.impl.generic.GenericsUtils;
-import com.kiselev.reflection.ui.impl.indent.IndentUtils;
-import com.kiselev.reflection.ui.impl.inheritance.InheritancesUtils;
-import com.kiselev.reflection.ui.impl.method.MethodUtils;
-import com.kiselev.reflection.ui.impl.modifier.ModifiersUtils;
-import com.kiselev.reflection.ui.impl.packages.PackageUtils;
-import com.kiselev.reflection.ui.impl.type.TypeUtils;
-import com.kiselev.reflection.ui.impl.name.NameUtils;
-
-import java.lang.instrument.Instrumentation;
+import com.kiselev.reflection.ui.api.flow.Publisher;
+import com.kiselev.reflection.ui.api.model.ClassModel;
+import com.kiselev.reflection.ui.api.model.ModelRenderer;
+import com.kiselev.reflection.ui.api.options.RenderOptions;
+import com.kiselev.reflection.ui.api.view.ClassView;
+import com.kiselev.reflection.ui.impl.cache.RenderCache;
+import com.kiselev.reflection.ui.impl.classes.ClassRenderTask;
+import com.kiselev.reflection.ui.impl.context.RenderContext;
+import com.kiselev.reflection.ui.impl.flow.ClassFragmentPublisher;
+import com.kiselev.reflection.ui.impl.metrics.RenderMetrics;
+import com.kiselev.reflection.ui.impl.metrics.RenderStage;
+import com.kiselev.reflection.ui.impl.model.ClassModelUtils;
+import com.kiselev.reflection.ui.impl.output.Output;
+import com.kiselev.reflection.ui.impl.snapshot.ClassSnapshot;
+import com.kiselev.reflection.ui.impl.view.LazyClassView;
+
 import java.util.ArrayList;
-import java.util.Arrays;
+import java.util.Collection;
 import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
 
 public class ReflectionUIImpl implements ReflectionUI {
 
-    public String parseClass(Class<?> clazz) {
-        String parsedClass = "";
+    private static final ClassModelUtils classModelUtils = new ClassModelUtils();
 
-        String indent = new IndentUtils().getIndent(clazz);
+    private final ForkJoinPool pool;
 
-        String classSignature = getClassSignature(clazz);
+    private final int parallelThreshold;
 
-        String classContent = getClassContent(clazz);
+    public ReflectionUIImpl() {
+        this(ForkJoinPool.commonPool());
+    }
 
-        parsedClass += classSignature + "{\n\n" + classContent + indent + "}";
+    public ReflectionUIImpl(ForkJoinPool pool) {
+        this(pool, Integer.MAX_VALUE);
+    }
 
-        return parsedClass;
+    /**
+     * @param parallelThreshold number of declared fields or methods from which
+     *                          they are rendered in chunks on the pool
+     */
+    public ReflectionUIImpl(ForkJoinPool pool, int parallelThreshold) {
+        this.pool = pool;
+        this.parallelThreshold = parallelThreshold;
     }
 
-    private String getClassSignature(Class<?> clazz) {
-        String classSignature = "";
+    public ForkJoinPool getPool() {
+        return pool;
+    }
 
-        String packageName = new PackageUtils().getPackage(clazz);
+    public int getParallelThreshold() {
+        return parallelThreshold;
+    }
 
-        String annotations = new AnnotationUtils().getAnnotations(clazz);
+    public String parseClass(Class<?> clazz) {
+        String parsedClass = RenderCache.getRenderedClass(clazz, this::renderClass);
 
-        String indent = new IndentUtils().getIndent(clazz);
+        RenderMetrics.addProducedCharacters(parsedClass.length());
+        return parsedClass;
+    }
 
-        String modifiers = new ModifiersUtils().getModifiers(clazz.getModifiers());
+    @Override
+    public void parseClass(Class<?> clazz, Appendable appendable) {
+        Output output = new Output(appendable);
+
+        String cachedClass = RenderCache.getCachedClass(clazz);
+        if (cachedClass != null) {
+            output.append(cachedClass);
+        } else {
+            appendClass(clazz, new RenderContext(this, clazz, output));
+        }
 
-        String type = new TypeUtils().getType(clazz);
+        RenderMetrics.addProducedCharacters(output.getLength());
+    }
 
-        String typeName = new NameUtils().getTypeName(clazz);
+    @Override
+    public String parseClass(Class<?> clazz, RenderOptions options) {
+        if (options.isDefault()) {
+            return parseClass(clazz);
+        }
 
-        String generics = new GenericsUtils().getGenerics(clazz);
+        StringBuilder parsedClass = new StringBuilder();
+        appendClass(clazz, new RenderContext(this, clazz, new Output(parsedClass), options));
 
-        String inheritances = new InheritancesUtils().getInheritances(clazz);
+        RenderMetrics.addProducedCharacters(parsedClass.length());
+        return parsedClass.toString();
+    }
 
-        classSignature += packageName + annotations + indent + modifiers + type + typeName + generics + inheritances;
+    @Override
+    public <T> T parseClass(Class<?> clazz, ModelRenderer<T> renderer) {
+        return renderer.render(getClassModel(clazz));
+    }
 
-        return classSignature;
+    @Override
+    public Publisher<CharSequence> publishClass(Class<?> clazz) {
+        return new ClassFragmentPublisher(this, clazz);
     }
 
-    private String getClassContent(Class<?> clazz) {
-        String classContent = "";
+    @Override
+    public ClassModel getClassModel(Class<?> clazz) {
+        return classModelUtils.createClassModel(clazz, this);
+    }
 
-        String fields = new FieldUtils().getFields(clazz);
+    @Override
+    public ClassView getClassView(Class<?> clazz) {
+        return new LazyClassView(this, clazz);
+    }
 
-        String constructors = new ConstructorUtils().getConstructors(clazz);
+    @Override
+    public List<String> parseClasses(Collection<Class<?>> classes) {
+        List<ForkJoinTask<String>> tasks = new ArrayList<>(classes.size());
+        for (Class<?> clazz : classes) {
+            tasks.add(pool.submit(new ClassRenderTask(this, clazz)));
+        }
 
-        String methods = new MethodUtils().getMethods(clazz);
+        List<String> parsedClasses = new ArrayList<>(tasks.size());
+        for (ForkJoinTask<String> task : tasks) {
+            String parsedClass = task.join();
 
-        String classes = new ClassUtils().getClasses(clazz);
+            RenderMetrics.addProducedCharacters(parsedClass.length());
+            parsedClasses.add(parsedClass);
+        }
 
-        classContent += composeContent(Arrays.asList(fields, constructors, methods, classes)); //fields + constructors + methods + classes;
+        return parsedClasses;
+    }
 
-        return classContent;
+    private String renderClass(Class<?> clazz) {
+        StringBuilder parsedClass = new StringBuilder();
+        appendClass(clazz, new RenderContext(this, clazz, new Output(parsedClass)));
+        return parsedClass.toString();
     }
 
-    private String composeContent(List<String> contents) {
-        List<String> nonEmptyContents = new ArrayList<>();
+    public void appendClass(Class<?> clazz, RenderContext context) {
+        long start = RenderMetrics.start();
+
+        // Layouts of redefined classes are kept for full renders only
+        if (context.getOptions().isDefault() && RenderCache.isRedefined(clazz)) {
+            context.getRedefinitionUtils().appendRedefinedClass(clazz, context);
+        } else {
+            appendClassSignature(clazz, context);
 
-        for (String content : contents) {
-            if (!content.isEmpty()) {
-                nonEmptyContents.add(content);
-            }
+            context.getOutput().append("{\n\n");
+
+            appendClassContent(clazz, context);
+
+            context.getOutput().append(context.getClassIndent()).append('}');
         }
 
-        return String.join("\n", nonEmptyContents);
+        RenderMetrics.addRenderedClass();
+        RenderMetrics.record(RenderStage.CLASS, start);
+    }
+
+    public void appendClassSignature(Class<?> clazz, RenderContext context) {
+        Output output = context.getOutput();
+        long start = RenderMetrics.start();
+
+        ClassSnapshot snapshot = ClassSnapshot.getSnapshot(clazz);
+
+        context.getPackageUtils().appendPackage(snapshot, context);
+
+        context.getAnnotationUtils().appendAnnotations(snapshot.getAnnotations(), context.getClassIndent(), context);
+
+        output.append(context.getClassIndent());
+
+        context.getModifiersUtils().appendModifiers(snapshot.getModifiers(), context);
+
+        output.append(context.getTypeUtils().getType(snapshot));
+
+        output.append(context.getNameUtils().getTypeName(clazz));
+
+        context.getGenericsUtils().appendGenerics(snapshot, context);
+
+        context.getInheritancesUtils().appendInheritances(snapshot, context);
+
+        RenderMetrics.record(RenderStage.SIGNATURE, start);
+    }
+
+    private void appendClassContent(Class<?> clazz, RenderContext context) {
+        long start = RenderMetrics.start();
+
+        boolean hasContent = context.getFieldUtils().appendFields(clazz, false, context);
+
+        hasContent |= context.getConstructorUtils().appendConstructors(clazz, hasContent, context);
+
+        hasContent |= context.getMethodUtils().appendMethods(clazz, hasContent, context);
+
+        RenderMetrics.record(RenderStage.MEMBERS, start);
+
+        // Includes the time spent rendering the nested classes themselves
+        long nestedClassesStart = RenderMetrics.start();
+        context.getClassUtils().appendClasses(clazz, hasContent, context);
+        RenderMetrics.record(RenderStage.NESTED_CLASSES, nestedClassesStart);
     }
 
     @Override
@@ -1,76 +1,186 @@
 package com.kiselev.reflection.ui.impl.annotation;
 
-import com.kiselev.reflection.ui.impl.indent.IndentUtils;
-import com.kiselev.reflection.ui.impl.value.ValueUtils;
+import com.kiselev.reflection.ui.impl.context.RenderContext;
+import com.kiselev.reflection.ui.impl.metrics.RenderMetrics;
+import com.kiselev.reflection.ui.impl.metrics.RenderStage;
+import com.kiselev.reflection.ui.impl.output.Output;
 
 import java.lang.annotation.Annotation;
-import java.lang.reflect.AnnotatedElement;
+import java.lang.annotation.AnnotationTypeMismatchException;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
 import java.lang.reflect.Method;
-import java.util.ArrayList;
-import java.util.HashMap;
-import java.util.List;
-import java.util.Map;
+import java.lang.reflect.Modifier;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Objects;
 
 public class AnnotationUtils {
 
-    public String getAnnotations(AnnotatedElement annotatedElement) {
-        String annotations = "";
+    // Members of every annotation type are looked up once, without pinning its class loader
+    private static final ClassValue<AnnotationMember[]> annotationMembers = new ClassValue<AnnotationMember[]>() {
+        @Override
+        protected AnnotationMember[] computeValue(Class<?> annotationType) {
+            return createAnnotationMembers(annotationType);
+        }
+    };
+
+    public void appendAnnotations(Annotation[] annotations, String indent, RenderContext context) {
+        if (!context.getOptions().hasAnnotations()) {
+            return;
+        }
 
-        String indent = new IndentUtils().getIndent(annotatedElement);
+        Output output = context.getOutput();
+        long start = RenderMetrics.start();
 
-        for (Annotation annotation : annotatedElement.getAnnotations()) {
-            annotations += indent + getAnnotation(annotation) + "\n";
+        for (Annotation annotation : annotations) {
+            output.append(indent);
+            appendAnnotation(annotation, context);
+            output.append('\n');
         }
 
-        return annotations;
+        RenderMetrics.record(RenderStage.ANNOTATIONS, start);
     }
 
-    public String getAnnotation(Annotation annotation) {
-        String annotationSignature = "";
+    public void appendAnnotation(Annotation annotation, RenderContext context) {
+        context.getOutput().append('@').append(annotation.annotationType().getSimpleName());
 
-        String annotationSign = "@";
+        appendAnnotationArguments(annotation, context);
+    }
 
-        String annotationName = annotation.annotationType().getSimpleName();
+    private void appendAnnotationArguments(Annotation annotation, RenderContext context) {
+        Output output = context.getOutput();
+
+        boolean first = true;
+        for (AnnotationMember member : annotationMembers.get(annotation.annotationType())) {
+            Object value;
+            try {
+                value = member.getValue(annotation);
+            } catch (TypeNotPresentException | EnumConstantNotPresentException | AnnotationTypeMismatchException exception) {
+                // A member that cannot be resolved does not make the whole class unrenderable
+                value = new UnresolvedValue(exception);
+            }
 
-        String annotationArguments = getAnnotationArguments(annotation);
+            if (member.isDefaultValue(value)) {
+                continue;
+            }
 
-        annotationSignature += annotationSign + annotationName + annotationArguments;
+            output.append(first ? "(" : ", ");
+            output.append(member.getName()).append(" = ");
+            if (value instanceof UnresolvedValue) {
+                output.append(value.toString());
+            } else {
+                context.getValueUtils().appendValue(value, context);
+            }
+            first = false;
+        }
 
-        return annotationSignature;
+        if (!first) {
+            output.append(')');
+        }
     }
 
-    private String getAnnotationArguments(Annotation annotation) {
-        String annotationArguments = "";
+    private static AnnotationMember[] createAnnotationMembers(Class<?> annotationType) {
+        Method[] methods = annotationType.getDeclaredMethods();
+        Arrays.sort(methods, Comparator.comparing(Method::getName));
 
-        List<String> arguments = new ArrayList<>();
+        MethodHandles.Lookup lookup = MethodHandles.lookup();
+        MethodType memberType = MethodType.methodType(Object.class, Annotation.class);
 
-        for (Map.Entry<String, Object> entry : getAnnotationMemberTypes(annotation).entrySet()) {
-            arguments.add(entry.getKey() + " = " + entry.getValue());
-        }
+        AnnotationMember[] members = new AnnotationMember[methods.length];
+        int count = 0;
+        for (Method method : methods) {
+            if (Modifier.isStatic(method.getModifiers()) || method.isSynthetic() || method.getParameterCount() != 0) {
+                continue;
+            }
 
-        if (!arguments.isEmpty()) {
-            annotationArguments += "(" + String.join(", ", arguments) + ")";
+            if (!isAccessible(method)) {
+                // Annotation types from packages not opened to us are rendered without arguments
+                return new AnnotationMember[0];
+            }
+
+            try {
+                MethodHandle handle = lookup.unreflect(method).asType(memberType);
+                members[count++] = new AnnotationMember(method.getName(), handle, getDefaultValue(method));
+            } catch (IllegalAccessException exception) {
+                throw new RuntimeException(exception);
+            }
         }
 
-        return annotationArguments;
+        return Arrays.copyOf(members, count);
     }
 
-    private Map<String, Object> getAnnotationMemberTypes(Annotation annotation) {
-        Map<String, Object> map = new HashMap<>();
+    private static Object getDefaultValue(Method method) {
+        try {
+            return method.getDefaultValue();
+        } catch (TypeNotPresentException | EnumConstantNotPresentException | AnnotationTypeMismatchException exception) {
+            // Members with an unresolvable default are always rendered
+            return null;
+        }
+    }
 
+    private static boolean isAccessible(Method method) {
         try {
-            Class<? extends Annotation> annotationTypeClass = annotation.annotationType();
-            Method[] methods = annotationTypeClass.getDeclaredMethods();
+            method.setAccessible(true);
+            return true;
+        } catch (RuntimeException exception) {
+            // SecurityException or, since Java 9, InaccessibleObjectException
+            return false;
+        }
+    }
+
+    private static class UnresolvedValue {
+
+        private final String description;
+
+        private UnresolvedValue(RuntimeException exception) {
+            if (exception instanceof TypeNotPresentException) {
+                description = "missing type " + ((TypeNotPresentException) exception).typeName();
+            } else if (exception instanceof EnumConstantNotPresentException) {
+                EnumConstantNotPresentException enumException = (EnumConstantNotPresentException) exception;
+                description = "missing enum constant " + enumException.enumType().getName() + "." + enumException.constantName();
+            } else {
+                description = "type mismatch, found " + ((AnnotationTypeMismatchException) exception).foundType();
+            }
+        }
+
+        @Override
+        public String toString() {
+            return "/* unresolvable: " + description + " */";
+        }
+    }
 
-            for (Method method : methods) {
-                method.setAccessible(true);
-                Object value = method.invoke(annotation);
-                map.put(method.getName(), new ValueUtils().getValue(value));
+    private static class AnnotationMember {
+
+        private final String name;
+
+        private final MethodHandle handle;
+
+        private final Object defaultValue;
+
+        private AnnotationMember(String name, MethodHandle handle, Object defaultValue) {
+            this.name = name;
+            this.handle = handle;
+            this.defaultValue = defaultValue;
+        }
+
+        private String getName() {
+            return name;
+        }
+
+        private Object getValue(Annotation annotation) {
+            try {
+                return (Object) handle.invokeExact(annotation);
+            } catch (RuntimeException | Error exception) {
+                throw exception;
+            } catch (Throwable throwable) {
+                throw new RuntimeException(throwable);
             }
-        } catch (Exception exception) {
-            // Sin
         }
 
-        return map;
+        private boolean isDefaultValue(Object value) {
+            return defaultValue != null && Objects.deepEquals(value, defaultValue);
+        }
     }
 }
@@ -1,45 +1,60 @@
 package com.kiselev.reflection.ui.impl.argument;
 
-import com.kiselev.reflection.ui.impl.annotation.AnnotationUtils;
-import com.kiselev.reflection.ui.impl.generic.GenericsUtils;
+import com.kiselev.reflection.ui.impl.context.RenderContext;
+import com.kiselev.reflection.ui.impl.output.Output;
+import com.kiselev.reflection.ui.impl.snapshot.ExecutableSnapshot;
+import com.kiselev.reflection.ui.impl.snapshot.ParameterSnapshot;
 
-import java.lang.reflect.Executable;
-import java.lang.reflect.Parameter;
-import java.util.ArrayList;
+import java.lang.reflect.GenericArrayType;
+import java.lang.reflect.Type;
 
 public class ArgumentUtils {
 
-    public String getArguments(Executable executable) {
-        String arguments = "";
+    public void appendArguments(ExecutableSnapshot executable, RenderContext context) {
+        Output output = context.getOutput();
 
-        ArrayList<String> strings = new ArrayList<>();
+        output.append('(');
 
-        for (Parameter parameter : executable.getParameters()) {
-            strings.add(getArgument(parameter));
+        ParameterSnapshot[] parameters = executable.getParameters();
+        for (int i = 0; i < parameters.length; i++) {
+            if (i != 0) {
+                output.append(", ");
+            }
+            appendArgument(parameters[i], context);
         }
 
-        arguments += "(" + String.join(", ", strings) + ")";
-
-        return arguments;
+        output.append(')');
     }
 
-    private String getArgument(Parameter parameter) {
-        String argumentSignature = "";
-
-        String annotation = new AnnotationUtils().getAnnotations(parameter);
+    private void appendArgument(ParameterSnapshot parameter, RenderContext context) {
+        // Parameter annotations are not indented
+        context.getAnnotationUtils().appendAnnotations(parameter.getAnnotations(), "", context);
 
-        String genericType = new GenericsUtils().resolveType(parameter.getParameterizedType());
-
-        genericType = parameter.isVarArgs() ? convertToVarArg(genericType) : genericType;
+        appendArgumentType(parameter, context);
 
         String parameterName = parameter.getName(); // TODO : -parameters check
 
-        argumentSignature += annotation + genericType + " " + parameterName;
+        context.getOutput().append(' ').append(parameterName);
+    }
 
-        return argumentSignature;
+    public void appendArgumentType(ParameterSnapshot parameter, RenderContext context) {
+        Type parameterizedType = parameter.getParameterizedType();
+        if (parameter.isVarArgs()) {
+            appendVarArg(parameterizedType, context);
+        } else {
+            context.getGenericsUtils().resolveType(parameterizedType, context);
+        }
     }
 
-    private String convertToVarArg(String type) {
-        return type.substring(0, type.length() - 2) + "...";
+    private void appendVarArg(Type type, RenderContext context) {
+        Output output = context.getOutput();
+
+        if (type instanceof GenericArrayType) {
+            context.getGenericsUtils().resolveType(GenericArrayType.class.cast(type).getGenericComponentType(), context);
+        } else {
+            String typeName = context.getNameUtils().getTypeName(Class.class.cast(type));
+            output.append(typeName, 0, typeName.length() - 2);
+        }
+        output.append("...");
     }
 }
@@ -0,0 +1,572 @@
+package com.kiselev.reflection.ui.impl.cache;
+
+import com.kiselev.reflection.ui.bytecode.assembly.build.constant.Constants;
+import com.kiselev.reflection.ui.bytecode.holder.ByteCodeHolder;
+import com.kiselev.reflection.ui.bytecode.view.ClassFileView;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Rendered classes stored on disk across runs, keyed by a hash of the class bytes,
+ * the bytes of its nested classes and superclasses and of the annotation types rendered with them.
+ * The bytes of each class are read and hashed once, member details are never touched.
+ * <p>
+ * Records are only ever appended to the data file. The index file is a memory-mapped
+ * open addressing table of keys and record offsets, and can always be rebuilt from the data.
+ * Appends take a file lock, so several JVMs may share one cache directory.
+ * Failed reads and writes are logged and the class is simply rendered.
+ */
+public class PersistentRenderCache implements Closeable {
+
+    private static final Logger logger = Logger.getLogger(PersistentRenderCache.class.getName());
+
+    private static final String DATA_FILE = "render-cache.data";
+
+    private static final String INDEX_FILE = "render-cache.index";
+
+    private static final int DATA_MAGIC = 0x52554344;
+
+    private static final int INDEX_MAGIC = 0x52554349;
+
+    // Bump whenever the rendered output or the key changes, old entries are dropped
+    private static final int FORMAT_VERSION = 3;
+
+    private static final int DATA_HEADER_SIZE = 8;
+
+    private static final int INDEX_HEADER_SIZE = 24;
+
+    private static final int KEY_SIZE = 32;
+
+    private static final int RECORD_HEADER_SIZE = KEY_SIZE + 4;
+
+    private static final int SLOT_SIZE = KEY_SIZE + 8;
+
+    private static final int INITIAL_CAPACITY = 1 << 12;
+
+    private static final int MIN_READ_SIZE = 8192;
+
+    // Null when the bytes of the class are not available
+    private static final ClassValue<ClassStamp> classStamps = new ClassValue<ClassStamp>() {
+        @Override
+        protected ClassStamp computeValue(Class<?> type) {
+            return createClassStamp(type);
+        }
+    };
+
+    private final Path indexPath;
+
+    private final FileChannel dataChannel;
+
+    private MappedByteBuffer index;
+
+    private int capacity;
+
+    public PersistentRenderCache(Path directory) {
+        this.indexPath = directory.resolve(INDEX_FILE);
+
+        try {
+            Files.createDirectories(directory);
+            this.dataChannel = FileChannel.open(directory.resolve(DATA_FILE),
+                    StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+
+            FileLock lock = dataChannel.lock();
+            try {
+                boolean created = prepareDataFile();
+                openIndex(created);
+                indexAppendedRecords();
+            } finally {
+                lock.release();
+            }
+        } catch (IOException exception) {
+            throw new RuntimeException(exception);
+        }
+    }
+
+    public String getRenderedClass(Class<?> clazz, Function<Class<?>, String> renderer) {
+        byte[] key = createKey(clazz);
+        if (key == null) {
+            return renderer.apply(clazz);
+        }
+
+        String rendered = get(key);
+        if (rendered == null) {
+            rendered = renderer.apply(clazz);
+            put(key, rendered);
+        }
+        return rendered;
+    }
+
+    public String getCachedClass(Class<?> clazz) {
+        byte[] key = createKey(clazz);
+        return (key != null) ? get(key) : null;
+    }
+
+    /**
+     * Drops the stamp of a redefined class, its bytes are read again for the next key.
+     */
+    public static void invalidate(Class<?> clazz) {
+        classStamps.remove(clazz);
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        dataChannel.close();
+    }
+
+    private synchronized String get(byte[] key) {
+        if (!dataChannel.isOpen()) {
+            return null;
+        }
+
+        try {
+            // Another JVM may have grown the index, its header is shared with ours
+            if (index.getInt(8) != capacity) {
+                remapIndex();
+            }
+
+            long offset = findOffset(key);
+            return (offset != 0) ? readRecord(key, offset) : null;
+        } catch (IOException exception) {
+            logger.log(Level.WARNING, "Rendered class could not be read from the cache", exception);
+            return null;
+        }
+    }
+
+    private synchronized void put(byte[] key, String rendered) {
+        if (!dataChannel.isOpen()) {
+            return;
+        }
+
+        byte[] bytes = rendered.getBytes(StandardCharsets.UTF_8);
+
+        try {
+            FileLock lock = dataChannel.lock();
+            try {
+                // Another JVM may have grown the index or appended records since we last looked
+                if (index.getInt(8) != capacity) {
+                    openIndex(false);
+                }
+                indexAppendedRecords();
+
+                if (findOffset(key) == 0) {
+                    long offset = dataChannel.size();
+
+                    ByteBuffer record = ByteBuffer.allocate(RECORD_HEADER_SIZE + bytes.length);
+                    record.put(key).putInt(bytes.length).put(bytes).flip();
+                    writeFully(record, offset);
+
+                    addSlot(key, offset);
+                    index.putLong(16, offset + RECORD_HEADER_SIZE + bytes.length);
+                }
+            } finally {
+                lock.release();
+            }
+        } catch (IOException exception) {
+            logger.log(Level.WARNING, "Rendered class could not be written to the cache", exception);
+        }
+    }
+
+    /**
+     * Checks the data file header, starting a new data file when it is missing or of another format.
+     * Returns whether a new data file was started.
+     */
+    private boolean prepareDataFile() throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(DATA_HEADER_SIZE);
+        if (dataChannel.size() >= DATA_HEADER_SIZE) {
+            dataChannel.read(header, 0);
+            header.flip();
+            if (header.getInt() == DATA_MAGIC && header.getInt() == FORMAT_VERSION) {
+                return false;
+            }
+        }
+
+        // Missing, torn or written by another format version
+        dataChannel.truncate(0);
+
+        header.clear();
+        header.putInt(DATA_MAGIC).putInt(FORMAT_VERSION).flip();
+        writeFully(header, 0);
+        return true;
+    }
+
+    /**
+     * Maps the index, clearing it when asked to or when it cannot be used. The index file is never
+     * replaced or truncated, so other JVMs may keep it mapped; a larger mapping grows it.
+     */
+    private void openIndex(boolean clear) throws IOException {
+        try (FileChannel indexChannel = FileChannel.open(indexPath,
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            long indexSize = indexChannel.size();
+
+            if (!clear && indexSize >= INDEX_HEADER_SIZE) {
+                MappedByteBuffer header = indexChannel.map(FileChannel.MapMode.READ_WRITE, 0, INDEX_HEADER_SIZE);
+                int indexCapacity = header.getInt(8);
+
+                // An index left mid-growth claims nothing is indexed and is rebuilt from the data
+                if (header.getInt(0) == INDEX_MAGIC && header.getInt(4) == FORMAT_VERSION
+                        && indexCapacity > 0 && Integer.bitCount(indexCapacity) == 1
+                        && indexSize >= getIndexSize(indexCapacity) && header.getLong(16) != DATA_HEADER_SIZE) {
+                    index = indexChannel.map(FileChannel.MapMode.READ_WRITE, 0, getIndexSize(indexCapacity));
+                    capacity = indexCapacity;
+                    return;
+                }
+            }
+
+            int indexCapacity = Math.max(INITIAL_CAPACITY, capacity);
+            index = indexChannel.map(FileChannel.MapMode.READ_WRITE, 0, getIndexSize(indexCapacity));
+            capacity = indexCapacity;
+            clearIndex(index, capacity);
+        }
+    }
+
+    /**
+     * Follows an index grown by another JVM without taking the lock. The index is only grown
+     * under the lock, so a lookup racing with the growth at worst misses and the class is rendered.
+     */
+    private void remapIndex() throws IOException {
+        try (FileChannel indexChannel = FileChannel.open(indexPath, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            int indexCapacity = index.getInt(8);
+            if (indexCapacity > 0 && Integer.bitCount(indexCapacity) == 1 && indexChannel.size() >= getIndexSize(indexCapacity)) {
+                index = indexChannel.map(FileChannel.MapMode.READ_WRITE, 0, getIndexSize(indexCapacity));
+                capacity = indexCapacity;
+            }
+        }
+    }
+
+    /**
+     * Doubles the index in place. While the slots are written again the header claims nothing
+     * is indexed, so an index left by a crash meanwhile is rebuilt from the data.
+     */
+    private void growIndex() throws IOException {
+        int count = index.getInt(12);
+        long indexedOffset = index.getLong(16);
+
+        byte[] slots = new byte[capacity * SLOT_SIZE];
+        ByteBuffer currentSlots = index.duplicate();
+        currentSlots.position(INDEX_HEADER_SIZE);
+        currentSlots.get(slots);
+
+        int newCapacity = capacity * 2;
+        try (FileChannel indexChannel = FileChannel.open(indexPath, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            index = indexChannel.map(FileChannel.MapMode.READ_WRITE, 0, getIndexSize(newCapacity));
+        }
+        capacity = newCapacity;
+        clearIndex(index, capacity);
+
+        ByteBuffer previousSlots = ByteBuffer.wrap(slots);
+        byte[] key = new byte[KEY_SIZE];
+        for (int position = 0; position < slots.length; position += SLOT_SIZE) {
+            long offset = previousSlots.getLong(position + KEY_SIZE);
+            if (offset != 0) {
+                readKey(previousSlots, position, key);
+                writeSlot(index, capacity, key, offset);
+            }
+        }
+
+        index.putInt(12, count);
+        index.putLong(16, indexedOffset);
+    }
+
+    private static void clearIndex(ByteBuffer index, int capacity) {
+        index.putInt(0, INDEX_MAGIC);
+        index.putInt(4, FORMAT_VERSION);
+        index.putLong(16, DATA_HEADER_SIZE);
+        index.putInt(12, 0);
+
+        long size = getIndexSize(capacity);
+        for (int position = INDEX_HEADER_SIZE; position < size; position += SLOT_SIZE) {
+            index.putLong(position + KEY_SIZE, 0);
+        }
+
+        // Written last, other JVMs remap once they see the new capacity
+        index.putInt(8, capacity);
+    }
+
+    /**
+     * Indexes records appended after the last indexed one, by this or another JVM.
+     */
+    private void indexAppendedRecords() throws IOException {
+        long dataSize = dataChannel.size();
+        long offset = index.getLong(16);
+
+        ByteBuffer recordHeader = ByteBuffer.allocate(RECORD_HEADER_SIZE);
+        byte[] key = new byte[KEY_SIZE];
+        while (offset < dataSize) {
+            recordHeader.clear();
+            if (readFully(recordHeader, offset) < RECORD_HEADER_SIZE) {
+                break;
+            }
+            recordHeader.flip();
+            recordHeader.get(key);
+            int length = recordHeader.getInt();
+            if (length < 0 || offset + RECORD_HEADER_SIZE + length > dataSize) {
+                break;
+            }
+            long next = offset + RECORD_HEADER_SIZE + length;
+
+            if (findOffset(key) == 0) {
+                addSlot(key, offset);
+            }
+            offset = next;
+        }
+
+        // A record torn by a crash is cut off, its class is simply rendered again
+        if (offset < dataSize) {
+            dataChannel.truncate(offset);
+        }
+        index.putLong(16, offset);
+    }
+
+    private long findOffset(byte[] key) {
+        int mask = capacity - 1;
+        int slot = getHash(key) & mask;
+
+        // Bounded, another JVM may be writing the slots while this one reads them without the lock
+        for (int probe = 0; probe < capacity; probe++, slot = (slot + 1) & mask) {
+            int position = getSlotPosition(slot);
+            long offset = index.getLong(position + KEY_SIZE);
+            if (offset == 0 || isSameKey(index, position, key)) {
+                return offset;
+            }
+        }
+        return 0;
+    }
+
+    private void addSlot(byte[] key, long offset) throws IOException {
+        int count = index.getInt(12);
+        if ((count + 1) * 4L > capacity * 3L) {
+            growIndex();
+        }
+
+        writeSlot(index, capacity, key, offset);
+        index.putInt(12, count + 1);
+    }
+
+    private String readRecord(byte[] key, long offset) throws IOException {
+        ByteBuffer recordHeader = ByteBuffer.allocate(RECORD_HEADER_SIZE);
+        if (readFully(recordHeader, offset) < RECORD_HEADER_SIZE) {
+            return null;
+        }
+        recordHeader.flip();
+
+        // Slots written concurrently by another JVM are trusted only if the record agrees
+        if (!isSameKey(recordHeader, 0, key)) {
+            return null;
+        }
+        int length = recordHeader.getInt(KEY_SIZE);
+        if (length < 0) {
+            return null;
+        }
+
+        ByteBuffer bytes = ByteBuffer.allocate(length);
+        if (readFully(bytes, offset + RECORD_HEADER_SIZE) < length) {
+            return null;
+        }
+        return new String(bytes.array(), StandardCharsets.UTF_8);
+    }
+
+    private static void writeSlot(ByteBuffer index, int capacity, byte[] key, long offset) {
+        int mask = capacity - 1;
+        int slot = getHash(key) & mask;
+        while (index.getLong(getSlotPosition(slot) + KEY_SIZE) != 0) {
+            slot = (slot + 1) & mask;
+        }
+
+        int position = getSlotPosition(slot);
+        for (int i = 0; i < KEY_SIZE; i++) {
+            index.put(position + i, key[i]);
+        }
+        index.putLong(position + KEY_SIZE, offset);
+    }
+
+    private static void readKey(ByteBuffer buffer, int position, byte[] key) {
+        for (int i = 0; i < KEY_SIZE; i++) {
+            key[i] = buffer.get(position + i);
+        }
+    }
+
+    private static boolean isSameKey(ByteBuffer buffer, int position, byte[] key) {
+        for (int i = 0; i < KEY_SIZE; i++) {
+            if (buffer.get(position + i) != key[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static int getHash(byte[] key) {
+        return (key[0] & 0xFF) << 24 | (key[1] & 0xFF) << 16 | (key[2] & 0xFF) << 8 | (key[3] & 0xFF);
+    }
+
+    private static int getSlotPosition(int slot) {
+        return INDEX_HEADER_SIZE + slot * SLOT_SIZE;
+    }
+
+    private static long getIndexSize(int capacity) {
+        return INDEX_HEADER_SIZE + (long) capacity * SLOT_SIZE;
+    }
+
+    private int readFully(ByteBuffer buffer, long position) throws IOException {
+        int read = 0;
+        while (buffer.hasRemaining()) {
+            int count = dataChannel.read(buffer, position + read);
+            if (count < 0) {
+                break;
+            }
+            read += count;
+        }
+        return read;
+    }
+
+    private void writeFully(ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            position += dataChannel.write(buffer, position);
+        }
+    }
+
+    /**
+     * Hashes the stamps of the class and its nested classes, whose source is part of the output,
+     * of their superclasses, whose annotations they may inherit, and of the annotation types they use.
+     * Returns null when the bytes of any of these classes are not available.
+     */
+    private byte[] createKey(Class<?> clazz) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance(Constants.Hash.ALGORITHM);
+
+            Set<String> annotationTypeNames = new LinkedHashSet<>();
+            if (!updateKey(clazz, digest, annotationTypeNames)) {
+                return null;
+            }
+
+            // Default values of annotation members decide which arguments are rendered
+            for (String annotationTypeName : annotationTypeNames) {
+                digest.update(annotationTypeName.getBytes(StandardCharsets.UTF_8));
+
+                ClassStamp annotationTypeStamp = getAnnotationTypeStamp(annotationTypeName, clazz.getClassLoader());
+                if (annotationTypeStamp != null) {
+                    digest.update(annotationTypeStamp.digest);
+                }
+            }
+            return digest.digest();
+        } catch (NoSuchAlgorithmException exception) {
+            throw new RuntimeException(exception);
+        }
+    }
+
+    private boolean updateKey(Class<?> clazz, MessageDigest digest, Set<String> annotationTypeNames) {
+        for (Class<?> type = clazz; type != null; type = type.getSuperclass()) {
+            ClassStamp stamp = classStamps.get(type);
+            if (stamp == null) {
+                return false;
+            }
+
+            digest.update(stamp.digest);
+            annotationTypeNames.addAll(stamp.annotationTypeNames);
+        }
+
+        for (Class<?> declaredClass : clazz.getDeclaredClasses()) {
+            if (!updateKey(declaredClass, digest, annotationTypeNames)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static ClassStamp getAnnotationTypeStamp(String annotationTypeName, ClassLoader classLoader) {
+        try {
+            return classStamps.get(Class.forName(annotationTypeName, false, classLoader));
+        } catch (ClassNotFoundException | LinkageError exception) {
+            // Rendered as unresolvable, which the name alone already keys
+            return null;
+        }
+    }
+
+    private static ClassStamp createClassStamp(Class<?> clazz) {
+        byte[] byteCode = getClassBytes(clazz);
+        if (byteCode == null) {
+            return null;
+        }
+
+        try {
+            MessageDigest digest = MessageDigest.getInstance(Constants.Hash.ALGORITHM);
+            digest.update(clazz.getName().getBytes(StandardCharsets.UTF_8));
+            digest.update(byteCode);
+
+            Set<String> annotationTypeNames = new ClassFileView(ByteBuffer.wrap(byteCode)).getAnnotationTypeNames();
+            return new ClassStamp(digest.digest(), annotationTypeNames);
+        } catch (NoSuchAlgorithmException exception) {
+            throw new RuntimeException(exception);
+        } catch (RuntimeException exception) {
+            logger.log(Level.WARNING, "Bytes of " + clazz.getName() + " could not be parsed", exception);
+            return null;
+        }
+    }
+
+    private static byte[] getClassBytes(Class<?> clazz) {
+        if (clazz.isArray() || clazz.isPrimitive()) {
+            return null;
+        }
+
+        ByteBuffer capturedByteCode = ByteCodeHolder.getByteCode(clazz.getName());
+        if (capturedByteCode != null) {
+            byte[] byteCode = new byte[capturedByteCode.remaining()];
+            capturedByteCode.get(byteCode);
+            return byteCode;
+        }
+
+        String resourceName = "/" + clazz.getName().replace('.', '/') + Constants.Suffix.CLASS_FILE_SUFFIX;
+        try (InputStream stream = clazz.getResourceAsStream(resourceName)) {
+            if (stream == null) {
+                return null;
+            }
+
+            // Class file streams usually know their size, so the bytes are read without copying them around
+            byte[] byteCode = new byte[Math.max(stream.available(), MIN_READ_SIZE)];
+            int length = 0;
+            int read;
+            while ((read = stream.read(byteCode, length, byteCode.length - length)) != -1) {
+                length += read;
+                if (length == byteCode.length) {
+                    byteCode = Arrays.copyOf(byteCode, byteCode.length * 2);
+                }
+            }
+            return (length == byteCode.length) ? byteCode : Arrays.copyOf(byteCode, length);
+        } catch (IOException exception) {
+            logger.log(Level.WARNING, "Bytes of " + clazz.getName() + " could not be read", exception);
+            return null;
+        }
+    }
+
+    /**
+     * Digest of the bytes of a class and the annotation types they refer to, computed once per class.
+     */
+    private static class ClassStamp {
+
+        private final byte[] digest;
+
+        private final Set<String> annotationTypeNames;
+
+        private ClassStamp(byte[] digest, Set<String> annotationTypeNames) {
+            this.digest = digest;
+            this.annotationTypeNames = annotationTypeNames;
+        }
+    }
+}
@@ -0,0 +1,237 @@
+package com.kiselev.reflection.ui.impl.cache;
+
+import com.kiselev.reflection.ui.bytecode.assembly.build.constant.Constants;
+import com.kiselev.reflection.ui.bytecode.holder.ByteCodeHolder;
+import com.kiselev.reflection.ui.bytecode.listener.RedefinitionEvent;
+import com.kiselev.reflection.ui.bytecode.listener.RedefinitionListener;
+import com.kiselev.reflection.ui.impl.redefinition.ClassLayout;
+import com.kiselev.reflection.ui.impl.snapshot.ClassSnapshot;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Keeps rendered class sources attached to the classes themselves via ClassValue,
+ * so cached entries never pin class loaders.
+ */
+public class RenderCache {
+
+    private static final ClassValue<CacheEntry> cacheEntries = new ClassValue<CacheEntry>() {
+        @Override
+        protected CacheEntry computeValue(Class<?> type) {
+            return new CacheEntry();
+        }
+    };
+
+    private static final AtomicLong hits = new AtomicLong();
+
+    private static final AtomicLong misses = new AtomicLong();
+
+    private static final Logger logger = Logger.getLogger(RenderCache.class.getName());
+
+    // Created on first use from the system property, so a bad directory only turns the cache off
+    private static volatile PersistentRenderCache persistentCache;
+
+    private static volatile boolean persistentCacheInitialized;
+
+    static {
+        ByteCodeHolder.addRedefinitionListener(new RedefinitionListener() {
+            @Override
+            public void onRedefinitionStarted(Class<?> redefinedClass) {
+                invalidateRedefinedClass(redefinedClass);
+            }
+
+            @Override
+            public void onRedefinition(RedefinitionEvent event) {
+                // Renders that ran while the new definition was being installed may have read the old one
+                invalidateRedefinedClass(event.getRedefinedClass());
+            }
+        });
+    }
+
+    public static String getRenderedClass(Class<?> clazz, Function<Class<?>, String> renderer) {
+        CacheEntry cacheEntry = cacheEntries.get(clazz);
+        long generation = cacheEntry.generation.get();
+
+        String rendered = cacheEntry.getRenderedClass(generation);
+        if (rendered != null) {
+            hits.incrementAndGet();
+            return rendered;
+        }
+
+        misses.incrementAndGet();
+        PersistentRenderCache persistentCache = getPersistentCache();
+        rendered = (persistentCache != null) ? persistentCache.getRenderedClass(clazz, renderer) : renderer.apply(clazz);
+        cacheEntry.setRenderedClass(generation, rendered);
+
+        return rendered;
+    }
+
+    public static String getCachedClass(Class<?> clazz) {
+        CacheEntry cacheEntry = cacheEntries.get(clazz);
+        long generation = cacheEntry.generation.get();
+
+        String rendered = cacheEntry.getRenderedClass(generation);
+        PersistentRenderCache persistentCache = getPersistentCache();
+        if (rendered == null && persistentCache != null) {
+            rendered = persistentCache.getCachedClass(clazz);
+            if (rendered != null) {
+                cacheEntry.setRenderedClass(generation, rendered);
+            }
+        }
+
+        if (rendered != null) {
+            hits.incrementAndGet();
+        } else {
+            misses.incrementAndGet();
+        }
+
+        return rendered;
+    }
+
+    public static void invalidate(Class<?> clazz) {
+        // Enclosing classes embed the rendered source of their nested classes
+        for (Class<?> declaringClass = clazz; declaringClass != null; declaringClass = declaringClass.getDeclaringClass()) {
+            cacheEntries.remove(declaringClass);
+        }
+    }
+
+    /**
+     * Drops the snapshot and the rendered source of a redefined class and the sources of its enclosing classes.
+     * They keep their layouts, so the next render only redoes what the redefinition changed.
+     * Renders already running when this is called never store their results.
+     */
+    public static void invalidateRedefinedClass(Class<?> clazz) {
+        // Renders that see the new generation must not see the old snapshot
+        ClassSnapshot.invalidate(clazz);
+        PersistentRenderCache.invalidate(clazz);
+
+        for (Class<?> declaringClass = clazz; declaringClass != null; declaringClass = declaringClass.getDeclaringClass()) {
+            cacheEntries.get(declaringClass).invalidate();
+        }
+    }
+
+    public static boolean isRedefined(Class<?> clazz) {
+        return cacheEntries.get(clazz).redefined;
+    }
+
+    /**
+     * Returns the generation of the class, changed by every redefinition. Captured before a render,
+     * it tells {@link #setClassLayout} whether the render may have read an older definition.
+     */
+    public static long getGeneration(Class<?> clazz) {
+        return cacheEntries.get(clazz).generation.get();
+    }
+
+    public static ClassLayout getClassLayout(Class<?> clazz) {
+        return cacheEntries.get(clazz).classLayout;
+    }
+
+    public static void setClassLayout(Class<?> clazz, long generation, ClassLayout classLayout) {
+        CacheEntry cacheEntry = cacheEntries.get(clazz);
+        synchronized (cacheEntry) {
+            if (cacheEntry.generation.get() == generation) {
+                cacheEntry.classLayout = classLayout;
+            }
+        }
+    }
+
+    /**
+     * Keeps rendered classes in the given directory across runs, null turns the persistent cache off.
+     */
+    public static synchronized void setPersistentCacheDirectory(Path directory) {
+        PersistentRenderCache previousCache = persistentCache;
+
+        persistentCache = (directory != null) ? new PersistentRenderCache(directory) : null;
+        persistentCacheInitialized = true;
+
+        closePersistentCache(previousCache);
+    }
+
+    public static long getHitCount() {
+        return hits.get();
+    }
+
+    public static long getMissCount() {
+        return misses.get();
+    }
+
+    private static PersistentRenderCache getPersistentCache() {
+        if (!persistentCacheInitialized) {
+            initializePersistentCache();
+        }
+        return persistentCache;
+    }
+
+    private static synchronized void initializePersistentCache() {
+        if (persistentCacheInitialized) {
+            return;
+        }
+
+        String directory = System.getProperty(Constants.Properties.RENDER_CACHE_DIRECTORY);
+        if (directory != null) {
+            try {
+                persistentCache = new PersistentRenderCache(Paths.get(directory));
+            } catch (RuntimeException exception) {
+                logger.log(Level.WARNING, "Persistent render cache is turned off, " + directory + " cannot be used", exception);
+            }
+        }
+        persistentCacheInitialized = true;
+    }
+
+    private static void closePersistentCache(PersistentRenderCache persistentCache) {
+        if (persistentCache != null) {
+            try {
+                persistentCache.close();
+            } catch (IOException exception) {
+                logger.log(Level.WARNING, "Persistent render cache could not be closed", exception);
+            }
+        }
+    }
+
+    private static class CacheEntry {
+
+        private final AtomicLong generation = new AtomicLong();
+
+        private volatile RenderedClass renderedClass;
+
+        private volatile boolean redefined;
+
+        private volatile ClassLayout classLayout;
+
+        private String getRenderedClass(long generation) {
+            RenderedClass renderedClass = this.renderedClass;
+            return (renderedClass != null && renderedClass.generation == generation) ? renderedClass.source : null;
+        }
+
+        private synchronized void setRenderedClass(long generation, String source) {
+            // A render that overlapped an invalidation may have read the previous definition
+            if (this.generation.get() == generation && renderedClass == null) {
+                renderedClass = new RenderedClass(generation, source);
+            }
+        }
+
+        private synchronized void invalidate() {
+            redefined = true;
+            generation.incrementAndGet();
+            renderedClass = null;
+        }
+    }
+
+    private static class RenderedClass {
+
+        private final long generation;
+
+        private final String source;
+
+        private RenderedClass(long generation, String source) {
+            this.generation = generation;
+            this.source = source;
+        }
+    }
+}
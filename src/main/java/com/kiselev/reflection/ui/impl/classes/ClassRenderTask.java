@@ -0,0 +1,52 @@
+package com.kiselev.reflection.ui.impl.classes;
+
+import com.kiselev.reflection.ui.impl.ReflectionUIImpl;
+import com.kiselev.reflection.ui.impl.cache.RenderCache;
+import com.kiselev.reflection.ui.impl.context.RenderContext;
+import com.kiselev.reflection.ui.impl.output.Output;
+import com.kiselev.reflection.ui.impl.snapshot.ClassSnapshot;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Renders a class on a fork-join pool, forking its nested classes as subtasks
+ * and splicing their results back in declaration order.
+ */
+public class ClassRenderTask extends RecursiveTask<String> {
+
+    private static final long serialVersionUID = 1L;
+
+    private final ReflectionUIImpl reflectionUI;
+
+    private final Class<?> clazz;
+
+    public ClassRenderTask(ReflectionUIImpl reflectionUI, Class<?> clazz) {
+        this.reflectionUI = reflectionUI;
+        this.clazz = clazz;
+    }
+
+    @Override
+    protected String compute() {
+        return RenderCache.getRenderedClass(clazz, this::renderClass);
+    }
+
+    private String renderClass(Class<?> clazz) {
+        Map<Class<?>, ClassRenderTask> nestedClassTasks = new HashMap<>();
+        for (Class<?> declaredClass : ClassSnapshot.getSnapshot(clazz).getDeclaredClasses()) {
+            ClassRenderTask nestedClassTask = new ClassRenderTask(reflectionUI, declaredClass);
+            nestedClassTask.fork();
+            nestedClassTasks.put(declaredClass, nestedClassTask);
+        }
+
+        StringBuilder renderedClass = new StringBuilder();
+
+        RenderContext context = new RenderContext(reflectionUI, clazz, new Output(renderedClass));
+        context.setNestedClassRenderer(declaredClass -> nestedClassTasks.get(declaredClass).join());
+
+        reflectionUI.appendClass(clazz, context);
+
+        return renderedClass.toString();
+    }
+}
@@ -1,24 +1,44 @@
 package com.kiselev.reflection.ui.impl.classes;
 
-import com.kiselev.reflection.ui.impl.ReflectionUIImpl;
+import com.kiselev.reflection.ui.impl.context.RenderContext;
+import com.kiselev.reflection.ui.impl.output.Output;
+import com.kiselev.reflection.ui.impl.snapshot.ClassSnapshot;
 
-import java.util.ArrayList;
-import java.util.List;
+import java.util.function.Function;
 
 public class ClassUtils {
 
-    public String getClasses(Class<?> clazz) {
-        String classes = "";
+    public boolean appendClasses(Class<?> clazz, boolean separate, RenderContext context) {
+        Output output = context.getOutput();
 
-        List<String> classList = new ArrayList<>();
-        for (Class<?> declaredClass : clazz.getDeclaredClasses()) {
-            classList.add(new ReflectionUIImpl().parseClass(declaredClass));
+        Class<?>[] declaredClasses =
+                context.getFilterUtils().filterClasses(ClassSnapshot.getSnapshot(clazz).getDeclaredClasses(), context);
+        if (declaredClasses.length == 0) {
+            return false;
         }
 
-        if (!classList.isEmpty()) {
-            classes += String.join("\n\n", classList) + "\n";
+        if (separate) {
+            output.append('\n');
         }
 
-        return classes;
+        Function<Class<?>, String> nestedClassRenderer = context.getNestedClassRenderer();
+
+        int depth = context.getDepth();
+        for (int i = 0; i < declaredClasses.length; i++) {
+            if (i != 0) {
+                output.append("\n\n");
+            }
+            if (nestedClassRenderer != null) {
+                output.append(nestedClassRenderer.apply(declaredClasses[i]));
+            } else {
+                context.enterNestedClass(declaredClasses[i]);
+                context.getReflectionUI().appendClass(declaredClasses[i], context);
+                context.exitNestedClass(depth);
+            }
+        }
+
+        output.append('\n');
+
+        return true;
     }
 }
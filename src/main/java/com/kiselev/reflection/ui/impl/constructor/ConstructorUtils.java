@@ -1,53 +1,56 @@
 package com.kiselev.reflection.ui.impl.constructor;
 
-import com.kiselev.reflection.ui.impl.annotation.AnnotationUtils;
-import com.kiselev.reflection.ui.impl.argument.ArgumentUtils;
-import com.kiselev.reflection.ui.impl.exception.ExceptionUtils;
-import com.kiselev.reflection.ui.impl.generic.GenericsUtils;
-import com.kiselev.reflection.ui.impl.indent.IndentUtils;
-import com.kiselev.reflection.ui.impl.modifier.ModifiersUtils;
-import com.kiselev.reflection.ui.impl.name.NameUtils;
-
-import java.lang.reflect.Constructor;
-import java.util.ArrayList;
-import java.util.List;
+import com.kiselev.reflection.ui.impl.context.RenderContext;
+import com.kiselev.reflection.ui.impl.metrics.RenderMetrics;
+import com.kiselev.reflection.ui.impl.output.Output;
+import com.kiselev.reflection.ui.impl.snapshot.ClassSnapshot;
+import com.kiselev.reflection.ui.impl.snapshot.ExecutableSnapshot;
 
 public class ConstructorUtils {
 
-    public String getConstructors(Class<?> clazz) {
-        String constructors = "";
+    public boolean appendConstructors(Class<?> clazz, boolean separate, RenderContext context) {
+        Output output = context.getOutput();
 
-        List<String> constructorList = new ArrayList<>();
-        for (Constructor<?> constructor : clazz.getDeclaredConstructors()) {
-            constructorList.add(getConstructor(constructor));
+        ExecutableSnapshot[] constructors =
+                context.getFilterUtils().filterConstructors(ClassSnapshot.getSnapshot(clazz).getConstructors(), context);
+        if (constructors.length == 0) {
+            return false;
         }
+        RenderMetrics.addRenderedMembers(constructors.length);
 
-        if (!constructorList.isEmpty()) {
-            constructors += String.join("\n\n", constructorList) + "\n";
+        if (separate) {
+            output.append('\n');
         }
+        for (int i = 0; i < constructors.length; i++) {
+            if (i != 0) {
+                output.append("\n\n");
+            }
+            appendConstructor(constructors[i], context);
+        }
+        output.append('\n');
 
-        return constructors;
+        return true;
     }
 
-    private String getConstructor(Constructor constructor) {
-        String constructorSignature = "";
+    public void appendConstructor(ExecutableSnapshot constructor, RenderContext context) {
+        Output output = context.getOutput();
 
-        String annotations = new AnnotationUtils().getAnnotations(constructor);
+        String indent = context.getMemberIndent();
 
-        String indent = new IndentUtils().getIndent(constructor);
+        context.getAnnotationUtils().appendAnnotations(constructor.getAnnotations(), indent, context);
 
-        String modifiers = new ModifiersUtils().getModifiers(constructor.getModifiers());
+        output.append(indent);
 
-        String generics = new GenericsUtils().getGenerics(constructor);
+        context.getModifiersUtils().appendModifiers(constructor.getModifiers(), context);
 
-        String constructorName = new NameUtils().getTypeName(constructor.getDeclaringClass());
+        context.getGenericsUtils().appendGenerics(constructor, context);
 
-        String arguments = new ArgumentUtils().getArguments(constructor);
+        output.append(context.getNameUtils().getTypeName(constructor.getDeclaringClass()));
 
-        String exceptions = new ExceptionUtils().getExceptions(constructor);
+        context.getArgumentUtils().appendArguments(constructor, context);
 
-        constructorSignature += annotations + indent + modifiers + generics + constructorName + arguments + exceptions + " {\n" + indent + "}";
+        context.getExceptionUtils().appendExceptions(constructor, context);
 
-        return constructorSignature;
+        output.append(" {\n").append(indent).append('}');
     }
 }
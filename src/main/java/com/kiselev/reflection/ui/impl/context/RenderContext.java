@@ -0,0 +1,240 @@
+package com.kiselev.reflection.ui.impl.context;
+
+import com.kiselev.reflection.ui.api.options.RenderOptions;
+import com.kiselev.reflection.ui.impl.ReflectionUIImpl;
+import com.kiselev.reflection.ui.impl.annotation.AnnotationUtils;
+import com.kiselev.reflection.ui.impl.argument.ArgumentUtils;
+import com.kiselev.reflection.ui.impl.classes.ClassUtils;
+import com.kiselev.reflection.ui.impl.constructor.ConstructorUtils;
+import com.kiselev.reflection.ui.impl.exception.ExceptionUtils;
+import com.kiselev.reflection.ui.impl.field.FieldUtils;
+import com.kiselev.reflection.ui.impl.filter.FilterUtils;
+import com.kiselev.reflection.ui.impl.generic.GenericsUtils;
+import com.kiselev.reflection.ui.impl.indent.IndentUtils;
+import com.kiselev.reflection.ui.impl.inheritance.InheritancesUtils;
+import com.kiselev.reflection.ui.impl.method.MethodUtils;
+import com.kiselev.reflection.ui.impl.modifier.ModifiersUtils;
+import com.kiselev.reflection.ui.impl.name.NameUtils;
+import com.kiselev.reflection.ui.impl.output.Output;
+import com.kiselev.reflection.ui.impl.packages.PackageUtils;
+import com.kiselev.reflection.ui.impl.parallel.ParallelUtils;
+import com.kiselev.reflection.ui.impl.redefinition.RedefinitionUtils;
+import com.kiselev.reflection.ui.impl.type.TypeUtils;
+import com.kiselev.reflection.ui.impl.value.ValueUtils;
+
+import java.lang.reflect.Type;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * State of a single parseClass call: the output sink, the nesting depth of the class
+ * being rendered with its precomputed indents, and the shared stateless renderers.
+ */
+public class RenderContext {
+
+    private static final AnnotationUtils annotationUtils = new AnnotationUtils();
+
+    private static final ArgumentUtils argumentUtils = new ArgumentUtils();
+
+    private static final ClassUtils classUtils = new ClassUtils();
+
+    private static final ConstructorUtils constructorUtils = new ConstructorUtils();
+
+    private static final ExceptionUtils exceptionUtils = new ExceptionUtils();
+
+    private static final FieldUtils fieldUtils = new FieldUtils();
+
+    private static final FilterUtils filterUtils = new FilterUtils();
+
+    private static final GenericsUtils genericsUtils = new GenericsUtils();
+
+    private static final IndentUtils indentUtils = new IndentUtils();
+
+    private static final InheritancesUtils inheritancesUtils = new InheritancesUtils();
+
+    private static final MethodUtils methodUtils = new MethodUtils();
+
+    private static final ModifiersUtils modifiersUtils = new ModifiersUtils();
+
+    private static final NameUtils nameUtils = new NameUtils();
+
+    private static final PackageUtils packageUtils = new PackageUtils();
+
+    private static final ParallelUtils parallelUtils = new ParallelUtils();
+
+    private static final RedefinitionUtils redefinitionUtils = new RedefinitionUtils();
+
+    private static final TypeUtils typeUtils = new TypeUtils();
+
+    private static final ValueUtils valueUtils = new ValueUtils();
+
+    private final ReflectionUIImpl reflectionUI;
+
+    private final Output output;
+
+    private final RenderOptions options;
+
+    private int depth;
+
+    // Nested classes entered since the class the render started from
+    private int nestingLevel;
+
+    private String classIndent;
+
+    private String memberIndent;
+
+    private Function<Class<?>, String> nestedClassRenderer;
+
+    // Confined to the thread rendering with this context, parallel chunks get their own
+    private final Map<Type, String> resolvedTypes = new HashMap<>();
+
+    public RenderContext(ReflectionUIImpl reflectionUI, Class<?> clazz, Output output) {
+        this(reflectionUI, clazz, output, RenderOptions.getDefault());
+    }
+
+    public RenderContext(ReflectionUIImpl reflectionUI, Class<?> clazz, Output output, RenderOptions options) {
+        this.reflectionUI = reflectionUI;
+        this.output = output;
+        this.options = options;
+        setDepth(indentUtils.getDepth(clazz));
+    }
+
+    public RenderContext(RenderContext context, Output output) {
+        this.reflectionUI = context.reflectionUI;
+        this.output = output;
+        this.options = context.options;
+        this.nestingLevel = context.nestingLevel;
+        setDepth(context.depth);
+    }
+
+    /**
+     * Indents a nested class by its own declaring-class chain, the same as rendering it on its own.
+     */
+    public void enterNestedClass(Class<?> nestedClass) {
+        nestingLevel++;
+        setDepth(indentUtils.getDepth(nestedClass));
+    }
+
+    public void exitNestedClass(int enclosingDepth) {
+        nestingLevel--;
+        setDepth(enclosingDepth);
+    }
+
+    private void setDepth(int depth) {
+        this.depth = depth;
+        this.classIndent = indentUtils.getIndent(depth);
+        this.memberIndent = indentUtils.getIndent(depth + 1);
+    }
+
+    public Function<Class<?>, String> getNestedClassRenderer() {
+        return nestedClassRenderer;
+    }
+
+    public void setNestedClassRenderer(Function<Class<?>, String> nestedClassRenderer) {
+        this.nestedClassRenderer = nestedClassRenderer;
+    }
+
+    public Map<Type, String> getResolvedTypes() {
+        return resolvedTypes;
+    }
+
+    public ReflectionUIImpl getReflectionUI() {
+        return reflectionUI;
+    }
+
+    public Output getOutput() {
+        return output;
+    }
+
+    public int getDepth() {
+        return depth;
+    }
+
+    /**
+     * Returns how deep the class being rendered is nested in the class the render started from.
+     */
+    public int getNestingLevel() {
+        return nestingLevel;
+    }
+
+    public RenderOptions getOptions() {
+        return options;
+    }
+
+    public String getClassIndent() {
+        return classIndent;
+    }
+
+    public String getMemberIndent() {
+        return memberIndent;
+    }
+
+    public AnnotationUtils getAnnotationUtils() {
+        return annotationUtils;
+    }
+
+    public ArgumentUtils getArgumentUtils() {
+        return argumentUtils;
+    }
+
+    public ClassUtils getClassUtils() {
+        return classUtils;
+    }
+
+    public ConstructorUtils getConstructorUtils() {
+        return constructorUtils;
+    }
+
+    public ExceptionUtils getExceptionUtils() {
+        return exceptionUtils;
+    }
+
+    public FieldUtils getFieldUtils() {
+        return fieldUtils;
+    }
+
+    public FilterUtils getFilterUtils() {
+        return filterUtils;
+    }
+
+    public GenericsUtils getGenericsUtils() {
+        return genericsUtils;
+    }
+
+    public InheritancesUtils getInheritancesUtils() {
+        return inheritancesUtils;
+    }
+
+    public MethodUtils getMethodUtils() {
+        return methodUtils;
+    }
+
+    public ModifiersUtils getModifiersUtils() {
+        return modifiersUtils;
+    }
+
+    public NameUtils getNameUtils() {
+        return nameUtils;
+    }
+
+    public PackageUtils getPackageUtils() {
+        return packageUtils;
+    }
+
+    public ParallelUtils getParallelUtils() {
+        return parallelUtils;
+    }
+
+    public RedefinitionUtils getRedefinitionUtils() {
+        return redefinitionUtils;
+    }
+
+    public TypeUtils getTypeUtils() {
+        return typeUtils;
+    }
+
+    public ValueUtils getValueUtils() {
+        return valueUtils;
+    }
+}
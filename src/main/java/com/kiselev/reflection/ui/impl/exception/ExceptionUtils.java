@@ -1,27 +1,18 @@
 package com.kiselev.reflection.ui.impl.exception;
 
-import com.kiselev.reflection.ui.impl.generic.GenericsUtils;
+import com.kiselev.reflection.ui.impl.context.RenderContext;
+import com.kiselev.reflection.ui.impl.snapshot.ExecutableSnapshot;
 
-import java.lang.reflect.Executable;
 import java.lang.reflect.Type;
-import java.util.ArrayList;
-import java.util.List;
 
 public class ExceptionUtils {
 
-    public String getExceptions(Executable executable) {
-        String exceptions = "";
+    public void appendExceptions(ExecutableSnapshot executable, RenderContext context) {
+        Type[] exceptionTypes = executable.getGenericExceptionTypes();
 
-        List<String> exceptionTypes = new ArrayList<>();
-
-        for (Type type : executable.getGenericExceptionTypes()) {
-            exceptionTypes.add(new GenericsUtils().resolveType(type));
-        }
-
-        if (!exceptionTypes.isEmpty()) {
-            exceptions += " throws " + String.join(", ", exceptionTypes);
+        for (int i = 0; i < exceptionTypes.length; i++) {
+            context.getOutput().append(i == 0 ? " throws " : ", ");
+            context.getGenericsUtils().resolveType(exceptionTypes[i], context);
         }
-
-        return exceptions;
     }
 }
@@ -1,45 +1,42 @@
 package com.kiselev.reflection.ui.impl.field;
 
-import com.kiselev.reflection.ui.impl.annotation.AnnotationUtils;
-import com.kiselev.reflection.ui.impl.generic.GenericsUtils;
-import com.kiselev.reflection.ui.impl.indent.IndentUtils;
-import com.kiselev.reflection.ui.impl.modifier.ModifiersUtils;
-
-import java.lang.reflect.Field;
-import java.util.ArrayList;
-import java.util.List;
+import com.kiselev.reflection.ui.impl.context.RenderContext;
+import com.kiselev.reflection.ui.impl.metrics.RenderMetrics;
+import com.kiselev.reflection.ui.impl.output.Output;
+import com.kiselev.reflection.ui.impl.snapshot.ClassSnapshot;
+import com.kiselev.reflection.ui.impl.snapshot.FieldSnapshot;
 
 public class FieldUtils {
 
-    public String getFields(Class<?> clazz) {
-        String fields = "";
+    public boolean appendFields(Class<?> clazz, boolean separate, RenderContext context) {
+        Output output = context.getOutput();
 
-        List<String> fieldList = new ArrayList<>();
-        for (Field field : clazz.getDeclaredFields()) {
-            fieldList.add(getField(field));
+        FieldSnapshot[] fields = context.getFilterUtils().filterFields(ClassSnapshot.getSnapshot(clazz).getFields(), context);
+        if (fields.length == 0) {
+            return false;
         }
-        if (!fieldList.isEmpty()) {
-            fields += String.join("\n\n", fieldList) + "\n";
+        RenderMetrics.addRenderedMembers(fields.length);
+
+        if (separate) {
+            output.append('\n');
         }
+        context.getParallelUtils().appendMembers(fields, this::appendField, context);
+        output.append('\n');
 
-        return fields;
+        return true;
     }
 
-    private String getField(Field field) {
-        String fieldSignature = "";
-
-        String annotations = new AnnotationUtils().getAnnotations(field);
-
-        String indent = new IndentUtils().getIndent(field);
+    public void appendField(FieldSnapshot field, RenderContext context) {
+        Output output = context.getOutput();
 
-        String modifiers = new ModifiersUtils().getModifiers(field.getModifiers());
+        context.getAnnotationUtils().appendAnnotations(field.getAnnotations(), context.getMemberIndent(), context);
 
-        String type = new GenericsUtils().resolveType(field.getGenericType());
+        output.append(context.getMemberIndent());
 
-        String fieldName = field.getName();
+        context.getModifiersUtils().appendModifiers(field.getModifiers(), context);
 
-        fieldSignature += annotations + indent + modifiers + type + " " + fieldName + ";";
+        context.getGenericsUtils().resolveType(field.getGenericType(), context);
 
-        return fieldSignature;
+        output.append(' ').append(field.getName()).append(';');
     }
 }
@@ -0,0 +1,96 @@
+package com.kiselev.reflection.ui.impl.filter;
+
+import com.kiselev.reflection.ui.api.model.MemberKind;
+import com.kiselev.reflection.ui.api.options.RenderOptions;
+import com.kiselev.reflection.ui.api.options.Visibility;
+import com.kiselev.reflection.ui.impl.context.RenderContext;
+import com.kiselev.reflection.ui.impl.snapshot.ExecutableSnapshot;
+import com.kiselev.reflection.ui.impl.snapshot.FieldSnapshot;
+
+import java.util.Arrays;
+import java.util.function.Predicate;
+
+/**
+ * Drops members excluded by the render options using only their snapshot modifiers and names,
+ * so nothing is rendered for them. Default options return the arrays untouched.
+ */
+public class FilterUtils {
+
+    private static final int BRIDGE = 0x00000040;
+
+    private static final int SYNTHETIC = 0x00001000;
+
+    public FieldSnapshot[] filterFields(FieldSnapshot[] fields, RenderContext context) {
+        RenderOptions options = context.getOptions();
+        if (options.isDefault()) {
+            return fields;
+        }
+        if (!options.getMemberKinds().contains(MemberKind.FIELD)) {
+            return new FieldSnapshot[0];
+        }
+
+        return filter(fields, field -> isIncluded(field.getModifiers(), field.getName(), options));
+    }
+
+    public ExecutableSnapshot[] filterConstructors(ExecutableSnapshot[] constructors, RenderContext context) {
+        RenderOptions options = context.getOptions();
+        if (options.isDefault()) {
+            return constructors;
+        }
+        if (!options.getMemberKinds().contains(MemberKind.CONSTRUCTOR)) {
+            return new ExecutableSnapshot[0];
+        }
+
+        // Constructors are named after the class, the name predicate does not apply
+        return filter(constructors, constructor -> isIncluded(constructor.getModifiers(), null, options));
+    }
+
+    public ExecutableSnapshot[] filterMethods(ExecutableSnapshot[] methods, RenderContext context) {
+        RenderOptions options = context.getOptions();
+        if (options.isDefault()) {
+            return methods;
+        }
+        if (!options.getMemberKinds().contains(MemberKind.METHOD)) {
+            return new ExecutableSnapshot[0];
+        }
+
+        return filter(methods, method -> isIncluded(method.getModifiers(), method.getName(), options)
+                && (options.hasSyntheticMembers() || (method.getModifiers() & BRIDGE) == 0));
+    }
+
+    public Class<?>[] filterClasses(Class<?>[] declaredClasses, RenderContext context) {
+        RenderOptions options = context.getOptions();
+        if (options.isDefault()) {
+            return declaredClasses;
+        }
+        if (context.getNestingLevel() >= options.getNestedClassDepth()) {
+            return new Class<?>[0];
+        }
+
+        return filter(declaredClasses, declaredClass -> isIncluded(declaredClass.getModifiers(), null, options));
+    }
+
+    private boolean isIncluded(int modifiers, String name, RenderOptions options) {
+        if (Visibility.of(modifiers).compareTo(options.getVisibility()) > 0) {
+            return false;
+        }
+        if (!options.hasSyntheticMembers() && (modifiers & SYNTHETIC) != 0) {
+            return false;
+        }
+
+        Predicate<String> namePredicate = options.getNamePredicate();
+        return name == null || namePredicate == null || namePredicate.test(name);
+    }
+
+    private <T> T[] filter(T[] members, Predicate<T> predicate) {
+        T[] included = Arrays.copyOf(members, members.length);
+
+        int count = 0;
+        for (T member : members) {
+            if (predicate.test(member)) {
+                included[count++] = member;
+            }
+        }
+        return (count == members.length) ? members : Arrays.copyOf(included, count);
+    }
+}
@@ -0,0 +1,26 @@
+package com.kiselev.reflection.ui.impl.flow;
+
+import com.kiselev.reflection.ui.api.flow.Publisher;
+import com.kiselev.reflection.ui.api.flow.Subscriber;
+import com.kiselev.reflection.ui.impl.ReflectionUIImpl;
+
+/**
+ * Cold publisher, every subscriber gets its own render of the class.
+ */
+public class ClassFragmentPublisher implements Publisher<CharSequence> {
+
+    private final ReflectionUIImpl reflectionUI;
+
+    private final Class<?> clazz;
+
+    public ClassFragmentPublisher(ReflectionUIImpl reflectionUI, Class<?> clazz) {
+        this.reflectionUI = reflectionUI;
+        this.clazz = clazz;
+    }
+
+    @Override
+    public void subscribe(Subscriber<? super CharSequence> subscriber) {
+        ClassFragments fragments = new ClassFragments(clazz, reflectionUI);
+        subscriber.onSubscribe(new ClassFragmentSubscription(subscriber, reflectionUI.getPool(), fragments));
+    }
+}
@@ -0,0 +1,114 @@
+package com.kiselev.reflection.ui.impl.flow;
+
+import com.kiselev.reflection.ui.api.flow.Subscriber;
+import com.kiselev.reflection.ui.api.flow.Subscription;
+import com.kiselev.reflection.ui.impl.metrics.RenderMetrics;
+
+import java.util.Iterator;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Renders fragments on the executor only as far as the subscriber asked for.
+ * Requests and cancellations from any thread are folded into a single drain loop,
+ * so the subscriber is never called concurrently.
+ */
+public class ClassFragmentSubscription implements Subscription, Runnable {
+
+    private final Subscriber<? super CharSequence> subscriber;
+
+    private final Executor executor;
+
+    private final AtomicLong requested = new AtomicLong();
+
+    private final AtomicInteger pendingDrains = new AtomicInteger();
+
+    private final Iterator<CharSequence> fragments;
+
+    private volatile boolean cancelled;
+
+    private volatile Throwable invalidRequest;
+
+    public ClassFragmentSubscription(Subscriber<? super CharSequence> subscriber,
+                                     Executor executor,
+                                     Iterator<CharSequence> fragments) {
+        this.subscriber = subscriber;
+        this.executor = executor;
+        this.fragments = fragments;
+    }
+
+    @Override
+    public void request(long n) {
+        if (n <= 0) {
+            invalidRequest = new IllegalArgumentException("Non-positive request: " + n);
+        } else {
+            requested.getAndAccumulate(n, (current, added) -> {
+                long sum = current + added;
+                return (sum < 0) ? Long.MAX_VALUE : sum;
+            });
+        }
+        drain();
+    }
+
+    @Override
+    public void cancel() {
+        cancelled = true;
+    }
+
+    private void drain() {
+        if (pendingDrains.getAndIncrement() == 0) {
+            executor.execute(this);
+        }
+    }
+
+    @Override
+    public void run() {
+        int missed = 1;
+        do {
+            long demand = requested.get();
+            long emitted = 0;
+
+            while (!cancelled) {
+                if (invalidRequest != null) {
+                    cancelled = true;
+                    subscriber.onError(invalidRequest);
+                    return;
+                }
+
+                boolean hasNext;
+                CharSequence fragment = null;
+                try {
+                    hasNext = fragments.hasNext();
+                    if (hasNext && emitted != demand) {
+                        fragment = fragments.next();
+                    }
+                } catch (RuntimeException exception) {
+                    cancelled = true;
+                    subscriber.onError(exception);
+                    return;
+                }
+
+                if (!hasNext) {
+                    cancelled = true;
+                    subscriber.onComplete();
+                    return;
+                }
+
+                if (fragment == null) {
+                    break;
+                }
+
+                RenderMetrics.addProducedCharacters(fragment.length());
+                subscriber.onNext(fragment);
+                emitted++;
+            }
+
+            if (emitted != 0 && demand != Long.MAX_VALUE) {
+                requested.addAndGet(-emitted);
+            }
+
+            missed = pendingDrains.addAndGet(-missed);
+        } while (missed != 0);
+    }
+}
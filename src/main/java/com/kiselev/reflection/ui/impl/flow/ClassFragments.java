@@ -0,0 +1,111 @@
+package com.kiselev.reflection.ui.impl.flow;
+
+import com.kiselev.reflection.ui.impl.ReflectionUIImpl;
+import com.kiselev.reflection.ui.impl.context.RenderContext;
+import com.kiselev.reflection.ui.impl.output.Output;
+import com.kiselev.reflection.ui.impl.snapshot.ClassSnapshot;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+
+/**
+ * Renders a class one unit at a time, only when the next fragment is asked for.
+ * Separators go with the fragments, so the fragments add up to the full rendered class.
+ * Not thread-safe, the subscription hands it from thread to thread one drain at a time.
+ */
+public class ClassFragments implements Iterator<CharSequence> {
+
+    private final List<Consumer<RenderContext>> units = new ArrayList<>();
+
+    private final StringBuilder fragment = new StringBuilder();
+
+    private final Class<?> clazz;
+
+    private final ReflectionUIImpl reflectionUI;
+
+    private RenderContext context;
+
+    private int index;
+
+    public ClassFragments(Class<?> clazz, ReflectionUIImpl reflectionUI) {
+        this.clazz = clazz;
+        this.reflectionUI = reflectionUI;
+    }
+
+    // Deferred to the first drain, so subscribing never reads reflection on the caller's thread
+    private void createUnits() {
+        RenderContext context = new RenderContext(reflectionUI, clazz, new Output(fragment));
+
+        ClassSnapshot snapshot = ClassSnapshot.getSnapshot(clazz);
+
+        units.add(classContext -> {
+            reflectionUI.appendClassSignature(clazz, classContext);
+            classContext.getOutput().append("{\n\n");
+        });
+
+        boolean hasContent = addUnits(snapshot.getFields(), false, context.getFieldUtils()::appendField);
+        hasContent |= addUnits(snapshot.getConstructors(), hasContent, context.getConstructorUtils()::appendConstructor);
+        hasContent |= addUnits(snapshot.getMethods(), hasContent, context.getMethodUtils()::appendMethod);
+
+        addUnits(snapshot.getDeclaredClasses(), hasContent, (declaredClass, classContext) -> {
+            int depth = classContext.getDepth();
+            classContext.enterNestedClass(declaredClass);
+            reflectionUI.appendClass(declaredClass, classContext);
+            classContext.exitNestedClass(depth);
+        });
+
+        units.add(classContext -> classContext.getOutput().append(classContext.getClassIndent()).append('}'));
+
+        this.context = context;
+    }
+
+    private <T> boolean addUnits(T[] members, boolean separate, BiConsumer<T, RenderContext> memberRenderer) {
+        for (int i = 0; i < members.length; i++) {
+            T member = members[i];
+            boolean first = (i == 0);
+            boolean last = (i == members.length - 1);
+
+            units.add(memberContext -> {
+                Output output = memberContext.getOutput();
+                if (first && separate) {
+                    output.append('\n');
+                } else if (!first) {
+                    output.append("\n\n");
+                }
+
+                memberRenderer.accept(member, memberContext);
+
+                if (last) {
+                    output.append('\n');
+                }
+            });
+        }
+
+        return members.length != 0;
+    }
+
+    @Override
+    public boolean hasNext() {
+        if (context == null) {
+            createUnits();
+        }
+        return index < units.size();
+    }
+
+    @Override
+    public CharSequence next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+
+        units.get(index++).accept(context);
+
+        String rendered = fragment.toString();
+        fragment.setLength(0);
+        return rendered;
+    }
+}
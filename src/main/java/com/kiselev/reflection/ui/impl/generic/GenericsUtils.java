@@ -1,100 +1,223 @@
 package com.kiselev.reflection.ui.impl.generic;
 
-import com.kiselev.reflection.ui.impl.name.NameUtils;
+import com.kiselev.reflection.ui.impl.context.RenderContext;
+import com.kiselev.reflection.ui.impl.metrics.RenderMetrics;
+import com.kiselev.reflection.ui.impl.metrics.RenderStage;
+import com.kiselev.reflection.ui.impl.output.Output;
+import com.kiselev.reflection.ui.impl.snapshot.ClassSnapshot;
+import com.kiselev.reflection.ui.impl.snapshot.ExecutableSnapshot;
 
-import java.lang.reflect.GenericDeclaration;
 import java.lang.reflect.ParameterizedType;
 import java.lang.reflect.Type;
 import java.lang.reflect.TypeVariable;
 import java.lang.reflect.GenericArrayType;
 import java.lang.reflect.WildcardType;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Deque;
 import java.util.List;
+import java.util.Map;
 
 public class GenericsUtils {
 
-    public String getGenerics(GenericDeclaration genericDeclaration) {
-        List<String> generics = new ArrayList<>();
+    // Larger types are not memoized, their hashCode and equals recurse as deep as the type itself
+    private static final int MAX_MEMOIZED_TYPE_SIZE = 64;
 
-        String whitespace = (genericDeclaration instanceof Class) ? " " : "";
+    public void appendGenerics(ClassSnapshot snapshot, RenderContext context) {
+        long start = RenderMetrics.start();
+        if (!appendTypeParameters(snapshot.getTypeParameters(), context)) {
+            context.getOutput().append(' ');
+        }
+        RenderMetrics.record(RenderStage.GENERICS, start);
+    }
+
+    public void appendGenerics(ExecutableSnapshot executable, RenderContext context) {
+        long start = RenderMetrics.start();
+        appendTypeParameters(executable.getTypeParameters(), context);
+        RenderMetrics.record(RenderStage.GENERICS, start);
+    }
+
+    private boolean appendTypeParameters(TypeVariable<?>[] typeParameters, RenderContext context) {
+        Output output = context.getOutput();
 
-        TypeVariable<?>[] typeParameters = genericDeclaration.getTypeParameters();
-        for (TypeVariable parameter : typeParameters) {
-            String bounds = String.join(" & ", getBounds(parameter));
-            generics.add(parameter.getName() + (!bounds.isEmpty() ? " extends " + bounds : ""));
+        if (typeParameters.length == 0) {
+            return false;
         }
 
-        return (typeParameters.length != 0) ? "<" + String.join(", ", generics) + "> " : whitespace;
+        output.append('<');
+        for (int i = 0; i < typeParameters.length; i++) {
+            if (i != 0) {
+                output.append(", ");
+            }
+            appendTypeParameter(typeParameters[i], context);
+        }
+        output.append("> ");
+
+        return true;
+    }
+
+    public void appendTypeParameter(TypeVariable<?> typeParameter, RenderContext context) {
+        context.getOutput().append(typeParameter.getName());
+        appendBounds(typeParameter, context);
     }
 
-    private List<String> getBounds(TypeVariable parameter) {
-        List<String> bounds = new ArrayList<>();
+    private void appendBounds(TypeVariable parameter, RenderContext context) {
+        boolean first = true;
         for (Type bound : parameter.getBounds()) {
-            String boundType = resolveType(bound);
-            if (!boundType.isEmpty()) {
-                bounds.add(boundType);
+            if (isResolvable(bound)) {
+                context.getOutput().append(first ? " extends " : " & ");
+                resolveType(bound, context);
+                first = false;
             }
         }
-        return bounds;
     }
 
-    public String resolveType(Type type) {
-        String boundType = "";
+    public boolean isResolvable(Type type) {
+        return type instanceof Class
+                || type instanceof TypeVariable
+                || type instanceof ParameterizedType
+                || type instanceof GenericArrayType;
+    }
+
+    public void resolveType(Type type, RenderContext context) {
+        Output output = context.getOutput();
 
         if (type instanceof Class) {
             Class clazz = Class.class.cast(type);
-            boundType = new NameUtils().getTypeName(clazz);
+            output.append(context.getNameUtils().getTypeName(clazz));
 
         } else if (type instanceof TypeVariable) {
-            boundType = TypeVariable.class.cast(type).getName();
+            output.append(TypeVariable.class.cast(type).getName());
 
-        } else if (type instanceof ParameterizedType) {
-            ParameterizedType parameterizedType = ParameterizedType.class.cast(type);
+        } else if (type instanceof ParameterizedType || type instanceof GenericArrayType) {
+            // Fields, arguments and return types of a class tend to repeat the same generic types
+            if (!isMemoizable(type)) {
+                output.append(resolveComposedType(type, context));
+                return;
+            }
 
-            String parameterizedTypeTypeName = new NameUtils().getTypeName(Class.class.cast(parameterizedType.getRawType()));
+            Map<Type, String> resolvedTypes = context.getResolvedTypes();
+
+            String resolvedType = resolvedTypes.get(type);
+            if (resolvedType == null) {
+                resolvedType = resolveComposedType(type, context);
+                resolvedTypes.put(type, resolvedType);
+            }
+            output.append(resolvedType);
+        }
+    }
 
-            String genericArguments = "<" + String.join(", ", getGenericArguments(parameterizedType)) + ">";
+    private boolean isMemoizable(Type type) {
+        Deque<Type> stack = new ArrayDeque<>();
+        stack.push(type);
 
-            boundType = parameterizedTypeTypeName + genericArguments;
+        int size = 0;
+        while (!stack.isEmpty()) {
+            if (++size > MAX_MEMOIZED_TYPE_SIZE) {
+                return false;
+            }
 
-        } else if (type instanceof GenericArrayType) {
-            GenericArrayType genericArrayType = GenericArrayType.class.cast(type);
-            boundType = resolveType(genericArrayType.getGenericComponentType());
-            boundType += "[]";
+            Type part = stack.pop();
+            if (part instanceof ParameterizedType) {
+                ParameterizedType parameterizedType = ParameterizedType.class.cast(part);
+                pushAll(parameterizedType.getActualTypeArguments(), stack);
+                if (parameterizedType.getOwnerType() != null) {
+                    stack.push(parameterizedType.getOwnerType());
+                }
+            } else if (part instanceof GenericArrayType) {
+                stack.push(GenericArrayType.class.cast(part).getGenericComponentType());
+            } else if (part instanceof WildcardType) {
+                WildcardType wildcardType = WildcardType.class.cast(part);
+                pushAll(wildcardType.getUpperBounds(), stack);
+                pushAll(wildcardType.getLowerBounds(), stack);
+            }
         }
+        return true;
+    }
 
-        return boundType;
+    private void pushAll(Type[] types, Deque<Type> stack) {
+        for (Type type : types) {
+            stack.push(type);
+        }
     }
 
-    private List<String> getGenericArguments(ParameterizedType parameterizedType) {
-        List<String> genericArguments = new ArrayList<>();
+    /**
+     * Walks the type tree with an explicit stack of types and literals,
+     * so deeply nested generated generics cannot overflow the thread stack.
+     */
+    private String resolveComposedType(Type type, RenderContext context) {
+        StringBuilder resolvedType = new StringBuilder();
+
+        Deque<Object> stack = new ArrayDeque<>();
+        stack.push(type);
+
+        List<Object> parts = new ArrayList<>();
+        while (!stack.isEmpty()) {
+            Object part = stack.pop();
+
+            if (part instanceof String) {
+                resolvedType.append((String) part);
+
+            } else if (part instanceof Class) {
+                resolvedType.append(context.getNameUtils().getTypeName(Class.class.cast(part)));
+
+            } else if (part instanceof TypeVariable) {
+                resolvedType.append(TypeVariable.class.cast(part).getName());
+
+            } else if (part instanceof ParameterizedType) {
+                ParameterizedType parameterizedType = ParameterizedType.class.cast(part);
+
+                resolvedType.append(context.getNameUtils().getTypeName(Class.class.cast(parameterizedType.getRawType())));
+                resolvedType.append('<');
+
+                addGenericArguments(parameterizedType, parts);
+                parts.add(">");
+                pushReversed(parts, stack);
+
+            } else if (part instanceof GenericArrayType) {
+                stack.push("[]");
+                stack.push(GenericArrayType.class.cast(part).getGenericComponentType());
+            }
+        }
 
+        return resolvedType.toString();
+    }
+
+    private void addGenericArguments(ParameterizedType parameterizedType, List<Object> parts) {
         Type[] actualTypeArguments = parameterizedType.getActualTypeArguments();
-        for (Type actualTypeArgument : actualTypeArguments) {
+        for (int i = 0; i < actualTypeArguments.length; i++) {
+            if (i != 0) {
+                parts.add(", ");
+            }
+
+            Type actualTypeArgument = actualTypeArguments[i];
             if (actualTypeArgument instanceof WildcardType) {
                 WildcardType wildcardType = WildcardType.class.cast(actualTypeArgument);
-                String wildcard = "?";
-                wildcard += getWildCardsBound(wildcardType.getUpperBounds(), "extends");
-                wildcard += getWildCardsBound(wildcardType.getLowerBounds(), "super");
-                genericArguments.add(wildcard);
+                parts.add("?");
+                addWildCardsBound(wildcardType.getUpperBounds(), " extends ", parts);
+                addWildCardsBound(wildcardType.getLowerBounds(), " super ", parts);
             } else {
-                genericArguments.add(resolveType(actualTypeArgument));
+                parts.add(actualTypeArgument);
             }
         }
-
-        return genericArguments;
     }
 
-    private String getWildCardsBound(Type[] types, String boundCase) {
-        String wildcard = "";
+    private void addWildCardsBound(Type[] types, String boundCase, List<Object> parts) {
         if (types.length != 0) {
-            wildcard = " " + boundCase + " ";
-            List<String> bounds = new ArrayList<>();
-            for (Type bound : types) {
-                bounds.add(resolveType(bound));
+            parts.add(boundCase);
+            for (int i = 0; i < types.length; i++) {
+                if (i != 0) {
+                    parts.add(" & ");
+                }
+                parts.add(types[i]);
             }
-            wildcard += String.join(" & ", bounds);
         }
-        return wildcard;
+    }
+
+    private void pushReversed(List<Object> parts, Deque<Object> stack) {
+        for (int i = parts.size() - 1; i >= 0; i--) {
+            stack.push(parts.get(i));
+        }
+        parts.clear();
     }
 }
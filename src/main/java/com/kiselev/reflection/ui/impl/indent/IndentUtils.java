@@ -1,32 +1,45 @@
 package com.kiselev.reflection.ui.impl.indent;
 
-import java.lang.reflect.Member;
-
 public class IndentUtils {
 
-    public String getIndent(Object object) {
-        String indent = "";
+    private static final String INDENT = "    ";
 
-        Class<?> declaringClass;
+    private volatile String[] indents = createIndents(16);
 
-        if (object instanceof Member) {
+    public String getIndent(int depth) {
+        String[] indents = this.indents;
+        if (depth >= indents.length) {
+            indents = growIndents(depth + 1);
+        }
+        return indents[depth];
+    }
 
-            Member member = Member.class.cast(object);
-            declaringClass = member.getDeclaringClass();
+    public int getDepth(Class<?> clazz) {
+        int depth = 0;
 
-            if (declaringClass != null) {
-                indent += "    ";
-            }
-        } else if (object instanceof Class){
-            declaringClass = Class.class.cast(object);
-        } else {
-            return "";
+        Class<?> declaringClass = clazz;
+        while ((declaringClass = declaringClass.getDeclaringClass()) != null) {
+            depth++;
         }
 
-        while ((declaringClass = declaringClass.getDeclaringClass()) != null) {
-            indent += "    ";
+        return depth;
+    }
+
+    private synchronized String[] growIndents(int size) {
+        if (size > indents.length) {
+            indents = createIndents(Math.max(size, indents.length * 2));
+        }
+        return indents;
+    }
+
+    private static String[] createIndents(int size) {
+        String[] indents = new String[size];
+
+        indents[0] = "";
+        for (int i = 1; i < size; i++) {
+            indents[i] = indents[i - 1] + INDENT;
         }
 
-        return indent;
+        return indents;
     }
 }
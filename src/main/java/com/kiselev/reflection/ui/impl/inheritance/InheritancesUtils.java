@@ -1,43 +1,51 @@
 package com.kiselev.reflection.ui.impl.inheritance;
 
-import com.kiselev.reflection.ui.impl.generic.GenericsUtils;
+import com.kiselev.reflection.ui.impl.context.RenderContext;
+import com.kiselev.reflection.ui.impl.output.Output;
+import com.kiselev.reflection.ui.impl.snapshot.ClassSnapshot;
 
 import java.lang.reflect.Type;
-import java.util.ArrayList;
-import java.util.List;
 
 public class InheritancesUtils {
 
-    public String getInheritances(Class<?> clazz) {
-        String inheritances = "";
+    public void appendInheritances(ClassSnapshot snapshot, RenderContext context) {
+        appendSuperClass(snapshot, context);
 
-        inheritances += getSuperClass(clazz);
+        appendInterfaces(snapshot, context);
+    }
 
-        inheritances += getInterfaces(clazz);
+    private void appendSuperClass(ClassSnapshot snapshot, RenderContext context) {
+        Output output = context.getOutput();
 
-        return inheritances;
+        Type superClass = snapshot.getGenericSuperclass();
+        if (context.getGenericsUtils().isResolvable(superClass)) {
+            output.append("extends ");
+            appendSingleParentType(superClass, context);
+            output.append(' ');
+        }
     }
 
-    private String getSuperClass(Class<?> clazz) {
-        String superClass = getSingleParentType(clazz.getGenericSuperclass());
-        return (!superClass.isEmpty()) ? "extends " + superClass + " " : "";
-    }
+    private void appendInterfaces(ClassSnapshot snapshot, RenderContext context) {
+        Output output = context.getOutput();
 
-    private String getInterfaces(Class<?> clazz) {
-        String interfaces = String.join(", ", getMultipleParentTypes(clazz.getGenericInterfaces()));
-        String relationship = clazz.isInterface() ? "extends " : "implements ";
-        return (!interfaces.isEmpty()) ? relationship + interfaces + " " : "";
+        Type[] interfaces = snapshot.getGenericInterfaces();
+        if (interfaces.length != 0) {
+            output.append(snapshot.isInterface() ? "extends " : "implements ");
+            appendMultipleParentTypes(interfaces, context);
+            output.append(' ');
+        }
     }
 
-    private List<String> getMultipleParentTypes(Type[] parentTypes) {
-        List<String> multipleParentTypes = new ArrayList<>();
-        for (Type superType : parentTypes) {
-            multipleParentTypes.add(getSingleParentType(superType));
+    private void appendMultipleParentTypes(Type[] parentTypes, RenderContext context) {
+        for (int i = 0; i < parentTypes.length; i++) {
+            if (i != 0) {
+                context.getOutput().append(", ");
+            }
+            appendSingleParentType(parentTypes[i], context);
         }
-        return multipleParentTypes;
     }
 
-    private String getSingleParentType(Type parentType) {
-        return new GenericsUtils().resolveType(parentType);
+    private void appendSingleParentType(Type parentType, RenderContext context) {
+        context.getGenericsUtils().resolveType(parentType, context);
     }
 }
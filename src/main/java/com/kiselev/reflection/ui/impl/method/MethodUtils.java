@@ -1,80 +1,80 @@
 package com.kiselev.reflection.ui.impl.method;
 
-import com.kiselev.reflection.ui.impl.annotation.AnnotationUtils;
-import com.kiselev.reflection.ui.impl.argument.ArgumentUtils;
-import com.kiselev.reflection.ui.impl.exception.ExceptionUtils;
-import com.kiselev.reflection.ui.impl.generic.GenericsUtils;
-import com.kiselev.reflection.ui.impl.indent.IndentUtils;
-import com.kiselev.reflection.ui.impl.modifier.ModifiersUtils;
-import com.kiselev.reflection.ui.impl.value.ValueUtils;
-
-import java.lang.reflect.Method;
+import com.kiselev.reflection.ui.impl.context.RenderContext;
+import com.kiselev.reflection.ui.impl.metrics.RenderMetrics;
+import com.kiselev.reflection.ui.impl.output.Output;
+import com.kiselev.reflection.ui.impl.snapshot.ClassSnapshot;
+import com.kiselev.reflection.ui.impl.snapshot.ExecutableSnapshot;
+
 import java.lang.reflect.Modifier;
-import java.util.ArrayList;
-import java.util.List;
 
 public class MethodUtils {
 
-    public String getMethods(Class<?> clazz) {
-        String methods = "";
+    public boolean appendMethods(Class<?> clazz, boolean separate, RenderContext context) {
+        Output output = context.getOutput();
 
-        List<String> methodList = new ArrayList<>();
-        for (Method method : clazz.getDeclaredMethods()) {
-            methodList.add(getMethod(method));
+        ExecutableSnapshot[] methods = context.getFilterUtils().filterMethods(ClassSnapshot.getSnapshot(clazz).getMethods(), context);
+        if (methods.length == 0) {
+            return false;
         }
+        RenderMetrics.addRenderedMembers(methods.length);
 
-        if (!methodList.isEmpty()) {
-            methods += String.join("\n\n", methodList) + "\n";
+        if (separate) {
+            output.append('\n');
         }
+        context.getParallelUtils().appendMembers(methods, this::appendMethod, context);
+        output.append('\n');
 
-        return methods;
+        return true;
     }
 
-    private String getMethod(Method method) {
-        String methodSignature = "";
-
-        String annotations = new AnnotationUtils().getAnnotations(method);
+    public void appendMethod(ExecutableSnapshot method, RenderContext context) {
+        Output output = context.getOutput();
 
-        String indent = new IndentUtils().getIndent(method);
+        String indent = context.getMemberIndent();
 
-        String isDefault = method.isDefault() ? "default " : "";
+        context.getAnnotationUtils().appendAnnotations(method.getAnnotations(), indent, context);
 
-        String modifiers = new ModifiersUtils().getModifiers(method.getModifiers());
+        output.append(indent);
 
-        String generics = new GenericsUtils().getGenerics(method);
+        if (method.isDefault()) {
+            output.append("default ");
+        }
 
-        String returnType = new GenericsUtils().resolveType(method.getGenericReturnType());
+        context.getModifiersUtils().appendModifiers(method.getModifiers(), context);
 
-        String methodName = method.getName();
+        context.getGenericsUtils().appendGenerics(method, context);
 
-        String arguments = new ArgumentUtils().getArguments(method);
+        context.getGenericsUtils().resolveType(method.getGenericReturnType(), context);
 
-        String defaultAnnotationValue = getDefaultAnnotationValue(method);
+        output.append(' ').append(method.getName());
 
-        String exceptions = new ExceptionUtils().getExceptions(method);
+        context.getArgumentUtils().appendArguments(method, context);
 
-        String body = isMethodRealization(method) ? " {\n" + indent + "}" : ";";
+        appendDefaultAnnotationValue(method, context);
 
-        methodSignature += annotations + indent + isDefault + modifiers + generics + returnType + " " + methodName + arguments + defaultAnnotationValue + exceptions + body;
+        context.getExceptionUtils().appendExceptions(method, context);
 
-        return methodSignature;
+        if (isMethodRealization(method)) {
+            output.append(" {\n").append(indent).append('}');
+        } else {
+            output.append(';');
+        }
     }
 
-    private String getDefaultAnnotationValue(Method method) {
-        String defaultAnnotationValue = "";
-
-        if (method.getDeclaringClass().isAnnotation()) {
-            String defaultValue = new ValueUtils().getValue(method.getDefaultValue());
-
-            if (defaultValue != null) {
-                defaultAnnotationValue += " default " + defaultValue;
-            }
+    private void appendDefaultAnnotationValue(ExecutableSnapshot method, RenderContext context) {
+        if (hasDefaultAnnotationValue(method, context)) {
+            context.getOutput().append(" default ");
+            context.getValueUtils().appendValue(method.getDefaultValue(), context);
         }
+    }
 
-        return defaultAnnotationValue;
+    public boolean hasDefaultAnnotationValue(ExecutableSnapshot method, RenderContext context) {
+        // Only annotation members have a default value in the snapshot
+        return context.getValueUtils().isValue(method.getDefaultValue());
     }
 
-    private boolean isMethodRealization(Method method) {
+    public boolean isMethodRealization(ExecutableSnapshot method) {
         return !Modifier.isAbstract(method.getModifiers()) && !Modifier.isNative(method.getModifiers());
     }
 }
@@ -0,0 +1,200 @@
+package com.kiselev.reflection.ui.impl.metrics;
+
+import com.kiselev.reflection.ui.bytecode.assembly.build.constant.Constants;
+import com.kiselev.reflection.ui.impl.cache.RenderCache;
+
+import javax.management.JMException;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counters and per-stage latency histograms of the renderer, published as a platform MBean.
+ * The MBean is registered on the first rendered class, enabled or not, so metrics can be switched on over JMX,
+ * or explicitly by {@link #registerMBean()}. While disabled every probe costs a single volatile read.
+ */
+public class RenderMetrics {
+
+    private static final String OBJECT_NAME = "com.kiselev.reflection.ui:type=RenderMetrics";
+
+    private static volatile boolean enabled = Boolean.getBoolean(Constants.Properties.RENDER_METRICS);
+
+    private static final Map<RenderStage, LatencyHistogram> histograms = createHistograms();
+
+    private static final LongAdder classesRendered = new LongAdder();
+
+    private static final LongAdder membersRendered = new LongAdder();
+
+    private static final LongAdder charactersProduced = new LongAdder();
+
+    private static ObjectName registeredName;
+
+    private static volatile boolean registrationAttempted;
+
+    public static boolean isEnabled() {
+        return enabled;
+    }
+
+    public static void setEnabled(boolean enabled) {
+        RenderMetrics.enabled = enabled;
+    }
+
+    /**
+     * Publishes the metrics as a platform MBean, returns false when it could not be registered.
+     */
+    public static synchronized boolean registerMBean() {
+        if (registeredName != null) {
+            return true;
+        }
+
+        try {
+            ObjectName name = new ObjectName(OBJECT_NAME);
+            ManagementFactory.getPlatformMBeanServer().registerMBean(new RenderMetricsBean(), name);
+            registeredName = name;
+            return true;
+        } catch (JMException | SecurityException exception) {
+            // Another class loader may have already published its copy of the library
+            return false;
+        } finally {
+            registrationAttempted = true;
+        }
+    }
+
+    /**
+     * Removes the MBean, so the platform MBean server no longer holds the class loader of the library.
+     */
+    public static synchronized void unregisterMBean() {
+        if (registeredName != null) {
+            try {
+                ManagementFactory.getPlatformMBeanServer().unregisterMBean(registeredName);
+            } catch (JMException exception) {
+                // Already unregistered through the MBean server
+            }
+            registeredName = null;
+        }
+    }
+
+    /**
+     * Returns the start time of a stage, or 0 when metrics are disabled.
+     */
+    public static long start() {
+        return enabled ? System.nanoTime() : 0;
+    }
+
+    public static void record(RenderStage stage, long start) {
+        // Stages started while disabled are not recorded even if metrics were enabled meanwhile
+        if (start != 0) {
+            histograms.get(stage).record(System.nanoTime() - start);
+        }
+    }
+
+    public static void addRenderedClass() {
+        if (!registrationAttempted) {
+            registerMBean();
+        }
+
+        if (enabled) {
+            classesRendered.increment();
+        }
+    }
+
+    public static void addRenderedMembers(int count) {
+        if (enabled) {
+            membersRendered.add(count);
+        }
+    }
+
+    public static void addProducedCharacters(long count) {
+        if (enabled) {
+            charactersProduced.add(count);
+        }
+    }
+
+    public static long getClassesRendered() {
+        return classesRendered.sum();
+    }
+
+    public static long getMembersRendered() {
+        return membersRendered.sum();
+    }
+
+    public static long getCharactersProduced() {
+        return charactersProduced.sum();
+    }
+
+    public static Map<String, StageStatistics> getStageStatistics() {
+        Map<String, StageStatistics> stageStatistics = new LinkedHashMap<>();
+        for (Map.Entry<RenderStage, LatencyHistogram> histogram : histograms.entrySet()) {
+            stageStatistics.put(histogram.getKey().name(), new StageStatistics(histogram.getValue()));
+        }
+        return stageStatistics;
+    }
+
+    public static void reset() {
+        for (LatencyHistogram histogram : histograms.values()) {
+            histogram.reset();
+        }
+        classesRendered.reset();
+        membersRendered.reset();
+        charactersProduced.reset();
+    }
+
+    private static Map<RenderStage, LatencyHistogram> createHistograms() {
+        Map<RenderStage, LatencyHistogram> histograms = new EnumMap<>(RenderStage.class);
+        for (RenderStage stage : RenderStage.values()) {
+            histograms.put(stage, new LatencyHistogram());
+        }
+        return histograms;
+    }
+
+    private static class RenderMetricsBean implements RenderMetricsMXBean {
+
+        @Override
+        public boolean isEnabled() {
+            return RenderMetrics.isEnabled();
+        }
+
+        @Override
+        public void setEnabled(boolean enabled) {
+            RenderMetrics.setEnabled(enabled);
+        }
+
+        @Override
+        public long getClassesRendered() {
+            return RenderMetrics.getClassesRendered();
+        }
+
+        @Override
+        public long getMembersRendered() {
+            return RenderMetrics.getMembersRendered();
+        }
+
+        @Override
+        public long getCharactersProduced() {
+            return RenderMetrics.getCharactersProduced();
+        }
+
+        @Override
+        public long getCacheHits() {
+            return RenderCache.getHitCount();
+        }
+
+        @Override
+        public long getCacheMisses() {
+            return RenderCache.getMissCount();
+        }
+
+        @Override
+        public Map<String, StageStatistics> getStageStatistics() {
+            return RenderMetrics.getStageStatistics();
+        }
+
+        @Override
+        public void reset() {
+            RenderMetrics.reset();
+        }
+    }
+}
@@ -0,0 +1,24 @@
+package com.kiselev.reflection.ui.impl.metrics;
+
+import java.util.Map;
+
+public interface RenderMetricsMXBean {
+
+    boolean isEnabled();
+
+    void setEnabled(boolean enabled);
+
+    long getClassesRendered();
+
+    long getMembersRendered();
+
+    long getCharactersProduced();
+
+    long getCacheHits();
+
+    long getCacheMisses();
+
+    Map<String, StageStatistics> getStageStatistics();
+
+    void reset();
+}
@@ -0,0 +1,22 @@
+package com.kiselev.reflection.ui.impl.metrics;
+
+/**
+ * Stages timed by {@link RenderMetrics}. Annotations and generics are timed wherever they are rendered,
+ * in class headers and members alike, so their time is also part of the signature and members stages.
+ */
+public enum RenderStage {
+
+    CLASS,
+
+    SIGNATURE,
+
+    // Annotations of classes, members and parameters
+    ANNOTATIONS,
+
+    // Type parameter declarations of classes, methods and constructors
+    GENERICS,
+
+    MEMBERS,
+
+    NESTED_CLASSES
+}
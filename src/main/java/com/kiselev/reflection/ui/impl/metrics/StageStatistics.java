@@ -0,0 +1,51 @@
+package com.kiselev.reflection.ui.impl.metrics;
+
+/**
+ * Immutable snapshot of one render stage, percentiles are bucket upper bounds.
+ */
+public class StageStatistics {
+
+    private final long count;
+
+    private final long totalNanos;
+
+    private final long maxNanos;
+
+    private final long medianNanos;
+
+    private final long percentile99Nanos;
+
+    public StageStatistics(LatencyHistogram histogram) {
+        this.count = histogram.getCount();
+        this.totalNanos = histogram.getTotalNanos();
+        this.maxNanos = histogram.getMaxNanos();
+        this.medianNanos = histogram.getPercentileNanos(50);
+        this.percentile99Nanos = histogram.getPercentileNanos(99);
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public long getTotalNanos() {
+        return totalNanos;
+    }
+
+    public long getMaxNanos() {
+        return maxNanos;
+    }
+
+    public long getMedianNanos() {
+        return medianNanos;
+    }
+
+    public long getPercentile99Nanos() {
+        return percentile99Nanos;
+    }
+
+    @Override
+    public String toString() {
+        return "count=" + count + ", total=" + totalNanos + "ns, median<=" + medianNanos
+                + "ns, p99<=" + percentile99Nanos + "ns, max=" + maxNanos + "ns";
+    }
+}
@@ -0,0 +1,99 @@
+package com.kiselev.reflection.ui.impl.model;
+
+import com.kiselev.reflection.ui.api.model.ClassModel;
+import com.kiselev.reflection.ui.api.model.MemberModel;
+import com.kiselev.reflection.ui.api.model.ModelRenderer;
+import com.kiselev.reflection.ui.api.model.ParameterModel;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+/**
+ * Renders the model in a compact binary form: a magic number and version, then every
+ * value in model order. Strings are UTF-8 prefixed with their length in bytes, -1 for null,
+ * lists are prefixed with their size.
+ */
+public class BinaryModelRenderer implements ModelRenderer<byte[]> {
+
+    public static final int MAGIC = 0x52554D31;
+
+    public static final int VERSION = 1;
+
+    @Override
+    public byte[] render(ClassModel classModel) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+
+        try (DataOutputStream output = new DataOutputStream(bytes)) {
+            output.writeInt(MAGIC);
+            output.writeShort(VERSION);
+            writeClass(classModel, output);
+        } catch (IOException exception) {
+            throw new RuntimeException(exception);
+        }
+
+        return bytes.toByteArray();
+    }
+
+    private void writeClass(ClassModel classModel, DataOutputStream output) throws IOException {
+        writeString(classModel.getPackageName(), output);
+        output.writeShort(classModel.getDepth());
+        writeStrings(classModel.getAnnotations(), output);
+        writeStrings(classModel.getModifiers(), output);
+        writeString(classModel.getType(), output);
+        writeString(classModel.getName(), output);
+        writeStrings(classModel.getTypeParameters(), output);
+        writeString(classModel.getSuperClass(), output);
+        writeStrings(classModel.getInterfaces(), output);
+        writeMembers(classModel.getFields(), output);
+        writeMembers(classModel.getConstructors(), output);
+        writeMembers(classModel.getMethods(), output);
+
+        output.writeInt(classModel.getNestedClasses().size());
+        for (ClassModel nestedClass : classModel.getNestedClasses()) {
+            writeClass(nestedClass, output);
+        }
+    }
+
+    private void writeMembers(List<MemberModel> members, DataOutputStream output) throws IOException {
+        output.writeInt(members.size());
+        for (MemberModel member : members) {
+            output.writeByte(member.getKind().ordinal());
+            writeStrings(member.getAnnotations(), output);
+            writeStrings(member.getModifiers(), output);
+            writeStrings(member.getTypeParameters(), output);
+            writeString(member.getType(), output);
+            writeString(member.getName(), output);
+
+            output.writeInt(member.getParameters().size());
+            for (ParameterModel parameter : member.getParameters()) {
+                writeStrings(parameter.getAnnotations(), output);
+                writeString(parameter.getType(), output);
+                writeString(parameter.getName(), output);
+            }
+
+            writeStrings(member.getExceptions(), output);
+            writeString(member.getDefaultValue(), output);
+            output.writeBoolean(member.hasBody());
+        }
+    }
+
+    private void writeStrings(List<String> values, DataOutputStream output) throws IOException {
+        output.writeInt(values.size());
+        for (String value : values) {
+            writeString(value, output);
+        }
+    }
+
+    private void writeString(String value, DataOutputStream output) throws IOException {
+        if (value == null) {
+            output.writeInt(-1);
+        } else {
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            output.writeInt(bytes.length);
+            output.write(bytes);
+        }
+    }
+}
@@ -0,0 +1,187 @@
+package com.kiselev.reflection.ui.impl.model;
+
+import com.kiselev.reflection.ui.api.model.ClassModel;
+import com.kiselev.reflection.ui.api.model.MemberKind;
+import com.kiselev.reflection.ui.api.model.MemberModel;
+import com.kiselev.reflection.ui.api.model.ParameterModel;
+import com.kiselev.reflection.ui.impl.ReflectionUIImpl;
+import com.kiselev.reflection.ui.impl.context.RenderContext;
+import com.kiselev.reflection.ui.impl.output.Output;
+import com.kiselev.reflection.ui.impl.snapshot.ClassSnapshot;
+import com.kiselev.reflection.ui.impl.snapshot.ExecutableSnapshot;
+import com.kiselev.reflection.ui.impl.snapshot.FieldSnapshot;
+import com.kiselev.reflection.ui.impl.snapshot.ParameterSnapshot;
+
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Type;
+import java.lang.reflect.TypeVariable;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Builds the class model in one reflection pass. Every part is rendered by the same
+ * utils as the source output into a scratch buffer and kept as a string.
+ */
+public class ClassModelUtils {
+
+    public ClassModel createClassModel(Class<?> clazz, ReflectionUIImpl reflectionUI) {
+        StringBuilder fragment = new StringBuilder();
+        return createClassModel(clazz, fragment, new RenderContext(reflectionUI, clazz, new Output(fragment)));
+    }
+
+    private ClassModel createClassModel(Class<?> clazz, StringBuilder fragment, RenderContext context) {
+        ClassModel.Builder builder = ClassModel.getBuilder().addDepth(context.getDepth());
+
+        ClassSnapshot snapshot = ClassSnapshot.getSnapshot(clazz);
+
+        builder.addPackageName(snapshot.getPackageName());
+
+        for (String annotation : getAnnotations(snapshot.getAnnotations(), fragment, context)) {
+            builder.addAnnotation(annotation);
+        }
+        for (String modifier : getModifiers(snapshot.getModifiers(), fragment, context)) {
+            builder.addModifier(modifier);
+        }
+        builder.addType(context.getTypeUtils().getType(snapshot).trim());
+        builder.addName(context.getNameUtils().getTypeName(clazz));
+        for (String typeParameter : getTypeParameters(snapshot.getTypeParameters(), fragment, context)) {
+            builder.addTypeParameter(typeParameter);
+        }
+
+        Type superClass = snapshot.getGenericSuperclass();
+        if (context.getGenericsUtils().isResolvable(superClass)) {
+            builder.addSuperClass(getType(superClass, fragment, context));
+        }
+        for (Type interfaceType : snapshot.getGenericInterfaces()) {
+            builder.addInterface(getType(interfaceType, fragment, context));
+        }
+
+        for (FieldSnapshot field : snapshot.getFields()) {
+            builder.addField(createFieldModel(field, fragment, context));
+        }
+        for (ExecutableSnapshot constructor : snapshot.getConstructors()) {
+            builder.addConstructor(createConstructorModel(constructor, fragment, context));
+        }
+        for (ExecutableSnapshot method : snapshot.getMethods()) {
+            builder.addMethod(createMethodModel(method, fragment, context));
+        }
+
+        int depth = context.getDepth();
+        for (Class<?> declaredClass : snapshot.getDeclaredClasses()) {
+            context.enterNestedClass(declaredClass);
+            builder.addNestedClass(createClassModel(declaredClass, fragment, context));
+            context.exitNestedClass(depth);
+        }
+
+        return builder.build();
+    }
+
+    private MemberModel createFieldModel(FieldSnapshot field, StringBuilder fragment, RenderContext context) {
+        MemberModel.Builder builder = MemberModel.getBuilder().addKind(MemberKind.FIELD);
+
+        for (String annotation : getAnnotations(field.getAnnotations(), fragment, context)) {
+            builder.addAnnotation(annotation);
+        }
+        for (String modifier : getModifiers(field.getModifiers(), fragment, context)) {
+            builder.addModifier(modifier);
+        }
+
+        return builder.addType(getType(field.getGenericType(), fragment, context))
+                .addName(field.getName())
+                .build();
+    }
+
+    private MemberModel createConstructorModel(ExecutableSnapshot constructor, StringBuilder fragment, RenderContext context) {
+        MemberModel.Builder builder = MemberModel.getBuilder().addKind(MemberKind.CONSTRUCTOR);
+
+        appendExecutable(builder, constructor, fragment, context);
+
+        return builder.addName(context.getNameUtils().getTypeName(constructor.getDeclaringClass()))
+                .addBody(true)
+                .build();
+    }
+
+    private MemberModel createMethodModel(ExecutableSnapshot method, StringBuilder fragment, RenderContext context) {
+        MemberModel.Builder builder = MemberModel.getBuilder().addKind(MemberKind.METHOD);
+
+        if (method.isDefault()) {
+            builder.addModifier("default");
+        }
+        appendExecutable(builder, method, fragment, context);
+
+        if (context.getMethodUtils().hasDefaultAnnotationValue(method, context)) {
+            context.getValueUtils().appendValue(method.getDefaultValue(), context);
+            builder.addDefaultValue(takeFragment(fragment));
+        }
+
+        return builder.addType(getType(method.getGenericReturnType(), fragment, context))
+                .addName(method.getName())
+                .addBody(context.getMethodUtils().isMethodRealization(method))
+                .build();
+    }
+
+    private void appendExecutable(MemberModel.Builder builder, ExecutableSnapshot executable,
+                                  StringBuilder fragment, RenderContext context) {
+        for (String annotation : getAnnotations(executable.getAnnotations(), fragment, context)) {
+            builder.addAnnotation(annotation);
+        }
+        for (String modifier : getModifiers(executable.getModifiers(), fragment, context)) {
+            builder.addModifier(modifier);
+        }
+        for (String typeParameter : getTypeParameters(executable.getTypeParameters(), fragment, context)) {
+            builder.addTypeParameter(typeParameter);
+        }
+
+        for (ParameterSnapshot parameter : executable.getParameters()) {
+            List<String> annotations = getAnnotations(parameter.getAnnotations(), fragment, context);
+
+            context.getArgumentUtils().appendArgumentType(parameter, context);
+            builder.addParameter(new ParameterModel(annotations, takeFragment(fragment), parameter.getName()));
+        }
+
+        for (Type exceptionType : executable.getGenericExceptionTypes()) {
+            builder.addException(getType(exceptionType, fragment, context));
+        }
+    }
+
+    private List<String> getAnnotations(Annotation[] annotations, StringBuilder fragment, RenderContext context) {
+        List<String> renderedAnnotations = new ArrayList<>(annotations.length);
+        for (Annotation annotation : annotations) {
+            context.getAnnotationUtils().appendAnnotation(annotation, context);
+            renderedAnnotations.add(takeFragment(fragment));
+        }
+        return renderedAnnotations;
+    }
+
+    private List<String> getModifiers(int modifiers, StringBuilder fragment, RenderContext context) {
+        context.getModifiersUtils().appendModifiers(modifiers, context);
+
+        List<String> renderedModifiers = new ArrayList<>();
+        for (String modifier : takeFragment(fragment).split(" ")) {
+            if (!modifier.isEmpty()) {
+                renderedModifiers.add(modifier);
+            }
+        }
+        return renderedModifiers;
+    }
+
+    private List<String> getTypeParameters(TypeVariable<?>[] typeParameters, StringBuilder fragment, RenderContext context) {
+        List<String> renderedTypeParameters = new ArrayList<>(typeParameters.length);
+        for (TypeVariable<?> typeParameter : typeParameters) {
+            context.getGenericsUtils().appendTypeParameter(typeParameter, context);
+            renderedTypeParameters.add(takeFragment(fragment));
+        }
+        return renderedTypeParameters;
+    }
+
+    private String getType(Type type, StringBuilder fragment, RenderContext context) {
+        context.getGenericsUtils().resolveType(type, context);
+        return takeFragment(fragment);
+    }
+
+    private String takeFragment(StringBuilder fragment) {
+        String rendered = fragment.toString();
+        fragment.setLength(0);
+        return rendered;
+    }
+}
@@ -0,0 +1,169 @@
+package com.kiselev.reflection.ui.impl.model;
+
+import com.kiselev.reflection.ui.api.model.ClassModel;
+import com.kiselev.reflection.ui.api.model.MemberKind;
+import com.kiselev.reflection.ui.api.model.MemberModel;
+import com.kiselev.reflection.ui.api.model.ModelRenderer;
+import com.kiselev.reflection.ui.api.model.ParameterModel;
+import com.kiselev.reflection.ui.impl.indent.IndentUtils;
+
+import java.util.List;
+
+/**
+ * Renders the model as the same Java-like source that parseClass produces.
+ */
+public class JavaModelRenderer implements ModelRenderer<String> {
+
+    private final IndentUtils indentUtils = new IndentUtils();
+
+    @Override
+    public String render(ClassModel classModel) {
+        StringBuilder output = new StringBuilder();
+        appendClass(classModel, output);
+        return output.toString();
+    }
+
+    private void appendClass(ClassModel classModel, StringBuilder output) {
+        String classIndent = indentUtils.getIndent(classModel.getDepth());
+        String memberIndent = indentUtils.getIndent(classModel.getDepth() + 1);
+
+        if (classModel.getPackageName() != null) {
+            output.append("package ").append(classModel.getPackageName()).append(";\n\n");
+        }
+
+        appendAnnotations(classModel.getAnnotations(), classIndent, output);
+        output.append(classIndent);
+        appendModifiers(classModel.getModifiers(), output);
+        output.append(classModel.getType()).append(' ').append(classModel.getName());
+
+        if (!classModel.getTypeParameters().isEmpty()) {
+            appendTypeParameters(classModel.getTypeParameters(), output);
+        } else {
+            output.append(' ');
+        }
+
+        if (classModel.getSuperClass() != null) {
+            output.append("extends ").append(classModel.getSuperClass()).append(' ');
+        }
+        if (!classModel.getInterfaces().isEmpty()) {
+            output.append("interface".equals(classModel.getType()) || "@interface".equals(classModel.getType())
+                    ? "extends " : "implements ");
+            appendList(classModel.getInterfaces(), ", ", output);
+            output.append(' ');
+        }
+
+        output.append("{\n\n");
+
+        boolean hasContent = appendMembers(classModel.getFields(), false, memberIndent, output);
+        hasContent |= appendMembers(classModel.getConstructors(), hasContent, memberIndent, output);
+        hasContent |= appendMembers(classModel.getMethods(), hasContent, memberIndent, output);
+
+        List<ClassModel> nestedClasses = classModel.getNestedClasses();
+        if (!nestedClasses.isEmpty()) {
+            if (hasContent) {
+                output.append('\n');
+            }
+            for (int i = 0; i < nestedClasses.size(); i++) {
+                if (i != 0) {
+                    output.append("\n\n");
+                }
+                appendClass(nestedClasses.get(i), output);
+            }
+            output.append('\n');
+        }
+
+        output.append(classIndent).append('}');
+    }
+
+    private boolean appendMembers(List<MemberModel> members, boolean separate, String indent, StringBuilder output) {
+        if (members.isEmpty()) {
+            return false;
+        }
+
+        if (separate) {
+            output.append('\n');
+        }
+        for (int i = 0; i < members.size(); i++) {
+            if (i != 0) {
+                output.append("\n\n");
+            }
+            appendMember(members.get(i), indent, output);
+        }
+        output.append('\n');
+
+        return true;
+    }
+
+    private void appendMember(MemberModel member, String indent, StringBuilder output) {
+        appendAnnotations(member.getAnnotations(), indent, output);
+        output.append(indent);
+        appendModifiers(member.getModifiers(), output);
+
+        if (member.getKind() == MemberKind.FIELD) {
+            output.append(member.getType()).append(' ').append(member.getName()).append(';');
+            return;
+        }
+
+        if (!member.getTypeParameters().isEmpty()) {
+            appendTypeParameters(member.getTypeParameters(), output);
+        }
+        if (member.getKind() == MemberKind.METHOD) {
+            output.append(member.getType()).append(' ');
+        }
+        output.append(member.getName());
+
+        output.append('(');
+        List<ParameterModel> parameters = member.getParameters();
+        for (int i = 0; i < parameters.size(); i++) {
+            if (i != 0) {
+                output.append(", ");
+            }
+            // Parameter annotations are not indented
+            appendAnnotations(parameters.get(i).getAnnotations(), "", output);
+            output.append(parameters.get(i).getType()).append(' ').append(parameters.get(i).getName());
+        }
+        output.append(')');
+
+        if (member.getDefaultValue() != null) {
+            output.append(" default ").append(member.getDefaultValue());
+        }
+
+        if (!member.getExceptions().isEmpty()) {
+            output.append(" throws ");
+            appendList(member.getExceptions(), ", ", output);
+        }
+
+        if (member.hasBody()) {
+            output.append(" {\n").append(indent).append('}');
+        } else {
+            output.append(';');
+        }
+    }
+
+    private void appendAnnotations(List<String> annotations, String indent, StringBuilder output) {
+        for (String annotation : annotations) {
+            output.append(indent).append(annotation).append('\n');
+        }
+    }
+
+    private void appendModifiers(List<String> modifiers, StringBuilder output) {
+        for (String modifier : modifiers) {
+            output.append(modifier).append(' ');
+        }
+    }
+
+    private void appendTypeParameters(List<String> typeParameters, StringBuilder output) {
+        output.append('<');
+        appendList(typeParameters, ", ", output);
+        output.append("> ");
+    }
+
+    private void appendList(List<String> values, String separator, StringBuilder output) {
+        for (int i = 0; i < values.size(); i++) {
+            if (i != 0) {
+                output.append(separator);
+            }
+            output.append(values.get(i));
+        }
+    }
+}
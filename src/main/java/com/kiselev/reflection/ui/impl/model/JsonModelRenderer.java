@@ -0,0 +1,141 @@
+package com.kiselev.reflection.ui.impl.model;
+
+import com.kiselev.reflection.ui.api.model.ClassModel;
+import com.kiselev.reflection.ui.api.model.MemberModel;
+import com.kiselev.reflection.ui.api.model.ModelRenderer;
+import com.kiselev.reflection.ui.api.model.ParameterModel;
+
+import java.util.List;
+
+/**
+ * Renders the model as a compact JSON document, absent values are written as null.
+ */
+public class JsonModelRenderer implements ModelRenderer<String> {
+
+    @Override
+    public String render(ClassModel classModel) {
+        StringBuilder output = new StringBuilder();
+        appendClass(classModel, output);
+        return output.toString();
+    }
+
+    private void appendClass(ClassModel classModel, StringBuilder output) {
+        output.append('{');
+        appendProperty("package", classModel.getPackageName(), output).append(',');
+        appendStrings("annotations", classModel.getAnnotations(), output).append(',');
+        appendStrings("modifiers", classModel.getModifiers(), output).append(',');
+        appendProperty("type", classModel.getType(), output).append(',');
+        appendProperty("name", classModel.getName(), output).append(',');
+        appendStrings("typeParameters", classModel.getTypeParameters(), output).append(',');
+        appendProperty("superClass", classModel.getSuperClass(), output).append(',');
+        appendStrings("interfaces", classModel.getInterfaces(), output).append(',');
+        appendMembers("fields", classModel.getFields(), output).append(',');
+        appendMembers("constructors", classModel.getConstructors(), output).append(',');
+        appendMembers("methods", classModel.getMethods(), output).append(',');
+
+        appendName("nestedClasses", output).append('[');
+        List<ClassModel> nestedClasses = classModel.getNestedClasses();
+        for (int i = 0; i < nestedClasses.size(); i++) {
+            if (i != 0) {
+                output.append(',');
+            }
+            appendClass(nestedClasses.get(i), output);
+        }
+        output.append("]}");
+    }
+
+    private StringBuilder appendMembers(String name, List<MemberModel> members, StringBuilder output) {
+        appendName(name, output).append('[');
+        for (int i = 0; i < members.size(); i++) {
+            if (i != 0) {
+                output.append(',');
+            }
+            appendMember(members.get(i), output);
+        }
+        return output.append(']');
+    }
+
+    private void appendMember(MemberModel member, StringBuilder output) {
+        output.append('{');
+        appendProperty("kind", member.getKind().name(), output).append(',');
+        appendStrings("annotations", member.getAnnotations(), output).append(',');
+        appendStrings("modifiers", member.getModifiers(), output).append(',');
+        appendStrings("typeParameters", member.getTypeParameters(), output).append(',');
+        appendProperty("type", member.getType(), output).append(',');
+        appendProperty("name", member.getName(), output).append(',');
+
+        appendName("parameters", output).append('[');
+        List<ParameterModel> parameters = member.getParameters();
+        for (int i = 0; i < parameters.size(); i++) {
+            if (i != 0) {
+                output.append(',');
+            }
+            output.append('{');
+            appendStrings("annotations", parameters.get(i).getAnnotations(), output).append(',');
+            appendProperty("type", parameters.get(i).getType(), output).append(',');
+            appendProperty("name", parameters.get(i).getName(), output);
+            output.append('}');
+        }
+        output.append("],");
+
+        appendStrings("exceptions", member.getExceptions(), output).append(',');
+        appendProperty("defaultValue", member.getDefaultValue(), output).append(',');
+        appendName("hasBody", output).append(member.hasBody());
+        output.append('}');
+    }
+
+    private StringBuilder appendStrings(String name, List<String> values, StringBuilder output) {
+        appendName(name, output).append('[');
+        for (int i = 0; i < values.size(); i++) {
+            if (i != 0) {
+                output.append(',');
+            }
+            appendString(values.get(i), output);
+        }
+        return output.append(']');
+    }
+
+    private StringBuilder appendProperty(String name, String value, StringBuilder output) {
+        appendName(name, output);
+        return appendString(value, output);
+    }
+
+    private StringBuilder appendName(String name, StringBuilder output) {
+        return output.append('"').append(name).append("\":");
+    }
+
+    private StringBuilder appendString(String value, StringBuilder output) {
+        if (value == null) {
+            return output.append("null");
+        }
+
+        output.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char symbol = value.charAt(i);
+            switch (symbol) {
+                case '"':
+                    output.append("\\\"");
+                    break;
+                case '\\':
+                    output.append("\\\\");
+                    break;
+                case '\n':
+                    output.append("\\n");
+                    break;
+                case '\r':
+                    output.append("\\r");
+                    break;
+                case '\t':
+                    output.append("\\t");
+                    break;
+                default:
+                    if (symbol < 0x20) {
+                        output.append(String.format("\\u%04x", (int) symbol));
+                    } else {
+                        output.append(symbol);
+                    }
+            }
+        }
+        return output.append('"');
+    }
+}
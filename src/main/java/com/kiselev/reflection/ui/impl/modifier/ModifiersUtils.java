@@ -1,59 +1,38 @@
 package com.kiselev.reflection.ui.impl.modifier;
 
+import com.kiselev.reflection.ui.impl.context.RenderContext;
+import com.kiselev.reflection.ui.impl.output.Output;
+
 import java.lang.reflect.Modifier;
 
 public class ModifiersUtils {
 
     final int SYNTHETIC = 0x00001000;
 
-    public String getModifiers(int modificatorIndex) {
-        String modifiers = "";
-
-        if (Modifier.isPublic(modificatorIndex)) modifiers += "public ";
-        if (Modifier.isProtected(modificatorIndex)) modifiers += "protected ";
-        if (Modifier.isPrivate(modificatorIndex)) modifiers += "private ";
+    public void appendModifiers(int modificatorIndex, RenderContext context) {
+        Output output = context.getOutput();
 
-        if (Modifier.isAbstract(modificatorIndex)) modifiers += "abstract ";
+        if (Modifier.isPublic(modificatorIndex)) output.append("public ");
+        if (Modifier.isProtected(modificatorIndex)) output.append("protected ");
+        if (Modifier.isPrivate(modificatorIndex)) output.append("private ");
 
-        if (Modifier.isSynchronized(modificatorIndex)) modifiers += "synchronized ";
+        if (Modifier.isAbstract(modificatorIndex)) output.append("abstract ");
 
-        if (Modifier.isVolatile(modificatorIndex)) modifiers += "volatile ";
-        if (Modifier.isTransient(modificatorIndex)) modifiers += "transient ";
-        if (Modifier.isStrict(modificatorIndex)) modifiers += "strictfp ";
+        if (Modifier.isSynchronized(modificatorIndex)) output.append("synchronized ");
 
-        if (Modifier.isStatic(modificatorIndex)) modifiers += "static ";
-        if (Modifier.isNative(modificatorIndex)) modifiers += "native ";
+        if (Modifier.isVolatile(modificatorIndex)) output.append("volatile ");
+        if (Modifier.isTransient(modificatorIndex)) output.append("transient ");
+        if (Modifier.isStrict(modificatorIndex)) output.append("strictfp ");
 
-        if (Modifier.isFinal(modificatorIndex)) modifiers += "final ";
+        if (Modifier.isStatic(modificatorIndex)) output.append("static ");
+        if (Modifier.isNative(modificatorIndex)) output.append("native ");
 
-        if (isSynthetic(modificatorIndex)) modifiers += "synthetic ";
+        if (Modifier.isFinal(modificatorIndex)) output.append("final ");
 
-        return modifiers;
+        if (isSynthetic(modificatorIndex)) output.append("synthetic ");
     }
 
     boolean isSynthetic(int modificatorIndex) {
         return (modificatorIndex & SYNTHETIC) != 0;
     }
 }
-
-
-
-
-
-
-
-
-
-
-
-
-
-
-
-
-
-
-
-
-
-
@@ -0,0 +1,52 @@
+package com.kiselev.reflection.ui.impl.output;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+
+/**
+ * Thin wrapper over a caller-supplied Appendable which every renderer writes into directly.
+ */
+public class Output {
+
+    private final Appendable appendable;
+
+    private long length;
+
+    public Output(Appendable appendable) {
+        this.appendable = appendable;
+    }
+
+    public Output append(CharSequence charSequence) {
+        try {
+            appendable.append(charSequence);
+            length += charSequence.length();
+        } catch (IOException exception) {
+            throw new UncheckedIOException(exception);
+        }
+        return this;
+    }
+
+    public Output append(CharSequence charSequence, int start, int end) {
+        try {
+            appendable.append(charSequence, start, end);
+            length += end - start;
+        } catch (IOException exception) {
+            throw new UncheckedIOException(exception);
+        }
+        return this;
+    }
+
+    public Output append(char symbol) {
+        try {
+            appendable.append(symbol);
+            length++;
+        } catch (IOException exception) {
+            throw new UncheckedIOException(exception);
+        }
+        return this;
+    }
+
+    public long getLength() {
+        return length;
+    }
+}
@@ -1,14 +1,13 @@
 package com.kiselev.reflection.ui.impl.packages;
 
-public class PackageUtils {
+import com.kiselev.reflection.ui.impl.context.RenderContext;
+import com.kiselev.reflection.ui.impl.snapshot.ClassSnapshot;
 
-    public String getPackage(Class<?> clazz) {
-        String packageName = "";
+public class PackageUtils {
 
-        if (clazz.getPackage() != null && clazz.getDeclaringClass() == null) {
-            packageName += "package " + clazz.getPackage().getName() + ";\n\n";
+    public void appendPackage(ClassSnapshot snapshot, RenderContext context) {
+        if (snapshot.getPackageName() != null) {
+            context.getOutput().append("package ").append(snapshot.getPackageName()).append(";\n\n");
         }
-
-        return packageName;
     }
 }
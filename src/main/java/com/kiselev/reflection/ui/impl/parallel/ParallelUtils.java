@@ -0,0 +1,104 @@
+package com.kiselev.reflection.ui.impl.parallel;
+
+import com.kiselev.reflection.ui.impl.context.RenderContext;
+import com.kiselev.reflection.ui.impl.output.Output;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.function.BiConsumer;
+
+public class ParallelUtils {
+
+    private static final int CHUNKS_PER_THREAD = 4;
+
+    public <T> void appendMembers(T[] members, BiConsumer<T, RenderContext> memberRenderer, RenderContext context) {
+        if (members.length >= context.getReflectionUI().getParallelThreshold()) {
+            appendMembersInParallel(members, memberRenderer, context);
+        } else {
+            appendChunk(members, 0, members.length, memberRenderer, context);
+        }
+    }
+
+    /**
+     * Renders every member on its own, in parallel past the same threshold as {@link #appendMembers}.
+     */
+    public <T> String[] renderMembers(T[] members, BiConsumer<T, RenderContext> memberRenderer, RenderContext context) {
+        String[] renderedMembers = new String[members.length];
+
+        if (members.length >= context.getReflectionUI().getParallelThreshold()) {
+            List<ForkJoinTask<Void>> chunkTasks = forkChunks(members.length, (from, to) -> () -> {
+                renderEach(members, from, to, renderedMembers, memberRenderer, context);
+                return null;
+            }, context);
+            for (ForkJoinTask<Void> chunkTask : chunkTasks) {
+                chunkTask.join();
+            }
+        } else {
+            renderEach(members, 0, members.length, renderedMembers, memberRenderer, context);
+        }
+
+        return renderedMembers;
+    }
+
+    private <T> void appendMembersInParallel(T[] members, BiConsumer<T, RenderContext> memberRenderer, RenderContext context) {
+        List<ForkJoinTask<String>> chunkTasks = forkChunks(members.length,
+                (from, to) -> () -> renderChunk(members, from, to, memberRenderer, context), context);
+
+        Output output = context.getOutput();
+        for (int i = 0; i < chunkTasks.size(); i++) {
+            if (i != 0) {
+                output.append("\n\n");
+            }
+            output.append(chunkTasks.get(i).join());
+        }
+    }
+
+    private <R> List<ForkJoinTask<R>> forkChunks(int memberCount, ChunkTaskFactory<R> chunkTaskFactory, RenderContext context) {
+        ForkJoinPool pool = context.getReflectionUI().getPool();
+
+        int chunkCount = pool.getParallelism() * CHUNKS_PER_THREAD;
+        int chunkSize = (memberCount + chunkCount - 1) / chunkCount;
+
+        List<ForkJoinTask<R>> chunkTasks = new ArrayList<>();
+        for (int start = 0; start < memberCount; start += chunkSize) {
+            ForkJoinTask<R> chunkTask = ForkJoinTask.adapt(chunkTaskFactory.create(start, Math.min(start + chunkSize, memberCount)));
+            // Forking from another pool, e.g. a parallel stream, would run the chunks there
+            chunkTasks.add(ForkJoinTask.getPool() == pool ? chunkTask.fork() : pool.submit(chunkTask));
+        }
+        return chunkTasks;
+    }
+
+    private <T> String renderChunk(T[] members, int from, int to, BiConsumer<T, RenderContext> memberRenderer, RenderContext context) {
+        StringBuilder chunk = new StringBuilder();
+        appendChunk(members, from, to, memberRenderer, new RenderContext(context, new Output(chunk)));
+        return chunk.toString();
+    }
+
+    private <T> void renderEach(T[] members, int from, int to, String[] renderedMembers,
+                                BiConsumer<T, RenderContext> memberRenderer, RenderContext context) {
+        StringBuilder member = new StringBuilder();
+        RenderContext memberContext = new RenderContext(context, new Output(member));
+        for (int i = from; i < to; i++) {
+            memberRenderer.accept(members[i], memberContext);
+            renderedMembers[i] = member.toString();
+            member.setLength(0);
+        }
+    }
+
+    private <T> void appendChunk(T[] members, int from, int to, BiConsumer<T, RenderContext> memberRenderer, RenderContext context) {
+        for (int i = from; i < to; i++) {
+            if (i != from) {
+                context.getOutput().append("\n\n");
+            }
+            memberRenderer.accept(members[i], context);
+        }
+    }
+
+    private interface ChunkTaskFactory<R> {
+
+        Callable<R> create(int from, int to);
+    }
+}
@@ -0,0 +1,52 @@
+package com.kiselev.reflection.ui.impl.redefinition;
+
+import java.util.Map;
+
+/**
+ * Rendered fragments of a redefined class keyed by the fingerprints they were rendered from,
+ * so the next render after a redefinition only has to redo the fragments whose fingerprint changed.
+ */
+public class ClassLayout {
+
+    private final String signatureFingerprint;
+
+    private final String signature;
+
+    private final Map<String, String> fields;
+
+    private final Map<String, String> constructors;
+
+    private final Map<String, String> methods;
+
+    public ClassLayout(String signatureFingerprint,
+                       String signature,
+                       Map<String, String> fields,
+                       Map<String, String> constructors,
+                       Map<String, String> methods) {
+        this.signatureFingerprint = signatureFingerprint;
+        this.signature = signature;
+        this.fields = fields;
+        this.constructors = constructors;
+        this.methods = methods;
+    }
+
+    public String getSignatureFingerprint() {
+        return signatureFingerprint;
+    }
+
+    public String getSignature() {
+        return signature;
+    }
+
+    public Map<String, String> getFields() {
+        return fields;
+    }
+
+    public Map<String, String> getConstructors() {
+        return constructors;
+    }
+
+    public Map<String, String> getMethods() {
+        return methods;
+    }
+}
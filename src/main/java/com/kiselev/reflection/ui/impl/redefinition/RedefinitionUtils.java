@@ -0,0 +1,205 @@
+package com.kiselev.reflection.ui.impl.redefinition;
+
+import com.kiselev.reflection.ui.bytecode.holder.ByteCodeHolder;
+import com.kiselev.reflection.ui.bytecode.view.ClassFileView;
+import com.kiselev.reflection.ui.impl.cache.RenderCache;
+import com.kiselev.reflection.ui.impl.context.RenderContext;
+import com.kiselev.reflection.ui.impl.metrics.RenderMetrics;
+import com.kiselev.reflection.ui.impl.output.Output;
+import com.kiselev.reflection.ui.impl.snapshot.ClassSnapshot;
+import com.kiselev.reflection.ui.impl.snapshot.ExecutableSnapshot;
+import com.kiselev.reflection.ui.impl.snapshot.FieldSnapshot;
+
+import java.lang.reflect.Executable;
+import java.lang.reflect.Method;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.BiConsumer;
+
+/**
+ * Renders classes that were redefined at least once. Each member is rendered on its own and kept
+ * with a fingerprint read from the captured bytes; after the next redefinition only members
+ * with a new fingerprint are rendered again and the rest are spliced in from the previous layout.
+ */
+public class RedefinitionUtils {
+
+    // Fingerprints start with the access flags, so this never matches one
+    private static final String UNKNOWN_FINGERPRINT = "?";
+
+    public void appendRedefinedClass(Class<?> clazz, RenderContext context) {
+        long generation = RenderCache.getGeneration(clazz);
+        ClassSnapshot snapshot = ClassSnapshot.getSnapshot(clazz);
+
+        // Without captured bytes there is nothing to compare, the class is rendered in full and no layout is kept
+        ClassFileView classFileView = ByteCodeHolder.getClassFileView(clazz.getName());
+        ClassLayout previousLayout = (classFileView != null) ? RenderCache.getClassLayout(clazz) : null;
+        Map<String, String> fieldFingerprints = (classFileView != null)
+                ? classFileView.getFieldFingerprints() : Collections.emptyMap();
+        Map<String, String> methodFingerprints = (classFileView != null)
+                ? classFileView.getMethodFingerprints() : Collections.emptyMap();
+
+        String signatureFingerprint = (classFileView != null) ? classFileView.getClassFingerprint() : UNKNOWN_FINGERPRINT;
+        String signature;
+        if (previousLayout != null && signatureFingerprint.equals(previousLayout.getSignatureFingerprint())) {
+            signature = previousLayout.getSignature();
+        } else {
+            StringBuilder fragment = new StringBuilder();
+            context.getReflectionUI().appendClassSignature(clazz, new RenderContext(context, new Output(fragment)));
+            signature = fragment.toString();
+        }
+
+        FieldSnapshot[] fieldSnapshots = snapshot.getFields();
+        String[] fieldKeys = new String[fieldSnapshots.length];
+        for (int i = 0; i < fieldSnapshots.length; i++) {
+            fieldKeys[i] = fieldSnapshots[i].getName() + getDescriptor(fieldSnapshots[i].getField().getType());
+        }
+
+        String[] fieldMemberFingerprints = getFingerprints(fieldKeys, fieldFingerprints);
+        Map<String, String> fields = renderMembers(fieldSnapshots, fieldMemberFingerprints,
+                (previousLayout != null) ? previousLayout.getFields() : Collections.emptyMap(),
+                context.getFieldUtils()::appendField, context);
+
+        ExecutableSnapshot[] constructorSnapshots = snapshot.getConstructors();
+        String[] constructorFingerprints = getFingerprints(getExecutableKeys(constructorSnapshots), methodFingerprints);
+        Map<String, String> constructors = renderMembers(constructorSnapshots, constructorFingerprints,
+                (previousLayout != null) ? previousLayout.getConstructors() : Collections.emptyMap(),
+                context.getConstructorUtils()::appendConstructor, context);
+
+        ExecutableSnapshot[] methodSnapshots = snapshot.getMethods();
+        String[] methodMemberFingerprints = getFingerprints(getExecutableKeys(methodSnapshots), methodFingerprints);
+        Map<String, String> methods = renderMembers(methodSnapshots, methodMemberFingerprints,
+                (previousLayout != null) ? previousLayout.getMethods() : Collections.emptyMap(),
+                context.getMethodUtils()::appendMethod, context);
+
+        // Bytes that do not match the loaded class, e.g. evicted and captured again meanwhile, give no layout
+        if (classFileView != null && isKnown(fieldMemberFingerprints) && isKnown(constructorFingerprints) && isKnown(methodMemberFingerprints)) {
+            RenderCache.setClassLayout(clazz, generation,
+                    new ClassLayout(signatureFingerprint, signature, fields, constructors, methods));
+        }
+
+        Output output = context.getOutput();
+        output.append(signature).append("{\n\n");
+
+        boolean hasContent = appendMembers(fields.values(), false, output);
+        hasContent |= appendMembers(constructors.values(), hasContent, output);
+        hasContent |= appendMembers(methods.values(), hasContent, output);
+
+        context.getClassUtils().appendClasses(clazz, hasContent, context);
+
+        output.append(context.getClassIndent()).append('}');
+    }
+
+    private <T> Map<String, String> renderMembers(T[] members,
+                                                  String[] fingerprints,
+                                                  Map<String, String> previousMembers,
+                                                  BiConsumer<T, RenderContext> memberRenderer,
+                                                  RenderContext context) {
+        T[] changedMembers = Arrays.copyOf(members, members.length);
+        int changedCount = 0;
+        for (int i = 0; i < members.length; i++) {
+            if (!previousMembers.containsKey(fingerprints[i])) {
+                changedMembers[changedCount++] = members[i];
+            }
+        }
+
+        String[] renderedChanges = context.getParallelUtils()
+                .renderMembers(Arrays.copyOf(changedMembers, changedCount), memberRenderer, context);
+        RenderMetrics.addRenderedMembers(changedCount);
+
+        Map<String, String> renderedMembers = new LinkedHashMap<>();
+        int changedIndex = 0;
+        for (int i = 0; i < members.length; i++) {
+            String renderedMember = previousMembers.get(fingerprints[i]);
+            if (renderedMember == null) {
+                renderedMember = renderedChanges[changedIndex++];
+            }
+
+            // Members missing from the bytes get a key of their own, such layouts are never kept
+            String fingerprint = fingerprints[i];
+            renderedMembers.put(!fingerprint.equals(UNKNOWN_FINGERPRINT) ? fingerprint : UNKNOWN_FINGERPRINT + i, renderedMember);
+        }
+
+        return renderedMembers;
+    }
+
+    // Same separators as the member utils use for a full render
+    private boolean appendMembers(Collection<String> renderedMembers, boolean separate, Output output) {
+        if (renderedMembers.isEmpty()) {
+            return false;
+        }
+
+        if (separate) {
+            output.append('\n');
+        }
+
+        boolean first = true;
+        for (String renderedMember : renderedMembers) {
+            if (!first) {
+                output.append("\n\n");
+            }
+            output.append(renderedMember);
+            first = false;
+        }
+        output.append('\n');
+
+        return true;
+    }
+
+    private String[] getFingerprints(String[] keys, Map<String, String> byteCodeFingerprints) {
+        String[] fingerprints = new String[keys.length];
+        for (int i = 0; i < keys.length; i++) {
+            String fingerprint = byteCodeFingerprints.get(keys[i]);
+            // The name and descriptor are part of the declaration too
+            fingerprints[i] = (fingerprint != null) ? keys[i] + ' ' + fingerprint : UNKNOWN_FINGERPRINT;
+        }
+        return fingerprints;
+    }
+
+    private boolean isKnown(String[] fingerprints) {
+        for (String fingerprint : fingerprints) {
+            if (fingerprint.equals(UNKNOWN_FINGERPRINT)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private String[] getExecutableKeys(ExecutableSnapshot[] executables) {
+        String[] keys = new String[executables.length];
+        for (int i = 0; i < executables.length; i++) {
+            Executable executable = executables[i].getExecutable();
+
+            StringBuilder key = new StringBuilder((executable instanceof Method) ? executable.getName() : "<init>").append('(');
+            for (Class<?> parameterType : executable.getParameterTypes()) {
+                key.append(getDescriptor(parameterType));
+            }
+            key.append(')').append((executable instanceof Method) ? getDescriptor(((Method) executable).getReturnType()) : "V");
+
+            keys[i] = key.toString();
+        }
+        return keys;
+    }
+
+    private String getDescriptor(Class<?> type) {
+        if (type.isArray()) {
+            return type.getName().replace('.', '/');
+        }
+
+        if (type.isPrimitive()) {
+            if (type == void.class) return "V";
+            if (type == boolean.class) return "Z";
+            if (type == byte.class) return "B";
+            if (type == char.class) return "C";
+            if (type == short.class) return "S";
+            if (type == int.class) return "I";
+            if (type == long.class) return "J";
+            if (type == float.class) return "F";
+            return "D";
+        }
+
+        return 'L' + type.getName().replace('.', '/') + ';';
+    }
+}
@@ -0,0 +1,155 @@
+package com.kiselev.reflection.ui.impl.snapshot;
+
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.lang.reflect.Type;
+import java.lang.reflect.TypeVariable;
+
+/**
+ * Everything the renderers read from a class, fetched from reflection once.
+ * JDK reflection copies its arrays on every call, the snapshot hands out the same arrays
+ * to every render, so they must never be modified.
+ */
+public class ClassSnapshot {
+
+    // Attached to the class itself, so snapshots never pin class loaders
+    private static final ClassValue<ClassSnapshot> snapshots = new ClassValue<ClassSnapshot>() {
+        @Override
+        protected ClassSnapshot computeValue(Class<?> type) {
+            return new ClassSnapshot(type);
+        }
+    };
+
+    private final Class<?> clazz;
+
+    private final String packageName;
+
+    private final int modifiers;
+
+    private final boolean isInterface;
+
+    private final boolean isAnnotation;
+
+    private final boolean isEnum;
+
+    private final Annotation[] annotations;
+
+    private final TypeVariable<?>[] typeParameters;
+
+    private final Type genericSuperclass;
+
+    private final Type[] genericInterfaces;
+
+    private final FieldSnapshot[] fields;
+
+    private final ExecutableSnapshot[] constructors;
+
+    private final ExecutableSnapshot[] methods;
+
+    private final Class<?>[] declaredClasses;
+
+    private ClassSnapshot(Class<?> clazz) {
+        this.clazz = clazz;
+        this.packageName = (clazz.getPackage() != null && clazz.getDeclaringClass() == null) ? clazz.getPackage().getName() : null;
+        this.modifiers = clazz.getModifiers();
+        this.isInterface = clazz.isInterface();
+        this.isAnnotation = clazz.isAnnotation();
+        this.isEnum = clazz.isEnum();
+        this.annotations = clazz.getAnnotations();
+        this.typeParameters = clazz.getTypeParameters();
+        this.genericSuperclass = clazz.getGenericSuperclass();
+        this.genericInterfaces = clazz.getGenericInterfaces();
+
+        Field[] declaredFields = clazz.getDeclaredFields();
+        this.fields = new FieldSnapshot[declaredFields.length];
+        for (int i = 0; i < declaredFields.length; i++) {
+            fields[i] = new FieldSnapshot(declaredFields[i]);
+        }
+
+        Constructor<?>[] declaredConstructors = clazz.getDeclaredConstructors();
+        this.constructors = new ExecutableSnapshot[declaredConstructors.length];
+        for (int i = 0; i < declaredConstructors.length; i++) {
+            constructors[i] = new ExecutableSnapshot(declaredConstructors[i], false);
+        }
+
+        Method[] declaredMethods = clazz.getDeclaredMethods();
+        this.methods = new ExecutableSnapshot[declaredMethods.length];
+        for (int i = 0; i < declaredMethods.length; i++) {
+            methods[i] = new ExecutableSnapshot(declaredMethods[i], isAnnotation);
+        }
+
+        this.declaredClasses = clazz.getDeclaredClasses();
+    }
+
+    public static ClassSnapshot getSnapshot(Class<?> clazz) {
+        return snapshots.get(clazz);
+    }
+
+    /**
+     * Drops the snapshot of a redefined class, the next render reads the new definition.
+     */
+    public static void invalidate(Class<?> clazz) {
+        snapshots.remove(clazz);
+    }
+
+    public Class<?> getSnapshotClass() {
+        return clazz;
+    }
+
+    /**
+     * Returns the package name of a top level class, null for nested classes and classes without a package.
+     */
+    public String getPackageName() {
+        return packageName;
+    }
+
+    public int getModifiers() {
+        return modifiers;
+    }
+
+    public boolean isInterface() {
+        return isInterface;
+    }
+
+    public boolean isAnnotation() {
+        return isAnnotation;
+    }
+
+    public boolean isEnum() {
+        return isEnum;
+    }
+
+    public Annotation[] getAnnotations() {
+        return annotations;
+    }
+
+    public TypeVariable<?>[] getTypeParameters() {
+        return typeParameters;
+    }
+
+    public Type getGenericSuperclass() {
+        return genericSuperclass;
+    }
+
+    public Type[] getGenericInterfaces() {
+        return genericInterfaces;
+    }
+
+    public FieldSnapshot[] getFields() {
+        return fields;
+    }
+
+    public ExecutableSnapshot[] getConstructors() {
+        return constructors;
+    }
+
+    public ExecutableSnapshot[] getMethods() {
+        return methods;
+    }
+
+    public Class<?>[] getDeclaredClasses() {
+        return declaredClasses;
+    }
+}
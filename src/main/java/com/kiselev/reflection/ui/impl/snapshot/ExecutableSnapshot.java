@@ -0,0 +1,126 @@
+package com.kiselev.reflection.ui.impl.snapshot;
+
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Executable;
+import java.lang.reflect.Method;
+import java.lang.reflect.Parameter;
+import java.lang.reflect.Type;
+import java.lang.reflect.TypeVariable;
+
+/**
+ * Snapshot of a constructor or a method, the return type is null for constructors.
+ * Name and modifiers are read eagerly for filtering, generic signatures, parameters
+ * and annotations only once the member is rendered.
+ */
+public class ExecutableSnapshot {
+
+    private final Executable executable;
+
+    private final String name;
+
+    private final int modifiers;
+
+    private final boolean isAnnotationMember;
+
+    private volatile Details details;
+
+    ExecutableSnapshot(Executable executable, boolean isAnnotationMember) {
+        this.executable = executable;
+        this.name = executable.getName();
+        this.modifiers = executable.getModifiers();
+        this.isAnnotationMember = isAnnotationMember;
+    }
+
+    public Executable getExecutable() {
+        return executable;
+    }
+
+    public Class<?> getDeclaringClass() {
+        return executable.getDeclaringClass();
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public int getModifiers() {
+        return modifiers;
+    }
+
+    public boolean isDefault() {
+        return executable instanceof Method && ((Method) executable).isDefault();
+    }
+
+    public Annotation[] getAnnotations() {
+        return getDetails().annotations;
+    }
+
+    public TypeVariable<?>[] getTypeParameters() {
+        return getDetails().typeParameters;
+    }
+
+    public Type getGenericReturnType() {
+        return getDetails().genericReturnType;
+    }
+
+    public ParameterSnapshot[] getParameters() {
+        return getDetails().parameters;
+    }
+
+    public Type[] getGenericExceptionTypes() {
+        return getDetails().genericExceptionTypes;
+    }
+
+    /**
+     * Returns the default value of an annotation member, null for every other method.
+     */
+    public Object getDefaultValue() {
+        return getDetails().defaultValue;
+    }
+
+    private Details getDetails() {
+        // Racing threads may both read the member, either result is the same
+        Details details = this.details;
+        if (details == null) {
+            details = new Details(executable, isAnnotationMember);
+            this.details = details;
+        }
+        return details;
+    }
+
+    private static class Details {
+
+        private final Annotation[] annotations;
+
+        private final TypeVariable<?>[] typeParameters;
+
+        private final Type genericReturnType;
+
+        private final ParameterSnapshot[] parameters;
+
+        private final Type[] genericExceptionTypes;
+
+        private final Object defaultValue;
+
+        private Details(Executable executable, boolean isAnnotationMember) {
+            this.annotations = executable.getAnnotations();
+            this.typeParameters = executable.getTypeParameters();
+            this.genericExceptionTypes = executable.getGenericExceptionTypes();
+
+            Parameter[] executableParameters = executable.getParameters();
+            this.parameters = new ParameterSnapshot[executableParameters.length];
+            for (int i = 0; i < executableParameters.length; i++) {
+                parameters[i] = new ParameterSnapshot(executableParameters[i]);
+            }
+
+            if (executable instanceof Method) {
+                Method method = (Method) executable;
+                this.genericReturnType = method.getGenericReturnType();
+                this.defaultValue = isAnnotationMember ? method.getDefaultValue() : null;
+            } else {
+                this.genericReturnType = null;
+                this.defaultValue = null;
+            }
+        }
+    }
+}
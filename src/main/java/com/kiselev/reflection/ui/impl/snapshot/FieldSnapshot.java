@@ -0,0 +1,68 @@
+package com.kiselev.reflection.ui.impl.snapshot;
+
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Field;
+import java.lang.reflect.Type;
+
+/**
+ * Name and modifiers are read eagerly for filtering, the generic type and annotations
+ * only once the field is rendered.
+ */
+public class FieldSnapshot {
+
+    private final Field field;
+
+    private final String name;
+
+    private final int modifiers;
+
+    private volatile Details details;
+
+    FieldSnapshot(Field field) {
+        this.field = field;
+        this.name = field.getName();
+        this.modifiers = field.getModifiers();
+    }
+
+    public Field getField() {
+        return field;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public int getModifiers() {
+        return modifiers;
+    }
+
+    public Type getGenericType() {
+        return getDetails().genericType;
+    }
+
+    public Annotation[] getAnnotations() {
+        return getDetails().annotations;
+    }
+
+    private Details getDetails() {
+        // Racing threads may both read the field, either result is the same
+        Details details = this.details;
+        if (details == null) {
+            details = new Details(field);
+            this.details = details;
+        }
+        return details;
+    }
+
+    private static class Details {
+
+        private final Type genericType;
+
+        private final Annotation[] annotations;
+
+        private Details(Field field) {
+            this.genericType = field.getGenericType();
+            this.annotations = field.getAnnotations();
+        }
+    }
+}
@@ -0,0 +1,39 @@
+package com.kiselev.reflection.ui.impl.snapshot;
+
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Parameter;
+import java.lang.reflect.Type;
+
+public class ParameterSnapshot {
+
+    private final String name;
+
+    private final Type parameterizedType;
+
+    private final boolean isVarArgs;
+
+    private final Annotation[] annotations;
+
+    ParameterSnapshot(Parameter parameter) {
+        this.name = parameter.getName();
+        this.parameterizedType = parameter.getParameterizedType();
+        this.isVarArgs = parameter.isVarArgs();
+        this.annotations = parameter.getAnnotations();
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public Type getParameterizedType() {
+        return parameterizedType;
+    }
+
+    public boolean isVarArgs() {
+        return isVarArgs;
+    }
+
+    public Annotation[] getAnnotations() {
+        return annotations;
+    }
+}
@@ -1,13 +1,15 @@
 package com.kiselev.reflection.ui.impl.type;
 
+import com.kiselev.reflection.ui.impl.snapshot.ClassSnapshot;
+
 public class TypeUtils {
 
-    public String getType(Class<?> clazz) {
+    public String getType(ClassSnapshot snapshot) {
         String type = "class ";
 
-        if (clazz.isEnum()) type = "enum ";
-        if (clazz.isInterface()) type = "interface ";
-        if (clazz.isAnnotation()) type = "@interface ";
+        if (snapshot.isEnum()) type = "enum ";
+        if (snapshot.isInterface()) type = "interface ";
+        if (snapshot.isAnnotation()) type = "@interface ";
 
         return type;
     }
@@ -1,50 +1,105 @@
 package com.kiselev.reflection.ui.impl.value;
 
-import com.kiselev.reflection.ui.impl.annotation.AnnotationUtils;
-import com.kiselev.reflection.ui.impl.name.NameUtils;
+import com.kiselev.reflection.ui.impl.context.RenderContext;
+import com.kiselev.reflection.ui.impl.output.Output;
 
 import java.lang.annotation.Annotation;
 import java.lang.reflect.Array;
-import java.util.ArrayList;
-import java.util.List;
 
 public class ValueUtils {
 
-    public String getValue(Object object) {
+    public boolean isValue(Object object) {
         if (object != null) {
             Class<?> clazz = object.getClass();
-            if (clazz.isArray()) {
-                List<String> listValues = new ArrayList<>();
-                for (Object listValue : getArrayValues(object)) {
-                    listValues.add(getValue(listValue));
-                }
+            return clazz.isArray() || clazz.isEnum()
+                    || object instanceof String || object instanceof Character
+                    || object instanceof Number || object instanceof Boolean
+                    || object instanceof Annotation || object instanceof Class;
+        }
 
-                String values = String.join(", ", listValues);
-                if (listValues.size() == 1) {
-                    return values;
-                } else {
-                    return "{" + values + "}";
-                }
+        return false;
+    }
+
+    public void appendValue(Object object, RenderContext context) {
+        Output output = context.getOutput();
+
+        if (object != null) {
+            Class<?> clazz = object.getClass();
+            if (clazz.isArray()) {
+                appendArrayValues(object, context);
+                return;
             }
 
-            if (clazz.isEnum()) return clazz.getSimpleName() + "." + object;
-            if (object instanceof String) return "\"" + object + "\"";
-            if (object instanceof Character) return "\'" + object + "\'";
-            if (object instanceof Number || object instanceof Boolean) return object.toString();
-            if (object instanceof Annotation) return new AnnotationUtils().getAnnotation(Annotation.class.cast(object));
-            if (object instanceof Class) return new NameUtils().getTypeName(Class.class.cast(object)) + ".class";
+            if (clazz.isEnum()) {
+                output.append(clazz.getSimpleName()).append('.').append(object.toString());
+                return;
+            }
+            if (object instanceof String) {
+                output.append('\"').append(object.toString()).append('\"');
+                return;
+            }
+            if (object instanceof Character) {
+                output.append('\'').append(object.toString()).append('\'');
+                return;
+            }
+            if (object instanceof Number || object instanceof Boolean) {
+                output.append(object.toString());
+                return;
+            }
+            if (object instanceof Annotation) {
+                context.getAnnotationUtils().appendAnnotation(Annotation.class.cast(object), context);
+                return;
+            }
+            if (object instanceof Class) {
+                output.append(context.getNameUtils().getTypeName(Class.class.cast(object))).append(".class");
+                return;
+            }
         }
 
-        return null;
+        output.append("null");
     }
 
-    private List<Object> getArrayValues(Object object) {
-        List<Object> objects = new ArrayList<>();
-        if (object.getClass().isArray()) {
-            for (int i = 0; i < Array.getLength(object); i++) {
-                objects.add(Array.get(object, i));
+    private void appendArrayValues(Object array, RenderContext context) {
+        Output output = context.getOutput();
+
+        int length = Array.getLength(array);
+
+        if (length == 1) {
+            appendArrayValue(array, 0, context);
+        } else {
+            output.append('{');
+            for (int i = 0; i < length; i++) {
+                if (i != 0) {
+                    output.append(", ");
+                }
+                appendArrayValue(array, i, context);
             }
+            output.append('}');
+        }
+    }
+
+    // Elements of primitive arrays are read directly instead of being boxed by Array.get
+    private void appendArrayValue(Object array, int index, RenderContext context) {
+        Output output = context.getOutput();
+
+        if (array instanceof Object[]) {
+            appendValue(((Object[]) array)[index], context);
+        } else if (array instanceof int[]) {
+            output.append(String.valueOf(((int[]) array)[index]));
+        } else if (array instanceof long[]) {
+            output.append(String.valueOf(((long[]) array)[index]));
+        } else if (array instanceof boolean[]) {
+            output.append(String.valueOf(((boolean[]) array)[index]));
+        } else if (array instanceof char[]) {
+            output.append('\'').append(((char[]) array)[index]).append('\'');
+        } else if (array instanceof byte[]) {
+            output.append(String.valueOf(((byte[]) array)[index]));
+        } else if (array instanceof short[]) {
+            output.append(String.valueOf(((short[]) array)[index]));
+        } else if (array instanceof float[]) {
+            output.append(String.valueOf(((float[]) array)[index]));
+        } else {
+            output.append(String.valueOf(((double[]) array)[index]));
         }
-        return objects;
     }
 }
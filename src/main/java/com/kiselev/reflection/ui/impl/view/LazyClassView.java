@@ -0,0 +1,123 @@
+package com.kiselev.reflection.ui.impl.view;
+
+import com.kiselev.reflection.ui.api.view.ClassView;
+import com.kiselev.reflection.ui.impl.ReflectionUIImpl;
+import com.kiselev.reflection.ui.impl.context.RenderContext;
+import com.kiselev.reflection.ui.impl.output.Output;
+
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * Every section renders with its own context, so sections can be computed concurrently.
+ */
+public class LazyClassView implements ClassView {
+
+    private final ReflectionUIImpl reflectionUI;
+
+    private final Class<?> clazz;
+
+    private final Section signature;
+
+    private final Section fields;
+
+    private final Section constructors;
+
+    private final Section methods;
+
+    private final Section nestedClasses;
+
+    private final Section fullClass;
+
+    public LazyClassView(ReflectionUIImpl reflectionUI, Class<?> clazz) {
+        this.reflectionUI = reflectionUI;
+        this.clazz = clazz;
+
+        this.signature = new Section(() -> render(context -> reflectionUI.appendClassSignature(clazz, context)));
+        this.fields = new Section(() -> render(context -> context.getFieldUtils().appendFields(clazz, false, context)));
+        this.constructors = new Section(() -> render(context -> context.getConstructorUtils().appendConstructors(clazz, false, context)));
+        this.methods = new Section(() -> render(context -> context.getMethodUtils().appendMethods(clazz, false, context)));
+        this.nestedClasses = new Section(() -> render(context -> context.getClassUtils().appendClasses(clazz, false, context)));
+        this.fullClass = new Section(this::renderFullClass);
+    }
+
+    @Override
+    public String signature() {
+        return signature.get();
+    }
+
+    @Override
+    public String fields() {
+        return fields.get();
+    }
+
+    @Override
+    public String constructors() {
+        return constructors.get();
+    }
+
+    @Override
+    public String methods() {
+        return methods.get();
+    }
+
+    @Override
+    public String nestedClasses() {
+        return nestedClasses.get();
+    }
+
+    @Override
+    public String toString() {
+        return fullClass.get();
+    }
+
+    private String render(Consumer<RenderContext> sectionRenderer) {
+        StringBuilder section = new StringBuilder();
+        sectionRenderer.accept(new RenderContext(reflectionUI, clazz, new Output(section)));
+        return section.toString();
+    }
+
+    // Same separators as a full render puts between the parts of the class body
+    private String renderFullClass() {
+        StringBuilder fullClass = new StringBuilder(signature()).append("{\n\n");
+
+        boolean hasContent = false;
+        for (String section : new String[]{fields(), constructors(), methods(), nestedClasses()}) {
+            if (!section.isEmpty()) {
+                if (hasContent) {
+                    fullClass.append('\n');
+                }
+                fullClass.append(section);
+                hasContent = true;
+            }
+        }
+
+        RenderContext context = new RenderContext(reflectionUI, clazz, new Output(fullClass));
+        return fullClass.append(context.getClassIndent()).append('}').toString();
+    }
+
+    private static class Section {
+
+        private final Supplier<String> renderer;
+
+        private volatile String rendered;
+
+        private Section(Supplier<String> renderer) {
+            this.renderer = renderer;
+        }
+
+        private String get() {
+            String rendered = this.rendered;
+            if (rendered == null) {
+                synchronized (this) {
+                    rendered = this.rendered;
+                    if (rendered == null) {
+                        rendered = renderer.get();
+                        this.rendered = rendered;
+                    }
+                }
+            }
+            return rendered;
+        }
+    }
+}
@@ -0,0 +1,17 @@
+package com.kiselev.reflection.ui.bytecode.disassembler;
+
+public class DisassemblerFixture implements Cloneable {
+
+    private static final long LIMIT = 100000L;
+
+    protected int count;
+
+    public int add(int value) {
+        count += value;
+        return count;
+    }
+
+    public static String describe(String name, int... values) {
+        return (name != null) ? name + values.length : "none";
+    }
+}
@@ -0,0 +1,102 @@
+package com.kiselev.reflection.ui.bytecode.disassembler;
+
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+import static org.junit.Assert.assertTrue;
+
+public class DisassemblerTest {
+
+    private final Disassembler disassembler = new Disassembler();
+
+    @Test
+    public void disassemblesClassDeclaration() {
+        String listing = disassemble(DisassemblerFixture.class);
+
+        assertContains(listing, "public class com.kiselev.reflection.ui.bytecode.disassembler.DisassemblerFixture "
+                + "extends java.lang.Object implements java.lang.Cloneable\n");
+        assertContains(listing, "  flags: (0x0021) ACC_PUBLIC, ACC_SUPER\n");
+        assertContains(listing, "  interfaces: 1, fields: 2, methods: 3, attributes: 1\n");
+        assertContains(listing, "SourceFile: \"DisassemblerFixture.java\"\n");
+    }
+
+    @Test
+    public void disassemblesFields() {
+        String listing = disassemble(DisassemblerFixture.class);
+
+        assertContains(listing, "  private static final long LIMIT;\n"
+                + "    descriptor: J\n"
+                + "    flags: (0x001a) ACC_PRIVATE, ACC_STATIC, ACC_FINAL\n"
+                + "    ConstantValue: long 100000l\n");
+        assertContains(listing, "  protected int count;\n"
+                + "    descriptor: I\n"
+                + "    flags: (0x0004) ACC_PROTECTED\n");
+    }
+
+    @Test
+    public void disassemblesMethodCode() {
+        String listing = disassemble(DisassemblerFixture.class);
+
+        assertContains(listing, "  public int add(int);\n"
+                + "    descriptor: (I)I\n"
+                + "    flags: (0x0001) ACC_PUBLIC\n"
+                + "    Code:\n"
+                + "      stack=3, locals=2\n"
+                + "         0: aload_0\n"
+                + "         1: dup\n");
+        assertContains(listing, "         6: iadd\n");
+        assertContains(listing, "// Field com/kiselev/reflection/ui/bytecode/disassembler/DisassemblerFixture.count:I\n");
+        assertContains(listing, "        14: ireturn\n");
+
+        assertContains(listing, "  public static java.lang.String describe(java.lang.String, int...);\n");
+        assertContains(listing, "    flags: (0x0089) ACC_PUBLIC, ACC_STATIC, ACC_VARARGS\n");
+        assertContains(listing, "         1: ifnull        26\n");
+        assertContains(listing, "// String none\n");
+        assertContains(listing, "        28: areturn\n");
+    }
+
+    @Test
+    public void disassemblesJdkClasses() {
+        String objectListing = disassemble(Object.class);
+        assertContains(objectListing, "public class java.lang.Object\n");
+        assertContains(objectListing, "  public native int hashCode();\n");
+
+        String runnableListing = disassemble(Runnable.class);
+        assertContains(runnableListing, "public interface java.lang.Runnable\n");
+        assertContains(runnableListing, "  public abstract void run();\n");
+    }
+
+    @Test(expected = RuntimeException.class)
+    public void rejectsTruncatedClassFile() {
+        byte[] byteCode = getByteCode(DisassemblerFixture.class);
+        disassembler.disassemble(ByteBuffer.wrap(Arrays.copyOf(byteCode, byteCode.length / 2)));
+    }
+
+    private String disassemble(Class<?> clazz) {
+        return disassembler.disassemble(ByteBuffer.wrap(getByteCode(clazz)));
+    }
+
+    private static byte[] getByteCode(Class<?> clazz) {
+        String resourceName = clazz.getName().substring(clazz.getName().lastIndexOf('.') + 1) + ".class";
+        try (InputStream stream = clazz.getResourceAsStream(resourceName)) {
+            ByteArrayOutputStream byteCode = new ByteArrayOutputStream();
+            byte[] buffer = new byte[8192];
+            int length;
+            while ((length = stream.read(buffer)) != -1) {
+                byteCode.write(buffer, 0, length);
+            }
+            return byteCode.toByteArray();
+        } catch (IOException exception) {
+            throw new RuntimeException(exception);
+        }
+    }
+
+    private static void assertContains(String listing, String expected) {
+        assertTrue("Listing does not contain:\n" + expected + "\nListing:\n" + listing, listing.contains(expected));
+    }
+}
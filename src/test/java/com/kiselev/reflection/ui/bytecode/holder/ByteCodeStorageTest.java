@@ -0,0 +1,175 @@
+package com.kiselev.reflection.ui.bytecode.holder;
+
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class ByteCodeStorageTest {
+
+    private static final int SEGMENT_SIZE = 1024 * 1024;
+
+    @Test
+    public void evictsLeastRecentlyUsedClassesWithinBudget() {
+        for (ByteCodeStorage<?> storage : createStorages(1000)) {
+            storage.put("A", byteCode(400, 1));
+            storage.put("B", byteCode(400, 2));
+            storage.get("A");
+            storage.put("C", byteCode(400, 3));
+
+            assertTrue(storage.contains("A"));
+            assertFalse(storage.contains("B"));
+            assertTrue(storage.contains("C"));
+
+            ByteCodeStatistics statistics = storage.getStatistics();
+            assertEquals(2, statistics.getClassCount());
+            assertEquals(800, statistics.getStoredBytes());
+            assertEquals(1, statistics.getEvictionCount());
+        }
+    }
+
+    @Test
+    public void replacedClassesAreCountedOnce() {
+        for (ByteCodeStorage<?> storage : createStorages(1000)) {
+            storage.put("A", byteCode(400, 1));
+            storage.put("A", byteCode(300, 2));
+
+            assertEquals(300, storage.getStatistics().getStoredBytes());
+            assertArrayEquals(byteCode(300, 2), toArray(storage.get("A")));
+        }
+    }
+
+    @Test
+    public void pinnedClassesAreNeverEvicted() {
+        for (ByteCodeStorage<?> storage : createStorages(1000)) {
+            storage.put("A", byteCode(600, 1));
+            storage.pin("A");
+            storage.pin("A");
+            storage.put("B", byteCode(600, 2));
+
+            assertTrue(storage.contains("A"));
+            assertFalse(storage.contains("B"));
+            assertEquals(1, storage.getStatistics().getPinnedClassCount());
+
+            // Pins are counted, the class stays pinned until every pin is matched
+            storage.unpin("A");
+            storage.put("C", byteCode(300, 3));
+            assertTrue(storage.contains("A"));
+
+            storage.unpin("A");
+            storage.put("D", byteCode(600, 4));
+            assertFalse(storage.contains("A"));
+            assertTrue(storage.getStatistics().getStoredBytes() <= 1000);
+        }
+    }
+
+    @Test
+    public void shrinkingBudgetEvicts() {
+        for (ByteCodeStorage<?> storage : createStorages(1000)) {
+            storage.put("A", byteCode(300, 1));
+            storage.put("B", byteCode(300, 2));
+            storage.put("C", byteCode(300, 3));
+
+            storage.setByteBudget(500);
+
+            assertFalse(storage.contains("A"));
+            assertFalse(storage.contains("B"));
+            assertTrue(storage.contains("C"));
+            assertEquals(300, storage.getStatistics().getStoredBytes());
+        }
+    }
+
+    @Test
+    public void countsHitsAndMisses() {
+        for (ByteCodeStorage<?> storage : createStorages(1000)) {
+            storage.put("A", byteCode(100, 1));
+
+            assertNotNull(storage.get("A"));
+            assertNull(storage.get("B"));
+
+            ByteCodeStatistics statistics = storage.getStatistics();
+            assertEquals(1, statistics.getHitCount());
+            assertEquals(1, statistics.getMissCount());
+        }
+    }
+
+    @Test
+    public void viewsAreReadOnly() {
+        for (ByteCodeStorage<?> storage : createStorages(1000)) {
+            storage.put("A", byteCode(100, 1));
+
+            assertTrue(storage.get("A").isReadOnly());
+        }
+    }
+
+    @Test
+    public void directStorageSkipsClassesLargerThanQuarterOfSegment() {
+        DirectByteCodeStorage storage = new DirectByteCodeStorage(SEGMENT_SIZE);
+
+        storage.put("A", byteCode(SEGMENT_SIZE / 4 + 1, 1));
+
+        assertFalse(storage.contains("A"));
+        assertEquals(0, storage.getStatistics().getStoredBytes());
+    }
+
+    @Test
+    public void directStorageKeepsAllocatedMemoryBoundedUnderChurn() {
+        long byteBudget = 4 * SEGMENT_SIZE;
+        DirectByteCodeStorage storage = new DirectByteCodeStorage(byteBudget);
+
+        Map<String, byte[]> expected = new HashMap<>();
+        Random random = new Random(42);
+        for (int i = 0; i < 5000; i++) {
+            String className = "C" + random.nextInt(600);
+            byte[] byteCode = byteCode(1024 + random.nextInt(16 * 1024), i);
+            storage.put(className, byteCode);
+            expected.put(className, byteCode);
+
+            if (i % 7 == 0) {
+                String removedName = "C" + random.nextInt(600);
+                storage.remove(removedName);
+                expected.remove(removedName);
+            }
+
+            ByteCodeStatistics statistics = storage.getStatistics();
+            assertTrue(statistics.getStoredBytes() <= byteBudget);
+            assertTrue("Allocated " + statistics.getAllocatedBytes() + " for " + statistics.getStoredBytes(),
+                    statistics.getAllocatedBytes() <= 2 * statistics.getStoredBytes() + SEGMENT_SIZE);
+        }
+
+        // Classes moved by compaction keep their bytes
+        for (Map.Entry<String, byte[]> entry : expected.entrySet()) {
+            ByteBuffer byteCode = storage.get(entry.getKey());
+            if (byteCode != null) {
+                assertArrayEquals(entry.getValue(), toArray(byteCode));
+            }
+        }
+    }
+
+    private static ByteCodeStorage<?>[] createStorages(long byteBudget) {
+        return new ByteCodeStorage<?>[]{new HeapByteCodeStorage(byteBudget), new DirectByteCodeStorage(byteBudget)};
+    }
+
+    private static byte[] byteCode(int length, int seed) {
+        byte[] byteCode = new byte[length];
+        Arrays.fill(byteCode, (byte) seed);
+        byteCode[0] = (byte) (seed >> 8);
+        return byteCode;
+    }
+
+    private static byte[] toArray(ByteBuffer byteCode) {
+        byte[] bytes = new byte[byteCode.remaining()];
+        byteCode.duplicate().get(bytes);
+        return bytes;
+    }
+}
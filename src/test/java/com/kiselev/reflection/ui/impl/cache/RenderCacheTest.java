@@ -0,0 +1,183 @@
+package com.kiselev.reflection.ui.impl.cache;
+
+import com.kiselev.reflection.ui.bytecode.agent.Transformer;
+import com.kiselev.reflection.ui.bytecode.holder.ByteCodeHolder;
+import com.kiselev.reflection.ui.impl.ReflectionUIImpl;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class RenderCacheTest {
+
+    private final Transformer transformer = new Transformer();
+
+    @Test
+    public void rendersClassOnce() {
+        AtomicInteger renders = new AtomicInteger();
+        long hits = RenderCache.getHitCount();
+
+        String first = RenderCache.getRenderedClass(CachedClass.class, clazz -> "rendered " + renders.incrementAndGet());
+        String second = RenderCache.getRenderedClass(CachedClass.class, clazz -> "rendered " + renders.incrementAndGet());
+
+        assertEquals("rendered 1", first);
+        assertSame(first, second);
+        assertEquals(1, renders.get());
+        assertEquals(hits + 1, RenderCache.getHitCount());
+    }
+
+    @Test
+    public void redefinitionInvalidatesRenderedClass() {
+        ReflectionUIImpl reflectionUI = new ReflectionUIImpl();
+        String rendered = reflectionUI.parseClass(RedefinedClass.class);
+        assertFalse(RenderCache.isRedefined(RedefinedClass.class));
+
+        redefine(RedefinedClass.class, changed(getByteCode(RedefinedClass.class)), true);
+
+        assertTrue(RenderCache.isRedefined(RedefinedClass.class));
+        assertNull(RenderCache.getCachedClass(RedefinedClass.class));
+        assertEquals(rendered, reflectionUI.parseClass(RedefinedClass.class));
+    }
+
+    @Test
+    public void unchangedRetransformationKeepsRenderedClass() {
+        AtomicInteger renders = new AtomicInteger();
+        RenderCache.getRenderedClass(RetransformedClass.class, clazz -> "rendered " + renders.incrementAndGet());
+
+        byte[] byteCode = getByteCode(RetransformedClass.class);
+        redefine(RetransformedClass.class, byteCode, false);
+        redefine(RetransformedClass.class, byteCode, true);
+
+        assertFalse(RenderCache.isRedefined(RetransformedClass.class));
+        assertEquals("rendered 1", RenderCache.getCachedClass(RetransformedClass.class));
+    }
+
+    @Test
+    public void redefinitionInvalidatesEnclosingClasses() {
+        RenderCache.getRenderedClass(Outer.class, clazz -> "outer");
+        RenderCache.getRenderedClass(Outer.Inner.class, clazz -> "inner");
+
+        redefine(Outer.Inner.class, changed(getByteCode(Outer.Inner.class)), true);
+
+        assertNull(RenderCache.getCachedClass(Outer.Inner.class));
+        assertNull(RenderCache.getCachedClass(Outer.class));
+    }
+
+    @Test
+    public void renderOverlappingRedefinitionIsNotCached() throws Exception {
+        CountDownLatch renderStarted = new CountDownLatch(1);
+        CountDownLatch redefinitionDone = new CountDownLatch(1);
+
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<String> staleRender = executor.submit(() -> RenderCache.getRenderedClass(ConcurrentClass.class, clazz -> {
+                renderStarted.countDown();
+                try {
+                    redefinitionDone.await();
+                } catch (InterruptedException exception) {
+                    throw new RuntimeException(exception);
+                }
+                return "stale";
+            }));
+
+            assertTrue(renderStarted.await(10, TimeUnit.SECONDS));
+            redefine(ConcurrentClass.class, changed(getByteCode(ConcurrentClass.class)), true);
+            redefinitionDone.countDown();
+
+            assertEquals("stale", staleRender.get(10, TimeUnit.SECONDS));
+        } finally {
+            executor.shutdown();
+        }
+
+        assertNull(RenderCache.getCachedClass(ConcurrentClass.class));
+        assertEquals("fresh", RenderCache.getRenderedClass(ConcurrentClass.class, clazz -> "fresh"));
+        assertEquals("fresh", RenderCache.getCachedClass(ConcurrentClass.class));
+    }
+
+    @Test
+    public void renderStartedAfterRedefinitionIsCached() {
+        redefine(LateClass.class, changed(getByteCode(LateClass.class)), true);
+
+        assertEquals("fresh", RenderCache.getRenderedClass(LateClass.class, clazz -> "fresh"));
+        assertEquals("fresh", RenderCache.getCachedClass(LateClass.class));
+    }
+
+    // Runs the transformer as the agent does, the bytes are only compared and stored, never installed
+    private void redefine(Class<?> clazz, byte[] byteCode, boolean redefining) {
+        ByteCodeHolder.uploadByteCodeForClass(clazz.getName(), getByteCode(clazz));
+
+        boolean installed = false;
+        ByteCodeHolder.beginRedefinitions(redefining);
+        try {
+            transformer.transform(clazz.getClassLoader(), clazz.getName().replace('.', '/'), clazz, null, byteCode);
+            installed = true;
+        } catch (Exception exception) {
+            throw new RuntimeException(exception);
+        } finally {
+            ByteCodeHolder.completeRedefinitions(installed);
+        }
+    }
+
+    private static byte[] changed(byte[] byteCode) {
+        byte[] changedByteCode = byteCode.clone();
+        changedByteCode[changedByteCode.length - 1]++;
+        return changedByteCode;
+    }
+
+    private static byte[] getByteCode(Class<?> clazz) {
+        String resourceName = clazz.getName().substring(clazz.getName().lastIndexOf('.') + 1) + ".class";
+        try (InputStream stream = clazz.getResourceAsStream(resourceName)) {
+            ByteArrayOutputStream byteCode = new ByteArrayOutputStream();
+            byte[] buffer = new byte[8192];
+            int length;
+            while ((length = stream.read(buffer)) != -1) {
+                byteCode.write(buffer, 0, length);
+            }
+            return byteCode.toByteArray();
+        } catch (IOException exception) {
+            throw new RuntimeException(exception);
+        }
+    }
+
+    // Every test gets classes of its own, cache entries live as long as the classes
+
+    public static class CachedClass {
+    }
+
+    public static class RedefinedClass {
+
+        private int value;
+
+        public int getValue() {
+            return value;
+        }
+    }
+
+    public static class RetransformedClass {
+    }
+
+    public static class Outer {
+
+        public static class Inner {
+        }
+    }
+
+    public static class ConcurrentClass {
+    }
+
+    public static class LateClass {
+    }
+}
@@ -0,0 +1,181 @@
+package com.kiselev.reflection.ui.impl.flow;
+
+import com.kiselev.reflection.ui.api.flow.Subscriber;
+import com.kiselev.reflection.ui.api.flow.Subscription;
+import com.kiselev.reflection.ui.impl.ReflectionUIImpl;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class ClassFragmentPublisherTest {
+
+    private final ReflectionUIImpl reflectionUI = new ReflectionUIImpl();
+
+    @Test
+    public void fragmentsAddUpToRenderedClass() throws InterruptedException {
+        RecordingSubscriber subscriber = new RecordingSubscriber(Long.MAX_VALUE);
+
+        reflectionUI.publishClass(HashMap.class).subscribe(subscriber);
+
+        assertTrue(subscriber.done.await(10, TimeUnit.SECONDS));
+        assertNull(subscriber.error);
+        assertTrue(subscriber.completed);
+        assertEquals(reflectionUI.parseClass(HashMap.class), subscriber.getText());
+    }
+
+    @Test
+    public void emitsOnlyRequestedFragments() {
+        RecordingSubscriber subscriber = new RecordingSubscriber(0);
+        Subscription subscription = subscribe(HashMap.class, subscriber);
+
+        assertEquals(0, subscriber.fragments.size());
+
+        subscription.request(1);
+        assertEquals(1, subscriber.fragments.size());
+
+        subscription.request(3);
+        assertEquals(4, subscriber.fragments.size());
+        assertFalse(subscriber.completed);
+
+        subscription.request(Long.MAX_VALUE);
+        subscription.request(Long.MAX_VALUE);
+        assertTrue(subscriber.completed);
+        assertEquals(reflectionUI.parseClass(HashMap.class), subscriber.getText());
+    }
+
+    @Test
+    public void requestsFromOnNextDoNotRecurse() {
+        RecordingSubscriber subscriber = new RecordingSubscriber(1) {
+            @Override
+            public void onNext(CharSequence item) {
+                super.onNext(item);
+                depth++;
+                maxDepth = Math.max(maxDepth, depth);
+                subscription.request(1);
+                depth--;
+            }
+        };
+
+        subscribe(HashMap.class, subscriber);
+
+        assertTrue(subscriber.completed);
+        assertEquals(1, subscriber.maxDepth);
+        assertEquals(reflectionUI.parseClass(HashMap.class), subscriber.getText());
+    }
+
+    @Test
+    public void cancelStopsEmission() {
+        RecordingSubscriber subscriber = new RecordingSubscriber(2);
+        Subscription subscription = subscribe(HashMap.class, subscriber);
+
+        subscription.cancel();
+        subscription.request(10);
+
+        assertEquals(2, subscriber.fragments.size());
+        assertFalse(subscriber.completed);
+        assertNull(subscriber.error);
+    }
+
+    @Test
+    public void cancelFromOnNextStopsEmission() {
+        RecordingSubscriber subscriber = new RecordingSubscriber(Long.MAX_VALUE) {
+            @Override
+            public void onNext(CharSequence item) {
+                super.onNext(item);
+                if (fragments.size() == 3) {
+                    subscription.cancel();
+                }
+            }
+        };
+
+        subscribe(HashMap.class, subscriber);
+
+        assertEquals(3, subscriber.fragments.size());
+        assertFalse(subscriber.completed);
+    }
+
+    @Test
+    public void nonPositiveRequestSignalsError() {
+        RecordingSubscriber subscriber = new RecordingSubscriber(1);
+        Subscription subscription = subscribe(HashMap.class, subscriber);
+
+        subscription.request(0);
+        subscription.request(5);
+
+        assertTrue(subscriber.error instanceof IllegalArgumentException);
+        assertEquals(1, subscriber.fragments.size());
+        assertFalse(subscriber.completed);
+    }
+
+    // Drains on the calling thread, so every signal has arrived once request returns
+    private Subscription subscribe(Class<?> clazz, RecordingSubscriber subscriber) {
+        Subscription subscription = new ClassFragmentSubscription(subscriber, Runnable::run, new ClassFragments(clazz, reflectionUI));
+        subscriber.onSubscribe(subscription);
+        return subscription;
+    }
+
+    private static class RecordingSubscriber implements Subscriber<CharSequence> {
+
+        protected final List<CharSequence> fragments = new ArrayList<>();
+
+        private final CountDownLatch done = new CountDownLatch(1);
+
+        private final long initialRequest;
+
+        protected Subscription subscription;
+
+        private volatile boolean completed;
+
+        private volatile Throwable error;
+
+        protected int depth;
+
+        protected int maxDepth;
+
+        private RecordingSubscriber(long initialRequest) {
+            this.initialRequest = initialRequest;
+        }
+
+        @Override
+        public void onSubscribe(Subscription subscription) {
+            this.subscription = subscription;
+            if (initialRequest > 0) {
+                subscription.request(initialRequest);
+            }
+        }
+
+        @Override
+        public void onNext(CharSequence item) {
+            fragments.add(item);
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+            error = throwable;
+            done.countDown();
+        }
+
+        @Override
+        public void onComplete() {
+            completed = true;
+            done.countDown();
+        }
+
+        private String getText() {
+            StringBuilder text = new StringBuilder();
+            for (CharSequence fragment : fragments) {
+                text.append(fragment);
+            }
+            return text.toString();
+        }
+    }
+}